@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares the dense {@link AdjacencyMatrix} with the sparse {@link AdjacencyList} on random geometric meshes,
+ * reporting retained heap and the latency of <code>areAdjacent</code> and <code>incidentEdges</code>. The dense
+ * backend is skipped once its matrix would no longer fit in the heap.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class AdjacencyBenchmark {
+    private static final int[] SIZES = {1000, 4000, 16000, 100000};
+    private static final int DENSE_LIMIT = 16000;
+    private static final int QUERIES = 1000000;
+
+    static volatile long blackhole;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-7s %12s %14s %16s%n", "n", "store", "heap (MB)", "adjacent (ns)", "incident (ns)");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 6, 42);
+            if (n <= DENSE_LIMIT) {
+                run(topology, n, true);
+            }
+            run(topology, n, false);
+        }
+    }
+
+    private static void run(Topologies topology, int n, boolean dense) {
+        long before = usedMemory();
+        Graph graph = topology.toGraph(dense);
+        long heap = usedMemory() - before;
+
+        ArrayList<Vertex> vertices = topology.getVertexList();
+        Random random = new Random(7);
+        long sink = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            if (graph.areAdjacent(vertices.get(random.nextInt(n)), vertices.get(random.nextInt(n)))) {
+                sink++;
+            }
+        }
+        double adjacent = (System.nanoTime() - start) / (double) QUERIES;
+
+        int rounds = Math.max(1, QUERIES / n / 10);
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (Vertex v : vertices) {
+                sink += graph.incidentEdges(v).size();
+            }
+        }
+        double incident = (System.nanoTime() - start) / (double) (rounds * n);
+
+        blackhole += sink;
+        System.out.printf("%-8d %-7s %12.1f %14.1f %16.1f%n", n, dense ? "matrix" : "list",
+                heap / 1048576.0, adjacent, incident);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
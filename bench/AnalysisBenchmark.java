@@ -0,0 +1,145 @@
+import java.util.Random;
+
+/**
+ * Measures {@link Graph#analyse()} and checks what it finds. Small random graphs are checked against brute force,
+ * removing each vertex and each {@link Edge} in turn and counting the components left, and every vertex is checked
+ * to touch edges of more than one block exactly when it is an articulation point. A line of a million relays is
+ * analysed to show the search does not recurse, and a random geometric mesh of about a million links is timed
+ * fresh, cached and after each link flap.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class AnalysisBenchmark {
+    private static final int SMALL_GRAPHS = 300;
+    private static final int LINE = 1000000;
+    private static final int MESH = 333334;
+    private static final int FLAPS = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(5);
+        for (int i = 0; i < SMALL_GRAPHS; i++) {
+            check(Topologies.randomGeometric(5 + random.nextInt(60), 1 + 3 * random.nextDouble(), i).toGraph(false));
+        }
+        System.out.printf("%d small graphs match brute force%n", SMALL_GRAPHS);
+
+        Graph line = Topologies.line(LINE).toGraph(false);
+        long begin = System.nanoTime();
+        TopologyAnalysis analysis = line.analyse();
+        double lineTime = (System.nanoTime() - begin) / 1e6;
+        if (analysis.getBridges().length != LINE - 1 || analysis.getArticulationPoints().length != LINE - 2) {
+            throw new AssertionError("Line of " + LINE + " has " + analysis.getBridges().length + " bridges and "
+                    + analysis.getArticulationPoints().length + " articulation points");
+        }
+        System.out.printf("line of %d relays: %.1f ms, %d bridges%n", LINE, lineTime, analysis.getBridges().length);
+
+        Graph mesh = Topologies.randomGeometric(MESH, 6, 42).toGraph(false);
+        for (int round = 0; round < 3; round++) {
+            Edge flapped = mesh.edgeAt(random.nextInt(mesh.getEdgeCount()));
+            mesh.removeEdge(flapped);
+            mesh.insertEdge(flapped.getV(), flapped.getW(), flapped.getType(), flapped.getName());
+            begin = System.nanoTime();
+            analysis = mesh.analyse();
+            double fresh = (System.nanoTime() - begin) / 1e6;
+            begin = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                mesh.analyse();
+            }
+            double cached = (System.nanoTime() - begin) / 1e3 / 1000;
+            begin = System.nanoTime();
+            for (int i = 0; i < FLAPS; i++) {
+                Edge e = mesh.edgeAt(random.nextInt(mesh.getEdgeCount()));
+                mesh.removeEdge(e);
+                mesh.insertEdge(e.getV(), e.getW(), e.getType(), e.getName());
+                mesh.analyse();
+            }
+            double flap = (System.nanoTime() - begin) / 1e6 / FLAPS;
+            System.out.printf("mesh of %d vertices, %d edges: fresh %.1f ms, cached %.2f us, per flap %.1f ms%n",
+                    mesh.getVertexCount(), mesh.getEdgeCount(), fresh, cached, flap);
+        }
+        System.out.printf("%d components, %d blocks, %d bridges, %d articulation points%n",
+                analysis.getComponentCount(), analysis.getBlockCount(), analysis.getBridges().length,
+                analysis.getArticulationPoints().length);
+    }
+
+    private static void check(Graph graph) {
+        TopologyAnalysis analysis = graph.analyse();
+        int n = graph.getVertexCount();
+        int components = components(graph, null, null);
+        if (analysis.getComponentCount() != components) {
+            throw new AssertionError("Found " + analysis.getComponentCount() + " components instead of "
+                    + components);
+        }
+        for (int v = 0; v < n; v++) {
+            int left = components - (graph.degree(graph.vertexAt(v)) == 0 ? 1 : 0);
+            boolean splits = components(graph, graph.vertexAt(v), null) > left;
+            if (splits != analysis.isArticulationPoint(v)) {
+                throw new AssertionError(graph.vertexAt(v) + " articulation point: " + analysis.isArticulationPoint(v));
+            }
+            int firstBlock = -1;
+            boolean severalBlocks = false;
+            for (int i = 0; i < graph.degree(graph.vertexAt(v)); i++) {
+                int block = analysis.getBlock(slotOf(graph, graph.incidentEdge(graph.vertexAt(v), i)));
+                if (firstBlock < 0) {
+                    firstBlock = block;
+                } else if (block != firstBlock) {
+                    severalBlocks = true;
+                }
+            }
+            if (severalBlocks != splits) {
+                throw new AssertionError(graph.vertexAt(v) + " touches several blocks: " + severalBlocks);
+            }
+        }
+        boolean[] bridge = new boolean[graph.getEdgeCount()];
+        for (int e : analysis.getBridges()) {
+            bridge[e] = true;
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            boolean splits = components(graph, null, graph.edgeAt(e)) > components;
+            if (splits != bridge[e]) {
+                throw new AssertionError(graph.edgeAt(e) + " bridge: " + bridge[e]);
+            }
+        }
+    }
+
+    /**
+     * Counts the components of a graph with one vertex or edge left out, by breadth first search.
+     */
+    private static int components(Graph graph, Vertex skipVertex, Edge skipEdge) {
+        int n = graph.getVertexCount();
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (seen[s] || graph.vertexAt(s) == skipVertex) {
+                continue;
+            }
+            count++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            seen[s] = true;
+            while (head < tail) {
+                Vertex v = graph.vertexAt(queue[head++]);
+                for (int i = 0; i < graph.degree(v); i++) {
+                    Vertex w = graph.neighbour(v, i);
+                    int wIndex = graph.indexOf(w);
+                    if (graph.incidentEdge(v, i) != skipEdge && w != skipVertex && !seen[wIndex]) {
+                        seen[wIndex] = true;
+                        queue[tail++] = wIndex;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int slotOf(Graph graph, Edge e) {
+        for (int i = 0; i < graph.getEdgeCount(); i++) {
+            if (graph.edgeAt(i) == e) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
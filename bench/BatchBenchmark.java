@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * Applies bursts of join, leave, link-down and link-up events to a random geometric mesh as {@link TopologyBatch}
+ * objects of growing size, and reports the number of events applied per second for each batch size. A batch size
+ * of 1 is the cost of applying every event on its own.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class BatchBenchmark {
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1000, 10000};
+    private static final int N = 100000;
+    private static final int LINKS = 3;
+    private static final int EVENTS = 200000;
+
+    private static int names = N;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %14s %8s%n", "batch", "events/sec", "errors");
+        for (int size : BATCH_SIZES) {
+            Topologies topology = Topologies.randomGeometric(N, 6, 42);
+            Graph graph = topology.toGraph(false);
+            ArrayList<Vertex> live = new ArrayList<Vertex>(topology.getVertexList());
+            Random random = new Random(7);
+            TopologyBatch batch = new TopologyBatch();
+            long applied = 0;
+            long events = 0;
+            long nanos = 0;
+
+            while (events < EVENTS) {
+                batch.clear();
+                fill(batch, graph, live, random, size);
+                long begin = System.nanoTime();
+                applied += graph.apply(batch);
+                nanos += System.nanoTime() - begin;
+                events += batch.size();
+            }
+
+            System.out.printf("%-8d %14.0f %8d%n", size, events / (nanos / 1e9), events - applied);
+        }
+    }
+
+    /**
+     * Fills a batch with random events. Vertices leaving in the batch are not used by later events, and a link only
+     * goes down once per batch, so every event applies cleanly.
+     */
+    private static void fill(TopologyBatch batch, Graph graph, ArrayList<Vertex> live, Random random, int size) {
+        IdentityHashMap<Vertex, Boolean> leaving = new IdentityHashMap<Vertex, Boolean>();
+        IdentityHashMap<Edge, Boolean> down = new IdentityHashMap<Edge, Boolean>();
+        ArrayList<Edge> flapped = new ArrayList<Edge>();
+
+        while (batch.size() < size) {
+            int event = random.nextInt(4);
+            if (event == 0) {
+                Vertex joining = batch.insertVertex("Mobile", Integer.toString(names++));
+                IdentityHashMap<Vertex, Boolean> linked = new IdentityHashMap<Vertex, Boolean>();
+                for (int i = 0; i < LINKS && batch.size() < size; i++) {
+                    Vertex w = live.get(random.nextInt(live.size()));
+                    if (linked.put(w, Boolean.TRUE) == null) {
+                        batch.insertEdge(joining, w, "Channel", "batch-" + names++);
+                    }
+                }
+                live.add(joining);
+            } else if (event == 1) {
+                int slot = random.nextInt(live.size());
+                Vertex v = live.get(slot);
+                live.set(slot, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                leaving.put(v, Boolean.TRUE);
+                batch.removeVertex(v);
+            } else if (event == 2) {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                if (!down.containsKey(e) && !leaving.containsKey(e.getV()) && !leaving.containsKey(e.getW())) {
+                    down.put(e, Boolean.TRUE);
+                    batch.removeEdge(e);
+                    flapped.add(e);
+                }
+            } else if (!flapped.isEmpty()) {
+                Edge e = flapped.remove(flapped.size() - 1);
+                if (!leaving.containsKey(e.getV()) && !leaving.containsKey(e.getW())) {
+                    batch.insertEdge(e.getV(), e.getW(), "Channel", "batch-" + names++);
+                }
+            }
+        }
+    }
+}
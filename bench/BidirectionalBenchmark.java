@@ -0,0 +1,65 @@
+import java.util.Random;
+
+/**
+ * Compares a one-sided breadth first search with the bidirectional search used by <code>path</code> on random
+ * geometric graphs, reporting the mean number of vertices visited and the mean latency per point-to-point query.
+ * The hop counts of both searches are checked to be equal.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class BidirectionalBenchmark {
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-14s %14s %12s%n", "n", "search", "visited", "time (us)");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 8, 42);
+            AdjacencyList store = topology.toStore();
+            Traversal traversal = new Traversal();
+            Random random = new Random(7);
+            int[] pairs = new int[QUERIES * 2];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = random.nextInt(n);
+            }
+
+            long oneVisited = 0;
+            long twoVisited = 0;
+            long oneTime = 0;
+            long twoTime = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                int start = pairs[q * 2];
+                int finish = pairs[q * 2 + 1];
+
+                long begin = System.nanoTime();
+                traversal.reset(n);
+                traversal.breadthFirst(store, finish, start, null, null);
+                int oneHops = traversal.isVisited(start) ? hops(traversal, start, finish) : -1;
+                oneTime += System.nanoTime() - begin;
+                oneVisited += traversal.getVisitedCount();
+
+                begin = System.nanoTime();
+                traversal.reset(n);
+                int twoHops = traversal.bidirectional(store, start, finish) ? hops(traversal, start, finish) : -1;
+                twoTime += System.nanoTime() - begin;
+                twoVisited += traversal.getVisitedCount();
+
+                if (oneHops != twoHops) {
+                    throw new IllegalStateException("Hop counts differ: " + oneHops + " and " + twoHops);
+                }
+            }
+
+            System.out.printf("%-8d %-14s %14d %12.1f%n", n, "one-sided", oneVisited / QUERIES, oneTime / 1e3 / QUERIES);
+            System.out.printf("%-8d %-14s %14d %12.1f%n", n, "bidirectional", twoVisited / QUERIES, twoTime / 1e3 / QUERIES);
+        }
+    }
+
+    private static int hops(Traversal traversal, int start, int finish) {
+        int hops = 0;
+        for (int v = start; v != finish; v = traversal.getParent(v)) {
+            hops++;
+        }
+        return hops;
+    }
+}
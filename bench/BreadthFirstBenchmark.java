@@ -0,0 +1,42 @@
+/**
+ * Times full breadth first traversals of sparse random geometric meshes: a whole-graph sweep through
+ * <code>reportCycle</code> and a single-source traversal through <code>spanningTree</code>.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class BreadthFirstBenchmark {
+    private static final int[] SIZES = {10000, 100000};
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 20;
+
+    static volatile long blackhole;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %10s %18s %18s%n", "n", "edges", "reportCycle (ms)", "spanningTree (ms)");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 6, 42);
+            Graph graph = topology.toGraph(false);
+            Vertex start = topology.getVertexList().get(0);
+
+            for (int i = 0; i < WARMUP; i++) {
+                graph.reportCycle();
+                graph.spanningTree(start);
+            }
+
+            long begin = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                blackhole += graph.reportCycle() ? 1 : 0;
+            }
+            double sweep = (System.nanoTime() - begin) / 1e6 / ROUNDS;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                blackhole += graph.spanningTree(start).hashCode();
+            }
+            double tree = (System.nanoTime() - begin) / 1e6 / ROUNDS;
+
+            System.out.printf("%-8d %10d %18.2f %18.2f%n", n, topology.getEdgeList().size(), sweep, tree);
+        }
+    }
+}
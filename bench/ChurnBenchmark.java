@@ -0,0 +1,55 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Runs a sustained join/leave workload against a random geometric mesh: on every step a random device leaves the
+ * network and a new one joins, linking to a few existing devices. Reports the number of churn steps per second
+ * for both adjacency backends.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ChurnBenchmark {
+    private static final int[] SIZES = {1000, 10000, 100000};
+    private static final int DENSE_LIMIT = 10000;
+    private static final int LINKS = 6;
+    private static final int STEPS = 20000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-7s %16s%n", "n", "store", "steps/sec");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, LINKS, 42);
+            if (n <= DENSE_LIMIT) {
+                run(topology, n, true);
+            }
+            run(topology, n, false);
+        }
+    }
+
+    private static void run(Topologies topology, int n, boolean dense) {
+        Graph graph = topology.toGraph(dense);
+        ArrayList<Vertex> live = new ArrayList<Vertex>(topology.getVertexList());
+        Random random = new Random(7);
+        int names = n;
+
+        long start = System.nanoTime();
+        for (int step = 0; step < STEPS; step++) {
+            int leaving = random.nextInt(live.size());
+            graph.removeVertex(live.get(leaving));
+            live.set(leaving, live.get(live.size() - 1));
+            live.remove(live.size() - 1);
+
+            Vertex joining = graph.insertVertex("Mobile", Integer.toString(names++));
+            for (int i = 0; i < LINKS; i++) {
+                Vertex w = live.get(random.nextInt(live.size()));
+                if (!graph.areAdjacent(joining, w)) {
+                    graph.insertEdge(joining, w, "Channel", "join-" + names++);
+                }
+            }
+            live.add(joining);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-8d %-7s %16.0f%n", n, dense ? "matrix" : "list", STEPS / seconds);
+    }
+}
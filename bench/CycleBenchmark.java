@@ -0,0 +1,79 @@
+import java.util.Random;
+
+/**
+ * Feeds a stream of link changes to a sparse random geometric mesh and checks for a routing loop after every change,
+ * as the monitoring does. Reports changes per second when the check is answered by the {@link ConnectivityTracker}
+ * behind {@link Graph#reportCycle()} against a full sweep of the graph, and the rate of
+ * {@link Graph#wouldCreateCycle(Vertex, Vertex)} queries.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class CycleBenchmark {
+    private static final int[] SIZES = {10000, 100000};
+    private static final double DEGREE = 1.5;
+    private static final int TRACKED_CHANGES = 200000;
+    private static final int SWEPT_CHANGES = 200;
+    private static final int QUERIES = 1000000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-8s %14s %8s%n", "n", "mode", "changes/sec", "cycles");
+        for (int n : SIZES) {
+            Graph graph = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            graph.reportCycle();
+            run(graph, n, "tracked", TRACKED_CHANGES, false);
+
+            Random random = new Random(3);
+            long begin = System.nanoTime();
+            int closing = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                if (graph.wouldCreateCycle(graph.vertexAt(random.nextInt(n)), graph.vertexAt(random.nextInt(n)))) {
+                    closing++;
+                }
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("%-8d %-8s %14.0f %8d%n", n, "query", QUERIES / seconds, closing);
+
+            graph = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            run(graph, n, "swept", SWEPT_CHANGES, true);
+        }
+    }
+
+    /**
+     * Removes a random link or adds a link between random vertices, then looks for a cycle.
+     */
+    private static void run(Graph graph, int n, String mode, int changes, boolean sweep) {
+        Random random = new Random(7);
+        int names = n * 10;
+        int cycles = 0;
+
+        long begin = System.nanoTime();
+        for (int c = 0; c < changes; c++) {
+            if (random.nextBoolean() && graph.getEdgeCount() > 0) {
+                graph.removeEdge(graph.edgeAt(random.nextInt(graph.getEdgeCount())));
+            } else {
+                Vertex v = graph.vertexAt(random.nextInt(n));
+                Vertex w = graph.vertexAt(random.nextInt(n));
+                if (v != w && !graph.areAdjacent(v, w)) {
+                    graph.insertEdge(v, w, "Channel", Integer.toString(names++));
+                }
+            }
+            if (sweep ? sweptCycle(graph) : graph.reportCycle()) {
+                cycles++;
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%-8d %-8s %14.0f %8d%n", n, mode, changes / seconds, cycles);
+    }
+
+    /**
+     * Looks for a cycle the way reportCycle did before it was tracked: a sweep over every vertex and edge.
+     */
+    private static boolean sweptCycle(Graph graph) {
+        int partitions = 0;
+        for (int component : graph.connectedComponents()) {
+            partitions = Math.max(partitions, component + 1);
+        }
+        return graph.getEdgeCount() > graph.getVertexCount() - partitions;
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+
+/**
+ * Compares the heap held by a {@link Graph} of {@link Vertex} and {@link Edge} objects with that held by a
+ * {@link CompactTopology} of the same random geometric mesh, per vertex and per edge. Each is measured once with its
+ * vertices alone and once with its edges too, name indexes included in both. A sweep over every neighbour of every vertex is
+ * timed on both, and a few lookups and a copy back into a Graph are checked against the original.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class FootprintBenchmark {
+    private static final int[] SIZES = {100000, 1000000};
+    private static final int ROUNDS = 10;
+
+    static volatile long blackhole;
+    static Object held;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %9s %-14s %12s %12s %12s%n", "n", "edges", "store", "B/vertex", "B/edge",
+                "sweep (ms)");
+        for (int n : SIZES) {
+            long base = usedHeap();
+            Topologies topology = Topologies.randomGeometric(n, 6, 42);
+            held = new Graph(topology.getVertexList(), new ArrayList<Edge>(), false);
+            int m = topology.getEdgeList().size();
+            topology = null;
+            double perVertex = usedHeap() - base;
+            held = null;
+
+            base = usedHeap();
+            topology = Topologies.randomGeometric(n, 6, 42);
+            Graph graph = topology.toGraph(false);
+            topology = null;
+            double total = usedHeap() - base;
+            report(n, m, "objects", perVertex / n, (total - perVertex) / m, sweep(graph.topology()));
+
+            base = usedHeap();
+            CompactTopology vertexOnly = new CompactTopology();
+            for (int v = 0; v < graph.getVertexCount(); v++) {
+                Vertex vertex = graph.vertexAt(v);
+                vertexOnly.insertVertex(vertex.getType(), vertex.getName());
+                vertexOnly.setPosition(v, vertex.getX(), vertex.getY());
+            }
+            vertexOnly.degree(0);
+            held = vertexOnly;
+            perVertex = usedHeap() - base;
+            vertexOnly = null;
+            held = null;
+
+            graph.snapshot();
+            base = usedHeap();
+            CompactTopology compact = CompactTopology.of(graph);
+            compact.degree(0);
+            check(graph, compact);
+            Graph original = graph;
+            graph = null;
+            held = compact;
+            total = usedHeap() - base;
+            report(n, m, "compact", perVertex / n, (total - perVertex) / m, sweep(compact));
+            held = null;
+            blackhole += original.getVertexCount();
+        }
+    }
+
+    private static double sweep(Topology store) {
+        long sum = 0;
+        for (int i = 0; i < 2; i++) {
+            sum += sweepOnce(store);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sum += sweepOnce(store);
+        }
+        blackhole += sum;
+        return (System.nanoTime() - begin) / 1e6 / ROUNDS;
+    }
+
+    private static long sweepOnce(Topology store) {
+        long sum = 0;
+        for (int v = 0; v < store.size(); v++) {
+            for (int i = 0; i < store.degree(v); i++) {
+                sum += store.neighbour(v, i);
+            }
+        }
+        return sum;
+    }
+
+    private static void check(Graph graph, CompactTopology compact) {
+        if (compact.size() != graph.getVertexCount() || compact.getEdgeCount() != graph.getEdgeCount()) {
+            throw new IllegalStateException("Copy changed the size of the topology");
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e += 101) {
+            Edge edge = graph.edgeAt(e);
+            int id = compact.getEdge(edge.getType(), edge.getName());
+            if (id != e || compact.getV(id) != graph.indexOf(edge.getV()) || compact.getW(id) != graph.indexOf(edge.getW())
+                    || compact.getCost(id, LinkMetric.LATENCY) != edge.getCost(LinkMetric.LATENCY)) {
+                throw new IllegalStateException("Copy changed " + edge);
+            }
+        }
+        Graph back = compact.toGraph(false);
+        if (back.getEdgeCount() != graph.getEdgeCount() || back.getVertex("Mobile", "7").getX() != graph.vertexAt(7).getX()) {
+            throw new IllegalStateException("Copy back to a Graph changed the topology");
+        }
+    }
+
+    private static void report(int n, int m, String store, double perVertex, double perEdge, double sweep) {
+        System.out.printf("%-8d %9d %-14s %12.1f %12.1f %12.2f%n", n, m, store, perVertex, perEdge, sweep);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,71 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Saves random geometric meshes of up to about a million edges with {@link GraphFile} and compares the time taken to
+ * get a usable topology at startup by building the objects from scratch, by loading the file into a {@link Graph}
+ * and by mapping it as a {@link MappedTopology}, together with the heap each one holds on to. The round trip itself
+ * is checked by <code>GraphFileTest</code>.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class GraphFileBenchmark {
+    private static final int[] SIZES = {1000, 100000, 333000};
+    private static final double DEGREE = 6;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("topology", ".graph");
+        file.deleteOnExit();
+
+        System.out.printf("%-8s %9s %8s %-7s %10s %10s%n", "n", "edges", "file MB", "start", "millis", "heap MB");
+        for (int n : SIZES) {
+            Graph graph = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            GraphFile.save(graph, file);
+            int edges = graph.getEdgeCount();
+            double megabytes = file.length() / 1e6;
+            graph = null;
+
+            long heap = usedHeap();
+            long begin = System.nanoTime();
+            Object held = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            report(n, edges, megabytes, "build", begin, heap, held);
+
+            held = null;
+            heap = usedHeap();
+            begin = System.nanoTime();
+            held = GraphFile.load(file, false);
+            report(n, edges, megabytes, "load", begin, heap, held);
+
+            held = null;
+            heap = usedHeap();
+            begin = System.nanoTime();
+            MappedTopology mapped = GraphFile.map(file);
+            long degrees = 0;
+            for (int v = 0; v < mapped.size(); v++) {
+                degrees += mapped.degree(v);
+            }
+            report(n, edges, megabytes, "map", begin, heap, mapped);
+            if (degrees != 2L * edges) {
+                throw new IllegalStateException("Mapped degrees add up to " + degrees + ", not " + 2L * edges);
+            }
+        }
+    }
+
+    private static void report(int n, int edges, double megabytes, String start, long begin, long heap, Object held) {
+        double millis = (System.nanoTime() - begin) / 1e6;
+        double used = (usedHeap() - heap) / 1e6;
+        System.out.printf("%-8d %9d %8.1f %-7s %10.1f %10.1f%n", n, edges, megabytes, start, millis, used);
+        if (held == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
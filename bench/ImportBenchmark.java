@@ -0,0 +1,118 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Writes a random geometric mesh of about a million edges as an edge list and reads it back, reporting edges per
+ * second for the {@link EdgeListImporter} on one and several threads and for reading every line into lists of
+ * objects before building the {@link Graph}.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ImportBenchmark {
+    private static final int N = 333000;
+    private static final int[] THREADS = {1, 2, 4};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("topology", ".csv");
+        file.deleteOnExit();
+        Topologies topology = Topologies.randomGeometric(N, 6, 42);
+        int edges = write(topology.getEdgeList(), file);
+        System.out.printf("%d edges, %.1f MB%n", edges, file.length() / 1e6);
+        System.out.printf("%-6s %-12s %14s%n", "round", "reader", "edges/sec");
+        for (int round = 1; round <= ROUNDS; round++) {
+            run(round, file, topology, edges);
+        }
+    }
+
+    private static void run(int round, File file, Topologies topology, int edges) throws IOException {
+        for (int threads : THREADS) {
+            EdgeListImporter importer = new EdgeListImporter(threads);
+            long begin = System.nanoTime();
+            Graph graph = importer.importFile(file, false);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            if (importer.getEdgesImported() != edges || importer.getLinesSkipped() != 0
+                    || graph.getEdgeCount() != edges || graph.getVertexCount() != connectedVertices(topology)) {
+                throw new IllegalStateException("Imported " + graph.getEdgeCount() + " edges and "
+                        + graph.getVertexCount() + " vertices");
+            }
+            System.out.printf("%-6d %-12s %14.0f%n", round, "nio x" + threads, edges / seconds);
+        }
+
+        long begin = System.nanoTime();
+        Graph graph = readLists(file);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        if (graph.getEdgeCount() != edges) {
+            throw new IllegalStateException("Read " + graph.getEdgeCount() + " edges");
+        }
+        System.out.printf("%-6d %-12s %14.0f%n", round, "lists", edges / seconds);
+    }
+
+    private static int write(ArrayList<Edge> edgeList, File file) throws IOException {
+        BufferedWriter out = new BufferedWriter(new FileWriter(file), 1 << 16);
+        try {
+            out.write("# type,name,type,name,channel\n");
+            for (Edge e : edgeList) {
+                out.write(e.getV().getType() + "," + e.getV().getName() + "," + e.getW().getType() + ","
+                        + e.getW().getName() + "," + e.getName() + "\n");
+            }
+        } finally {
+            out.close();
+        }
+        return edgeList.size();
+    }
+
+    private static int connectedVertices(Topologies topology) {
+        Graph graph = topology.toGraph(false);
+        int count = 0;
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            if (graph.degree(graph.vertexAt(v)) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the file the way a topology had to be read before the importer: every line into lists of objects, then
+     * the Graph built from the lists.
+     */
+    private static Graph readLists(File file) throws IOException {
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>();
+        ArrayList<Edge> edgeList = new ArrayList<Edge>();
+        HashMap<String, Vertex> vertices = new HashMap<String, Vertex>();
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                Vertex v = listVertex(fields[0], fields[1], vertices, vertexList);
+                Vertex w = listVertex(fields[2], fields[3], vertices, vertexList);
+                edgeList.add(new Channel(v, w, fields[4]));
+            }
+        } finally {
+            in.close();
+        }
+        return new Graph(vertexList, edgeList);
+    }
+
+    private static Vertex listVertex(String type, String name, HashMap<String, Vertex> vertices,
+                                     ArrayList<Vertex> vertexList) {
+        Vertex v = vertices.get(type + "-" + name);
+        if (v == null) {
+            v = type.equals("PC") ? new PC(name) : new Mobile(name);
+            vertices.put(type + "-" + name, v);
+            vertexList.add(v);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Measures the cost of journaling a {@link Graph} with a {@link TopologyJournal} and the time taken to recover it.
+ * Links of a random geometric mesh are flapped with and without a journal. The journal is then recovered without being closed, as after a crash, first with the whole tail to
+ * replay and then straight after a checkpoint. Each recovered graph is checked against the live one, including after
+ * a torn record is left at the end of the journal.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class JournalBenchmark {
+    private static final int N = 100000;
+    private static final int FLAPS = 500000;
+    private static final long SYNC_MILLIS = 10;
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"), "journal-benchmark");
+        clear(directory);
+
+        System.out.printf("%-22s %14s%n", "run", "flaps/sec");
+        Graph plain = Topologies.randomGeometric(N, 6, 42).toGraph(false);
+        System.out.printf("%-22s %14.0f%n", "no journal", flap(plain, FLAPS));
+
+        Graph graph = Topologies.randomGeometric(N, 6, 42).toGraph(false);
+        TopologyJournal journal = TopologyJournal.open(graph, directory, SYNC_MILLIS, Long.MAX_VALUE);
+        System.out.printf("%-22s %14.0f%n", "journal", flap(graph, FLAPS));
+        for (int i = 0; i < graph.getVertexCount(); i += 1000) {
+            graph.rename(graph.vertexAt(i), "renamed-" + i);
+        }
+        journal.sync();
+        System.out.printf("%d records, %d syncs, %.1f MB journal%n", journal.getRecords(), journal.getSyncs(),
+                bytes(directory) / 1e6);
+
+        long begin = System.nanoTime();
+        Graph recovered = TopologyJournal.recover(directory, false);
+        double replay = (System.nanoTime() - begin) / 1e9;
+        check(graph, recovered);
+
+        journal.checkpoint();
+        begin = System.nanoTime();
+        recovered = TopologyJournal.recover(directory, false);
+        double loaded = (System.nanoTime() - begin) / 1e9;
+        check(graph, recovered);
+        System.out.printf("recovery: %.2fs replaying the tail, %.2fs from a fresh checkpoint%n", replay, loaded);
+
+        Edge last = graph.edgeAt(0);
+        graph.removeEdge(last);
+        journal.sync();
+        RandomAccessFile segment = new RandomAccessFile(new File(directory, "journal-" + journal.getSequence()), "rw");
+        segment.seek(segment.length());
+        segment.write(new byte[] {0, 0, 1, 0, 7});
+        segment.close();
+        check(graph, TopologyJournal.recover(directory, false));
+        System.out.println("torn tail ignored");
+        journal.close();
+        clear(directory);
+    }
+
+    private static double flap(Graph graph, int flaps) {
+        ArrayList<Edge> links = new ArrayList<Edge>();
+        for (int i = 0; i < graph.getEdgeCount(); i++) {
+            links.add(graph.edgeAt(i));
+        }
+        Random random = new Random(7);
+        int names = links.size();
+
+        long begin = System.nanoTime();
+        for (int f = 0; f < flaps; f++) {
+            int slot = random.nextInt(links.size());
+            Edge down = links.get(slot);
+            graph.removeEdge(down);
+            links.set(slot, graph.insertEdge(down.getV(), down.getW(), "Channel", Integer.toString(names++)));
+        }
+        return flaps / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static void check(Graph live, Graph recovered) {
+        if (live.getVertexCount() != recovered.getVertexCount() || live.getEdgeCount() != recovered.getEdgeCount()) {
+            throw new AssertionError("Recovered " + recovered.getVertexCount() + " vertices and "
+                    + recovered.getEdgeCount() + " edges instead of " + live.getVertexCount() + " and "
+                    + live.getEdgeCount());
+        }
+        for (int i = 0; i < live.getEdgeCount(); i += 97) {
+            Edge e = live.edgeAt(i);
+            Edge copy = recovered.getEdge(e.getV().getType(), e.getV().getName(), e.getW().getType(),
+                    e.getW().getName());
+            if (copy == null || !copy.getName().equals(e.getName())) {
+                throw new AssertionError("Recovered graph is missing " + e);
+            }
+        }
+    }
+
+    private static long bytes(File directory) {
+        long total = 0;
+        for (File file : directory.listFiles()) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    private static void clear(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Flaps links of a random geometric mesh at a high rate: on every step a random link goes down and is then
+ * brought back up between the same endpoints. Reports flaps per second for growing mesh sizes.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class LinkFlapBenchmark {
+    private static final int[] SIZES = {1000, 10000, 100000, 1000000};
+    private static final int FLAPS = 1000000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %10s %14s%n", "n", "edges", "flaps/sec");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 6, 42);
+            Graph graph = topology.toGraph(false);
+            ArrayList<Edge> links = new ArrayList<Edge>(topology.getEdgeList());
+            Random random = new Random(7);
+            int names = links.size();
+
+            long begin = System.nanoTime();
+            for (int f = 0; f < FLAPS; f++) {
+                int slot = random.nextInt(links.size());
+                Edge down = links.get(slot);
+                graph.removeEdge(down);
+                links.set(slot, graph.insertEdge(down.getV(), down.getW(), "Channel", Integer.toString(names++)));
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            System.out.printf("%-8d %10d %14.0f%n", n, links.size(), FLAPS / seconds);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Measures what {@link GraphMetrics} costs the operations of a {@link Graph}. A mix of adjacency checks, incident
+ * edge lists, uncached paths and link flaps is timed with metrics off and on, and the counts recorded are printed
+ * and read back through the platform MBean server. The histogram buckets are checked to hold every value they are
+ * asked for.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class MetricsBenchmark {
+    private static final int N = 100000;
+    private static final int OPERATIONS = 2000000;
+    private static final int PATH_EVERY = 40000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws JMException {
+        checkBuckets();
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+        }));
+
+        Graph graph = Topologies.randomGeometric(N, 6, 42).toGraph(false);
+        graph.setRouteCacheCapacity(0);
+        out.printf("%-6s %14s %14s%n", "round", "off (ns/op)", "on (ns/op)");
+        for (int round = 0; round < ROUNDS; round++) {
+            graph.disableMetrics();
+            double off = run(graph);
+            graph.enableMetrics().reset();
+            double on = run(graph);
+            out.printf("%-6d %14.1f %14.1f%n", round, off, on);
+        }
+
+        GraphMetrics metrics = graph.getMetrics();
+        for (OperationStats stats : metrics.snapshot()) {
+            out.println(stats);
+        }
+
+        ObjectName name = metrics.register("benchmark");
+        CompositeData[] operations = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(name, "Operations");
+        long count = 0;
+        for (CompositeData operation : operations) {
+            if (operation.get("name").equals("areAdjacent")) {
+                count = (Long) operation.get("count");
+            }
+        }
+        if (count != metrics.get(GraphMetrics.ARE_ADJACENT).getCount()) {
+            throw new AssertionError("JMX shows " + count + " adjacency checks");
+        }
+        metrics.unregister(name);
+        out.printf("JMX: %d operations, %d adjacency checks%n", operations.length, count);
+        System.setOut(out);
+    }
+
+    private static double run(Graph graph) {
+        Random random = new Random(7);
+        ArrayList<Edge> links = new ArrayList<Edge>();
+        for (int i = 0; i < graph.getEdgeCount(); i++) {
+            links.add(graph.edgeAt(i));
+        }
+        int names = 0;
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Vertex v = graph.vertexAt(random.nextInt(N));
+            switch (i & 3) {
+                case 0:
+                    graph.areAdjacent(v, graph.vertexAt(random.nextInt(N)));
+                    break;
+                case 1:
+                    graph.incidentEdges(v);
+                    break;
+                case 2:
+                    int slot = random.nextInt(links.size());
+                    Edge down = links.get(slot);
+                    graph.removeEdge(down);
+                    links.set(slot, graph.insertEdge(down.getV(), down.getW(), "Channel", "flap-" + names++));
+                    break;
+                default:
+                    if (i % PATH_EVERY == 3) {
+                        graph.path(v, graph.vertexAt(random.nextInt(N)));
+                    }
+                    break;
+            }
+        }
+        return (System.nanoTime() - begin) / (double) OPERATIONS;
+    }
+
+    private static void checkBuckets() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000000; i++) {
+            long value = i < 100000 ? i : random.nextLong() >>> (1 + random.nextInt(63));
+            int bucket = GraphMetrics.bucket(value);
+            long highest = GraphMetrics.highest(bucket);
+            if (value >= 1L << 40) {
+                continue;
+            }
+            if (value > highest || (bucket > 0 && value <= GraphMetrics.highest(bucket - 1))
+                    || highest - value > value / 16) {
+                throw new AssertionError(value + " landed in bucket " + bucket + " ending at " + highest);
+            }
+        }
+    }
+}
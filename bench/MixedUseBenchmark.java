@@ -0,0 +1,87 @@
+import java.util.Random;
+
+/**
+ * Interleaves link flaps with neighbour walks on a random geometric mesh held both as a {@link Graph} and as a
+ * {@link CompactTopology}. Each round takes a run of links down and back up and then walks the neighbours of a few
+ * random vertices, and the number of flaps per second is reported for runs of growing length, each store being
+ * given at most two seconds per run length. A run of 1 is the change-then-query pattern for which the compact store
+ * rebuilds its compressed rows on every walk; longer runs share one rebuild between many changes, which is the
+ * bulk-load-then-query use it is meant for.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class MixedUseBenchmark {
+    private static final int[] SIZES = {10000, 100000};
+    private static final int[] RUNS = {1, 10, 100, 1000};
+    private static final int FLAPS = 20000;
+    private static final int WALKS = 4;
+    private static final long LIMIT_NANOS = 2000000000L;
+
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %6s %-8s %14s%n", "n", "run", "store", "flaps/sec");
+        for (int n : SIZES) {
+            Graph graph = Topologies.randomGeometric(n, 6, 42).toGraph(false);
+            CompactTopology compact = CompactTopology.of(graph);
+            for (int run : RUNS) {
+                report(n, run, "objects", flapGraph(graph, run));
+                report(n, run, "compact", flapCompact(compact, run));
+            }
+        }
+        if (blackhole == 42) {
+            System.out.println();
+        }
+    }
+
+    private static double flapGraph(Graph graph, int run) {
+        Random random = new Random(7);
+        long begin = System.nanoTime();
+        int flap = 0;
+        while (flap < FLAPS && System.nanoTime() - begin < LIMIT_NANOS) {
+            for (int i = 0; i < run; i++) {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                graph.removeEdge(e);
+                graph.insertEdge(e.getV(), e.getW(), e.getType(), e.getName());
+            }
+            flap += run;
+            for (int i = 0; i < WALKS; i++) {
+                Vertex v = graph.vertexAt(random.nextInt(graph.getVertexCount()));
+                for (int j = 0; j < graph.degree(v); j++) {
+                    blackhole += graph.neighbour(v, j).getIndex();
+                }
+            }
+        }
+        return flap / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static double flapCompact(CompactTopology compact, int run) {
+        Random random = new Random(7);
+        long begin = System.nanoTime();
+        int flap = 0;
+        while (flap < FLAPS && System.nanoTime() - begin < LIMIT_NANOS) {
+            for (int i = 0; i < run; i++) {
+                int e = random.nextInt(compact.getEdgeCount());
+                int v = compact.getV(e);
+                int w = compact.getW(e);
+                String type = compact.getEdgeType(e);
+                String name = compact.getEdgeName(e);
+                compact.removeEdge(e);
+                compact.insertEdge(v, w, type, name);
+            }
+            flap += run;
+            for (int i = 0; i < WALKS; i++) {
+                int v = random.nextInt(compact.size());
+                for (int j = 0; j < compact.degree(v); j++) {
+                    blackhole += compact.neighbour(v, j);
+                }
+            }
+        }
+        return flap / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static void report(int n, int run, String store, double flapsPerSecond) {
+        System.out.printf("%-8d %6d %-8s %14.0f%n", n, run, store, flapsPerSecond);
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Measures name resolution through <code>getVertex</code>, <code>getEdge</code> and the endpoint-pair
+ * <code>getEdge</code> against a linear scan of the vertex list, as <code>getVertex</code> used to do.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class NameLookupBenchmark {
+    private static final int[] SIZES = {1000, 10000, 100000};
+    private static final int QUERIES = 200000;
+    private static final int SCAN_QUERIES = 2000;
+
+    static volatile long blackhole;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %14s %14s %16s %14s%n", "n", "vertex (ns)", "edge (ns)", "endpoints (ns)", "scan (ns)");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 6, 42);
+            Graph graph = topology.toGraph(false);
+            ArrayList<Vertex> vertices = topology.getVertexList();
+            ArrayList<Edge> edges = topology.getEdgeList();
+            Random random = new Random(7);
+            long sink = 0;
+
+            graph.getVertex("Mobile", "0");
+            graph.getEdge("Channel", "0");
+            long begin = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                sink += graph.getVertex("Mobile", vertices.get(random.nextInt(n)).getName()).getIndex();
+            }
+            double vertex = (System.nanoTime() - begin) / (double) QUERIES;
+
+            begin = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                sink += graph.getEdge("Channel", edges.get(random.nextInt(edges.size())).getName()).hashCode();
+            }
+            double edge = (System.nanoTime() - begin) / (double) QUERIES;
+
+            begin = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                Edge e = edges.get(random.nextInt(edges.size()));
+                sink += graph.getEdge("Mobile", e.getV().getName(), "Mobile", e.getW().getName()).hashCode();
+            }
+            double endpoints = (System.nanoTime() - begin) / (double) QUERIES;
+
+            begin = System.nanoTime();
+            for (int q = 0; q < SCAN_QUERIES; q++) {
+                String name = vertices.get(random.nextInt(n)).getName();
+                for (Vertex v : vertices) {
+                    if (v.getType().equals("Mobile") && v.getName().equals(name)) {
+                        sink += v.getIndex();
+                        break;
+                    }
+                }
+            }
+            double scan = (System.nanoTime() - begin) / (double) SCAN_QUERIES;
+
+            blackhole += sink;
+            System.out.printf("%-8d %14.1f %14.1f %16.1f %14.1f%n", n, vertex, edge, endpoints, scan);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares the sequential breadth first search of a {@link Traversal} with the direction-optimizing
+ * {@link ParallelBreadthFirstSearch} on large random geometric graphs, for a single-source search and for a
+ * connected component sweep. The parallel search tree is checked to give every vertex the same depth as the
+ * sequential one.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ParallelBreadthFirstBenchmark {
+    private static final int[] SIZES = {100000, 1000000};
+    private static final double[] DEGREES = {8, 32};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-7s %-10s %14s %14s %12s%n", "n", "degree", "search", "sequential (ms)", "parallel (ms)",
+                "bottom-up");
+        for (int n : SIZES) {
+            for (double degree : DEGREES) {
+                Topologies topology = Topologies.randomGeometric(n, degree, 42);
+                AdjacencyList store = topology.toStore();
+                Traversal traversal = new Traversal();
+                ParallelBreadthFirstSearch parallel = new ParallelBreadthFirstSearch(store, ForkJoinPool.commonPool());
+
+                long sequential = 0;
+                long concurrent = 0;
+                for (int r = 0; r <= ROUNDS; r++) {
+                    long begin = System.nanoTime();
+                    traversal.reset(n);
+                    traversal.breadthFirst(store, 0, -1, null, null);
+                    long middle = System.nanoTime();
+                    int[] parent = parallel.search(0);
+                    long end = System.nanoTime();
+                    if (r > 0) {
+                        sequential += middle - begin;
+                        concurrent += end - middle;
+                    } else {
+                        check(traversal, parent, n);
+                    }
+                }
+                System.out.printf("%-8d %-7.0f %-10s %14.1f %14.1f %12d%n", n, degree, "single", sequential / 1e6 / ROUNDS,
+                        concurrent / 1e6 / ROUNDS, parallel.getBottomUpLevels());
+
+                sequential = 0;
+                concurrent = 0;
+                for (int r = 0; r <= ROUNDS; r++) {
+                    long begin = System.nanoTime();
+                    traversal.reset(n);
+                    for (int v = 0; v < n; v++) {
+                        if (!traversal.isVisited(v)) {
+                            traversal.breadthFirst(store, v, -1, null, null);
+                        }
+                    }
+                    long middle = System.nanoTime();
+                    parallel.components();
+                    long end = System.nanoTime();
+                    if (r > 0) {
+                        sequential += middle - begin;
+                        concurrent += end - middle;
+                    }
+                }
+                System.out.printf("%-8d %-7.0f %-10s %14.1f %14.1f %12d%n", n, degree, "components", sequential / 1e6 / ROUNDS,
+                        concurrent / 1e6 / ROUNDS, parallel.getBottomUpLevels());
+            }
+        }
+    }
+
+    private static void check(Traversal traversal, int[] parent, int n) {
+        int[] depth = new int[n];
+        for (int v = 0; v < n; v++) {
+            depth[v] = depth(traversal, v);
+        }
+        for (int v = 0; v < n; v++) {
+            boolean reached = traversal.isVisited(v);
+            if (reached != (parent[v] >= 0) || (reached && v != parent[v] && depth[parent[v]] + 1 != depth[v])) {
+                throw new IllegalStateException("Parallel search disagrees at vertex " + v);
+            }
+        }
+    }
+
+    private static int depth(Traversal traversal, int v) {
+        if (!traversal.isVisited(v)) {
+            return -1;
+        }
+        int depth = 0;
+        for (int u = v; traversal.getParent(u) != -1; u = traversal.getParent(u)) {
+            depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.Random;
+
+/**
+ * Flaps links and churns devices on a random geometric mesh while a {@link ConnectivityTracker} follows every
+ * change, and reports changes per second with the tracker against a full component sweep after every change.
+ * Meshes of a low average degree are used so that removals really do split partitions.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class PartitionBenchmark {
+    private static final int[] SIZES = {10000, 100000};
+    private static final double DEGREE = 3;
+    private static final int TRACKED_CHANGES = 200000;
+    private static final int SWEPT_CHANGES = 200;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-8s %14s %10s %10s%n", "n", "mode", "changes/sec", "splits", "partitions");
+        for (int n : SIZES) {
+            Graph graph = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            ConnectivityTracker tracker = graph.trackConnectivity();
+            double seconds = churn(graph, TRACKED_CHANGES, false);
+            System.out.printf("%-8d %-8s %14.0f %10d %10d%n", n, "tracked", TRACKED_CHANGES / seconds,
+                    tracker.getSplits(), tracker.getPartitionCount());
+
+            graph = Topologies.randomGeometric(n, DEGREE, 42).toGraph(false);
+            seconds = churn(graph, SWEPT_CHANGES, true);
+            System.out.printf("%-8d %-8s %14.0f%n", n, "swept", SWEPT_CHANGES / seconds);
+        }
+    }
+
+    /**
+     * Removes a random link or device and then adds one back, optionally sweeping for components after each change.
+     */
+    private static double churn(Graph graph, int changes, boolean sweep) {
+        Random random = new Random(7);
+        int names = graph.getVertexCount() * 10;
+
+        long begin = System.nanoTime();
+        for (int c = 0; c < changes; c += 2) {
+            if (random.nextInt(10) == 0) {
+                graph.removeVertex(graph.vertexAt(random.nextInt(graph.getVertexCount())));
+                Vertex joining = graph.insertVertex("Mobile", Integer.toString(names++));
+                Vertex w = graph.vertexAt(random.nextInt(graph.getVertexCount() - 1));
+                graph.insertEdge(joining, w, "Channel", Integer.toString(names++));
+            } else {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                graph.removeEdge(e);
+                if (sweep) {
+                    graph.connectedComponents();
+                }
+                graph.insertEdge(e.getV(), e.getW(), "Channel", Integer.toString(names++));
+            }
+            if (sweep) {
+                graph.connectedComponents();
+            }
+        }
+        return (System.nanoTime() - begin) / 1e9;
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Random;
+
+/**
+ * Measures how fast {@link Graph#refreshLinks()} keeps a mesh of moving Mobile nodes linked by radio range. A
+ * hundred thousand nodes are scattered over the unit square with a range giving about six neighbours each, and
+ * every tick each node takes a small random step before the links are refreshed; ticks where only a tenth of the
+ * nodes move are timed as well. For comparison the whole mesh is linked from scratch by a fresh
+ * {@link Graph#linkWithinRange(double)}. On small meshes the links after every tick are checked against every
+ * pair of nodes.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class RangeLinkBenchmark {
+    private static final int N = 100000;
+    private static final int TICKS = 10;
+    private static final int SMALL_MESHES = 50;
+    private static final double STEP = 0.2;
+
+    public static void main(String[] args) {
+        Random random = new Random(5);
+        for (int i = 0; i < SMALL_MESHES; i++) {
+            int n = 20 + random.nextInt(200);
+            double range = Math.sqrt(6 / (Math.PI * n));
+            Graph graph = scatter(n, random);
+            graph.linkWithinRange(range);
+            check(graph, range);
+            for (int tick = 0; tick < 5; tick++) {
+                step(graph, range, 1 + random.nextInt(3), random);
+                if (tick == 2) {
+                    graph.removeVertex(graph.vertexAt(random.nextInt(graph.getVertexCount())));
+                    Vertex added = graph.insertVertex("Mobile", "added");
+                    graph.move(added, random.nextDouble(), random.nextDouble());
+                }
+                graph.refreshLinks();
+                check(graph, range);
+            }
+        }
+        System.out.printf("%d small meshes match every pair%n", SMALL_MESHES);
+
+        double range = Math.sqrt(6 / (Math.PI * N));
+        Graph graph = scatter(N, random);
+        long begin = System.nanoTime();
+        SpatialGrid grid = graph.linkWithinRange(range);
+        double build = (System.nanoTime() - begin) / 1e6;
+        System.out.printf("%d nodes, %d links, %d cells: linked from scratch in %.1f ms%n", graph.getVertexCount(),
+                graph.getEdgeCount(), grid.getCellCount(), build);
+
+        System.out.printf("%-6s %8s %12s %12s %10s%n", "tick", "moved", "move (ms)", "refresh (ms)", "changes");
+        for (int tick = 0; tick < TICKS; tick++) {
+            int every = tick % 2 == 0 ? 1 : 10;
+            begin = System.nanoTime();
+            int moved = step(graph, range, every, random);
+            double move = (System.nanoTime() - begin) / 1e6;
+            begin = System.nanoTime();
+            int changes = graph.refreshLinks();
+            double refresh = (System.nanoTime() - begin) / 1e6;
+            System.out.printf("%-6d %8d %12.1f %12.1f %10d%n", tick, moved, move, refresh, changes);
+        }
+
+        begin = System.nanoTime();
+        graph.linkWithinRange(range);
+        build = (System.nanoTime() - begin) / 1e6;
+        System.out.printf("full rescan of every node: %.1f ms, %d links%n", build, graph.getEdgeCount());
+    }
+
+    /**
+     * Creates a graph of Mobile nodes at random positions in the unit square, with no links.
+     */
+    private static Graph scatter(int n, Random random) {
+        Graph graph = new Graph();
+        for (int i = 0; i < n; i++) {
+            Vertex v = graph.insertVertex("Mobile", Integer.toString(i));
+            graph.move(v, random.nextDouble(), random.nextDouble());
+        }
+        return graph;
+    }
+
+    /**
+     * Moves every <code>every</code>th node by a random step of up to a fifth of the range.
+     *
+     * @return	the number of nodes moved
+     */
+    private static int step(Graph graph, double range, int every, Random random) {
+        int moved = 0;
+        for (int i = random.nextInt(every); i < graph.getVertexCount(); i += every) {
+            Vertex v = graph.vertexAt(i);
+            graph.move(v, v.getX() + STEP * range * (2 * random.nextDouble() - 1),
+                    v.getY() + STEP * range * (2 * random.nextDouble() - 1));
+            moved++;
+        }
+        return moved;
+    }
+
+    private static void check(Graph graph, double range) {
+        for (int i = 0; i < graph.getVertexCount(); i++) {
+            Vertex v = graph.vertexAt(i);
+            for (int j = i + 1; j < graph.getVertexCount(); j++) {
+                Vertex w = graph.vertexAt(j);
+                double dx = v.getX() - w.getX();
+                double dy = v.getY() - w.getY();
+                boolean inRange = dx * dx + dy * dy <= range * range;
+                if (inRange != graph.areAdjacent(v, w)) {
+                    throw new AssertionError(v + " and " + w + " in range: " + inRange + ", adjacent: "
+                            + graph.areAdjacent(v, w));
+                }
+            }
+        }
+    }
+}
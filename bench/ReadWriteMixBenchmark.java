@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs router threads that ask for routes while a discovery thread keeps flapping links in batches, and reports
+ * the route queries and link flaps per second. Readers either query the {@link Graph} itself, taking its read lock,
+ * or query the latest published {@link TopologySnapshot} without any lock.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ReadWriteMixBenchmark {
+    private static final int N = 20000;
+    private static final int[] READERS = {1, 2, 4};
+    private static final int BATCH = 100;
+    private static final long RUN_MILLIS = 3000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-9s %8s %14s %14s%n", "mode", "readers", "routes/sec", "flaps/sec");
+        for (int readers : READERS) {
+            run(false, readers);
+            run(true, readers);
+        }
+    }
+
+    private static void run(final boolean snapshots, int readers) throws InterruptedException {
+        Topologies topology = Topologies.randomGeometric(N, 6, 42);
+        final Graph graph = topology.toGraph(false);
+        final ArrayList<Vertex> vertices = new ArrayList<Vertex>(topology.getVertexList());
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong routes = new AtomicLong();
+        final AtomicLong flaps = new AtomicLong();
+        graph.setSnapshotPublishing(snapshots);
+
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        for (int r = 0; r < readers; r++) {
+            final Random random = new Random(r);
+            threads.add(new Thread() {
+                public void run() {
+                    while (running.get()) {
+                        Vertex start = vertices.get(random.nextInt(N));
+                        Vertex finish = vertices.get(random.nextInt(N));
+                        if (snapshots) {
+                            graph.snapshot().route(start, finish, LinkMetric.HOPS, 0);
+                        } else {
+                            graph.route(start, finish, LinkMetric.HOPS, 0);
+                        }
+                        routes.incrementAndGet();
+                    }
+                }
+            });
+        }
+        threads.add(new Thread() {
+            public void run() {
+                Random random = new Random(99);
+                TopologyBatch batch = new TopologyBatch();
+                int names = N * 10;
+                while (running.get()) {
+                    batch.clear();
+                    ArrayList<Edge> down = new ArrayList<Edge>();
+                    while (down.size() < BATCH) {
+                        Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                        if (!down.contains(e)) {
+                            down.add(e);
+                            batch.removeEdge(e);
+                        }
+                    }
+                    for (Edge e : down) {
+                        batch.insertEdge(e.getV(), e.getW(), "Channel", Integer.toString(names++));
+                    }
+                    graph.apply(batch);
+                    flaps.addAndGet(BATCH);
+                }
+            }
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double seconds = RUN_MILLIS / 1000.0;
+        System.out.printf("%-9s %8d %14.0f %14.0f%n", snapshots ? "snapshot" : "locked", readers,
+                routes.get() / seconds, flaps.get() / seconds);
+    }
+}
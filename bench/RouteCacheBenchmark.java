@@ -0,0 +1,56 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Replays a routing workload that asks for the same source/destination pairs over and over between topology
+ * changes, for several {@link RouteCache} capacities, and reports the time per <code>path</code> call together
+ * with the cache counters.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class RouteCacheBenchmark {
+    private static final int N = 20000;
+    private static final int PAIRS = 2000;
+    private static final int QUERIES = 20000;
+    private static final int CHANGE_EVERY = 5000;
+    private static final int[] CAPACITIES = {0, 256, 1024, 4096};
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+        }));
+
+        out.printf("%-9s %12s %10s %10s %10s%n", "capacity", "path (us)", "hits", "misses", "evictions");
+        for (int capacity : CAPACITIES) {
+            Topologies topology = Topologies.randomGeometric(N, 8, 42);
+            Graph graph = topology.toGraph(false);
+            graph.setRouteCacheCapacity(capacity);
+            ArrayList<Vertex> vertices = topology.getVertexList();
+            Random random = new Random(7);
+            int[] pairs = new int[PAIRS * 2];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = random.nextInt(N);
+            }
+
+            long start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                if (q > 0 && q % CHANGE_EVERY == 0) {
+                    graph.insertVertex("Mobile", "joined-" + q);
+                }
+                int pair = random.nextInt(PAIRS);
+                graph.path(vertices.get(pairs[pair * 2]), vertices.get(pairs[pair * 2 + 1]));
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+            RouteCache cache = graph.getRouteCache();
+            out.printf("%-9d %12.2f %10d %10d %10d%n", capacity, micros, cache.getHits(), cache.getMisses(),
+                    cache.getEvictions());
+        }
+        System.setOut(out);
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Computes all-pairs next hop tables for random geometric graphs with 1 up to every available core and reports
+ * the time taken and the speed-up over one core. A sample of next hops is checked against breadth first
+ * distances.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class RoutingTableBenchmark {
+    private static final int[] SIZES = {2000, 8000};
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-8s %-7s %12s %10s%n", "n", "cores", "time (ms)", "speed-up");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 8, 42);
+            Graph graph = topology.toGraph(false);
+            ArrayList<Vertex> vertices = topology.getVertexList();
+
+            double single = 0;
+            RoutingTable table = null;
+            for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1 : Math.min(cores, threads * 2)) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                graph.routingTable(vertices, pool);
+                long begin = System.nanoTime();
+                table = graph.routingTable(vertices, pool);
+                double millis = (System.nanoTime() - begin) / 1e6;
+                pool.shutdown();
+                if (threads == 1) {
+                    single = millis;
+                }
+                System.out.printf("%-8d %-7d %12.1f %10.2f%n", n, threads, millis, single / millis);
+            }
+            check(graph, topology.toStore(), table, n);
+        }
+    }
+
+    private static void check(Graph graph, AdjacencyList store, RoutingTable table, int n) {
+        Random random = new Random(7);
+        for (int q = 0; q < 100; q++) {
+            int source = random.nextInt(n);
+            int destination = random.nextInt(n);
+            if (source == destination) {
+                continue;
+            }
+            int hop = table.nextHop(source, destination);
+            int expected = distance(store, source, destination, n);
+            boolean good = hop == RoutingTable.NO_ROUTE ? expected < 0
+                    : store.getEdge(source, hop) != null && distance(store, hop, destination, n) == expected - 1;
+            if (!good) {
+                throw new IllegalStateException("Bad next hop from " + source + " to " + destination);
+            }
+        }
+    }
+
+    private static int distance(AdjacencyList store, int start, int finish, int n) {
+        Traversal traversal = new Traversal();
+        traversal.reset(n);
+        if (!traversal.bidirectional(store, start, finish)) {
+            return -1;
+        }
+        int hops = 0;
+        for (int v = start; v != finish; v = traversal.getParent(v)) {
+            hops++;
+        }
+        return hops;
+    }
+}
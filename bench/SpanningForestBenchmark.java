@@ -0,0 +1,67 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares the minimum spanning forests found by Kruskal's and Boruvka's algorithms with the breadth first
+ * spanning tree of {@link Graph#spanningTree(Vertex)}, on a random geometric mesh of about a million links costed
+ * by latency. Both forests are checked to hold the same edges and to have one edge fewer than vertices for every
+ * component, and their latency is compared with that of the breadth first tree.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class SpanningForestBenchmark {
+    private static final int N = 333334;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Graph graph = Topologies.randomGeometric(N, 6, 42).toGraph(false);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int components = 0;
+        for (int label : graph.connectedComponents()) {
+            components = Math.max(components, label + 1);
+        }
+        System.out.printf("%d vertices, %d edges, %d components, %d threads%n", graph.getVertexCount(),
+                graph.getEdgeCount(), components, pool.getParallelism());
+
+        System.out.printf("%-6s %14s %14s %14s%n", "round", "bfs tree (ms)", "kruskal (ms)", "boruvka (ms)");
+        int[] kruskal = null;
+        int[] boruvka = null;
+        Graph tree = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            tree = graph.spanningTree(graph.vertexAt(0));
+            long bfs = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            kruskal = graph.minimumSpanningForest(LinkMetric.LATENCY);
+            long sorted = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            boruvka = graph.minimumSpanningForest(LinkMetric.LATENCY, pool);
+            long rounds = System.nanoTime() - begin;
+            System.out.printf("%-6d %14.1f %14.1f %14.1f%n", round, bfs / 1e6, sorted / 1e6, rounds / 1e6);
+        }
+
+        if (kruskal.length != graph.getVertexCount() - components) {
+            throw new AssertionError("Kruskal found " + kruskal.length + " edges for " + graph.getVertexCount()
+                    + " vertices in " + components + " components");
+        }
+        int[] sortedKruskal = kruskal.clone();
+        int[] sortedBoruvka = boruvka.clone();
+        Arrays.sort(sortedKruskal);
+        Arrays.sort(sortedBoruvka);
+        if (!Arrays.equals(sortedKruskal, sortedBoruvka)) {
+            throw new AssertionError("Kruskal and Boruvka found different forests");
+        }
+
+        double forestLatency = 0;
+        for (int e : kruskal) {
+            forestLatency += graph.edgeAt(e).getCost(LinkMetric.LATENCY);
+        }
+        double treeLatency = 0;
+        for (int i = 0; i < tree.getEdgeCount(); i++) {
+            treeLatency += tree.edgeAt(i).getCost(LinkMetric.LATENCY);
+        }
+        System.out.printf("latency: minimum forest %.1f over %d edges, bfs tree %.1f over %d edges%n",
+                forestLatency, kruskal.length, treeLatency, tree.getEdgeCount());
+    }
+}
@@ -0,0 +1,251 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Builds synthetic Ad-Hoc network topologies for the benchmarks.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class Topologies {
+    private ArrayList<Vertex> vertexList;
+    private ArrayList<Edge> edgeList;
+
+    private Topologies(ArrayList<Vertex> vertexList, ArrayList<Edge> edgeList) {
+        this.vertexList = vertexList;
+        this.edgeList = edgeList;
+    }
+
+    /**
+     * Creates a random geometric graph: <code>n</code> {@link Mobile} vertices are dropped uniformly into the unit
+     * square and every pair closer than the radio range gets a {@link Channel}. The range is chosen so that each
+     * vertex has roughly <code>degree</code> neighbours. Pairs are found through a grid of range-sized cells, so
+     * building the topology is linear in <code>n</code>. Vertices are given their positions, and each Channel a
+     * latency of between one and two times its length, an energy cost growing with the square of its length and a
+     * delivery ratio falling towards the edge of the range.
+     *
+     * @param n		    number of vertices
+     * @param degree	expected number of neighbours per vertex
+     * @param seed	    seed for the random positions
+     * @return		    the generated topology
+     */
+    public static Topologies randomGeometric(int n, double degree, long seed) {
+        Random random = new Random(seed);
+        double range = Math.sqrt(degree / (Math.PI * n));
+        int cells = Math.max(1, (int) (1 / range));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] head = new int[cells * cells];
+        int[] next = new int[n];
+        Arrays.fill(head, -1);
+
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>(n);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>();
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+            int cell = cell(x[i], cells) * cells + cell(y[i], cells);
+            next[i] = head[cell];
+            head[cell] = i;
+            Mobile mobile = new Mobile(Integer.toString(i));
+            mobile.setPosition(x[i], y[i]);
+            vertexList.add(mobile);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int cx = cell(x[i], cells);
+            int cy = cell(y[i], cells);
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(cells - 1, cx + 1); gx++) {
+                for (int gy = Math.max(0, cy - 1); gy <= Math.min(cells - 1, cy + 1); gy++) {
+                    for (int j = head[gx * cells + gy]; j >= 0; j = next[j]) {
+                        double dx = x[i] - x[j];
+                        double dy = y[i] - y[j];
+                        double length = Math.sqrt(dx * dx + dy * dy);
+                        if (j > i && length <= range) {
+                            edgeList.add(new Channel(vertexList.get(i), vertexList.get(j), Integer.toString(edgeList.size()),
+                                    length * (1 + random.nextDouble()), length * length / (range * range),
+                                    1 - 0.5 * length / range));
+                        }
+                    }
+                }
+            }
+        }
+        return new Topologies(vertexList, edgeList);
+    }
+
+    /**
+     * Creates a square grid of <code>n</code> {@link Mobile} vertices, filled row by row, with a {@link Channel}
+     * between every pair of horizontal or vertical neighbours. The last row is left short if <code>n</code> is not a
+     * square.
+     *
+     * @param n	number of vertices
+     * @return	the generated topology
+     */
+    public static Topologies grid(int n) {
+        int side = (int) Math.ceil(Math.sqrt(n));
+        ArrayList<Vertex> vertexList = vertices(n);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(2 * n);
+        for (int i = 0; i < n; i++) {
+            vertexList.get(i).setPosition((double) (i % side) / side, (double) (i / side) / side);
+            if (i % side + 1 < side && i + 1 < n) {
+                link(vertexList, edgeList, i, i + 1);
+            }
+            if (i + side < n) {
+                link(vertexList, edgeList, i, i + side);
+            }
+        }
+        return new Topologies(vertexList, edgeList);
+    }
+
+    /**
+     * Creates a line of <code>n</code> {@link Mobile} vertices, each joined by a {@link Channel} to the next, which
+     * makes the longest possible paths for its size.
+     *
+     * @param n	number of vertices
+     * @return	the generated topology
+     */
+    public static Topologies line(int n) {
+        ArrayList<Vertex> vertexList = vertices(n);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(n);
+        for (int i = 0; i < n; i++) {
+            vertexList.get(i).setPosition((double) i / n, 0);
+            if (i + 1 < n) {
+                link(vertexList, edgeList, i, i + 1);
+            }
+        }
+        return new Topologies(vertexList, edgeList);
+    }
+
+    /**
+     * Creates a scale-free topology by preferential attachment: starting from a small clique, each new
+     * {@link Mobile} vertex is joined by a {@link Channel} to <code>links</code> distinct existing vertices, each
+     * picked with probability in proportion to its degree. A few hubs end up with very high degree, as in
+     * networks that grow around well connected nodes.
+     *
+     * @param n		number of vertices
+     * @param links	number of links made by each new vertex
+     * @param seed	seed for the random choices
+     * @return		the generated topology
+     */
+    public static Topologies scaleFree(int n, int links, long seed) {
+        Random random = new Random(seed);
+        ArrayList<Vertex> vertexList = vertices(n);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(n * links);
+        int core = Math.min(n, links + 1);
+        int[] ends = new int[2 * (core * core + n * links)];
+        int count = 0;
+        for (int i = 0; i < core; i++) {
+            for (int j = i + 1; j < core; j++) {
+                link(vertexList, edgeList, i, j);
+                ends[count++] = i;
+                ends[count++] = j;
+            }
+        }
+
+        int[] chosen = new int[links];
+        for (int i = core; i < n; i++) {
+            int picked = 0;
+            while (picked < links) {
+                int j = count == 0 ? random.nextInt(i) : ends[random.nextInt(count)];
+                boolean repeat = false;
+                for (int k = 0; k < picked; k++) {
+                    repeat |= chosen[k] == j;
+                }
+                if (!repeat) {
+                    chosen[picked++] = j;
+                }
+            }
+            for (int k = 0; k < links; k++) {
+                link(vertexList, edgeList, chosen[k], i);
+                ends[count++] = chosen[k];
+                ends[count++] = i;
+            }
+        }
+        return new Topologies(vertexList, edgeList);
+    }
+
+    /**
+     * Creates one of the synthetic topologies by name: <code>geometric</code> for {@link #randomGeometric} with
+     * about six neighbours each, <code>grid</code>, <code>scaleFree</code> with three links per new vertex, or
+     * <code>line</code>.
+     *
+     * @param kind	String naming the topology
+     * @param n		number of vertices
+     * @param seed	seed for topologies with random choices
+     * @return		the generated topology
+     */
+    public static Topologies named(String kind, int n, long seed) {
+        if (kind.equals("geometric")) {
+            return randomGeometric(n, 6, seed);
+        } else if (kind.equals("grid")) {
+            return grid(n);
+        } else if (kind.equals("scaleFree")) {
+            return scaleFree(n, 3, seed);
+        } else if (kind.equals("line")) {
+            return line(n);
+        }
+        throw new IllegalArgumentException("Unknown topology '" + kind + "'");
+    }
+
+    private static ArrayList<Vertex> vertices(int n) {
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>(n);
+        for (int i = 0; i < n; i++) {
+            vertexList.add(new Mobile(Integer.toString(i)));
+        }
+        return vertexList;
+    }
+
+    private static void link(ArrayList<Vertex> vertexList, ArrayList<Edge> edgeList, int i, int j) {
+        edgeList.add(new Channel(vertexList.get(i), vertexList.get(j), Integer.toString(edgeList.size())));
+    }
+
+    private static int cell(double position, int cells) {
+        return Math.min(cells - 1, (int) (position * cells));
+    }
+
+    /**
+     * Builds a {@link Graph} over the generated vertices and edges.
+     *
+     * @param dense	boolean stating whether to use a dense {@link AdjacencyMatrix}
+     * @return		Graph of the topology
+     */
+    public Graph toGraph(boolean dense) {
+        return new Graph(new ArrayList<Vertex>(vertexList), new ArrayList<Edge>(edgeList), dense);
+    }
+
+    /**
+     * Builds a bare {@link AdjacencyList} over the generated edges, indexed by the order the vertices were
+     * generated in, for benchmarks that drive a {@link Traversal} directly.
+     *
+     * @return	AdjacencyList of the topology
+     */
+    public AdjacencyList toStore() {
+        AdjacencyList store = new AdjacencyList(vertexList.size());
+        for (int i = 0; i < vertexList.size(); i++) {
+            vertexList.get(i).setIndex(i);
+        }
+        for (Edge e : edgeList) {
+            store.addEdge(e.getV().getIndex(), e.getW().getIndex(), e);
+        }
+        return store;
+    }
+
+    /**
+     * Gets the generated vertices and returns them.
+     *
+     * @return	ArrayList of Vertex objects
+     */
+    public ArrayList<Vertex> getVertexList() {
+        return vertexList;
+    }
+
+    /**
+     * Gets the generated edges and returns them.
+     *
+     * @return	ArrayList of Edge objects
+     */
+    public ArrayList<Edge> getEdgeList() {
+        return edgeList;
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Measures what tracing costs threads that query and change a {@link Graph} at the same time. Each thread asks for
+ * paths and tries to insert links that already exist, which fails and reports a warning. The run is repeated with
+ * tracing off, with every event handed to an {@link AsyncTraceWriter}, and with every event printed on the spot the
+ * way failures used to be, all writing to a stream that throws its output away. Failures are checked to come back
+ * through return values whatever the tracing.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TraceBenchmark {
+    private static final int N = 20000;
+    private static final int THREADS = 4;
+    private static final int CALLS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        final Graph graph = Topologies.randomGeometric(N, 6, 42).toGraph(false);
+        graph.setRouteCacheCapacity(0);
+        Edge existing = graph.edgeAt(0);
+        if (graph.insertEdge(existing.getV(), existing.getW(), "Channel", "parallel") != null
+                || graph.removeEdge(new Channel(existing.getV(), existing.getW(), "stray"))
+                || graph.getVertex("PC", "missing") != null) {
+            throw new AssertionError("A failed operation reported success");
+        }
+
+        final PrintStream discard = new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        AsyncTraceWriter writer = new AsyncTraceWriter(new BufferedWriter(new OutputStreamWriter(discard)), 1 << 16);
+
+        System.out.printf("%-10s %8s %14s%n", "tracing", "level", "calls/sec");
+        for (int round = 0; round < 2; round++) {
+            Trace.setSink(null, Trace.OFF);
+            System.out.printf("%-10s %8s %14.0f%n", "off", "-", run(graph));
+
+            Trace.setSink(writer, Trace.WARN);
+            System.out.printf("%-10s %8s %14.0f%n", "async", "WARN", run(graph));
+            Trace.setSink(writer, Trace.TRACE);
+            System.out.printf("%-10s %8s %14.0f%n", "async", "TRACE", run(graph));
+
+            Trace.setSink(new TraceSink() {
+                public void trace(int level, String event, String message) {
+                    discard.println("Error: " + message);
+                }
+            }, Trace.WARN);
+            System.out.printf("%-10s %8s %14.0f%n", "println", "WARN", run(graph));
+        }
+        Trace.setSink(null, Trace.OFF);
+        writer.flush();
+        writer.close();
+        System.out.printf("async writer: %d events written, %d dropped%n", writer.getWritten(), writer.getDropped());
+        if (writer.getWritten() == 0) {
+            throw new AssertionError("No events were written");
+        }
+    }
+
+    private static double run(final Graph graph) throws InterruptedException {
+        Thread[] threads = new Thread[THREADS];
+        long begin = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < CALLS; i++) {
+                        if (i % 100 == 0) {
+                            graph.path(graph.vertexAt(random.nextInt(N)), graph.vertexAt(random.nextInt(N)));
+                        } else {
+                            Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                            if (graph.insertEdge(e.getV(), e.getW(), "Channel", "parallel") != null) {
+                                throw new AssertionError("Inserted a second link between " + e.getV() + " and "
+                                        + e.getW());
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return THREADS * CALLS / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares the hop-count breadth first path with Dijkstra and A* routing by latency on random geometric graphs.
+ * A Channel's latency is never less than its length, so A* is run with a cost per unit distance of 1. Dijkstra
+ * and A* are checked to find routes of equal cost.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class WeightedRoutingBenchmark {
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-14s %12s %12s%n", "n", "search", "visited", "time (us)");
+        for (int n : SIZES) {
+            Topologies topology = Topologies.randomGeometric(n, 8, 42);
+            ArrayList<Vertex> vertices = topology.getVertexList();
+            AdjacencyList store = topology.toStore();
+            Traversal traversal = new Traversal();
+            WeightedSearch search = new WeightedSearch();
+            Random random = new Random(7);
+
+            long[] time = new long[3];
+            long[] visited = new long[3];
+            for (int q = 0; q < QUERIES; q++) {
+                int start = random.nextInt(n);
+                int finish = random.nextInt(n);
+
+                long begin = System.nanoTime();
+                traversal.reset(n);
+                traversal.bidirectional(store, start, finish);
+                time[0] += System.nanoTime() - begin;
+                visited[0] += traversal.getVisitedCount();
+
+                begin = System.nanoTime();
+                int[] dijkstra = search.route(store, vertices, start, finish, LinkMetric.LATENCY, 0);
+                time[1] += System.nanoTime() - begin;
+                visited[1] += search.getSettledCount();
+                double cost = search.getDistance(finish);
+
+                begin = System.nanoTime();
+                int[] astar = search.route(store, vertices, start, finish, LinkMetric.LATENCY, 1);
+                time[2] += System.nanoTime() - begin;
+                visited[2] += search.getSettledCount();
+
+                if ((dijkstra == null) != (astar == null)
+                        || (dijkstra != null && Math.abs(cost - search.getDistance(finish)) > 1e-9)) {
+                    throw new IllegalStateException("Dijkstra and A* disagree on route " + start + " to " + finish);
+                }
+            }
+
+            String[] names = {"bfs (hops)", "dijkstra", "a*"};
+            for (int i = 0; i < names.length; i++) {
+                System.out.printf("%-8d %-14s %12d %12.1f%n", n, names[i], visited[i] / QUERIES, time[i] / 1e3 / QUERIES);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package adhoc;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a {@link Graph} from lists of {@link Vertex} and {@link Edge} objects already in memory.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class ConstructionBenchmark extends Network {
+
+    @Setup(Level.Trial)
+    public void generate() {
+        build();
+    }
+
+    @Benchmark
+    public Graph construct() {
+        return new Graph(new ArrayList<Vertex>(generated.getVertexList()), new ArrayList<Edge>(generated.getEdgeList()),
+                false);
+    }
+}
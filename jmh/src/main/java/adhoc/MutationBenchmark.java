@@ -0,0 +1,226 @@
+package adhoc;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures inserting and removing vertices and edges. Each invocation makes a batch of changes to distinct objects
+ * and reports the time per change. The batch is undone after each invocation, outside the measured time, so the
+ * graph keeps its size and shape for the whole run.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MutationBenchmark {
+    static final int BATCH = 32;
+
+    /**
+     * Fresh names for the vertices to insert, and the vertices once inserted.
+     */
+    @State(Scope.Thread)
+    public static class VertexInsertion extends Network {
+        final String[] names = new String[BATCH];
+        final Vertex[] inserted = new Vertex[BATCH];
+        int count;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            build();
+        }
+
+        @Setup(Level.Invocation)
+        public void name() {
+            for (int i = 0; i < BATCH; i++) {
+                names[i] = "new-" + count++;
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo() {
+            for (Vertex v : inserted) {
+                if (v != null) {
+                    graph.removeVertex(v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Distinct vertices to remove, and the edges removed with them so that both can be put back.
+     */
+    @State(Scope.Thread)
+    public static class VertexRemoval extends Network {
+        final Vertex[] removed = new Vertex[BATCH];
+        final ArrayList<Edge> edges = new ArrayList<Edge>();
+
+        @Setup(Level.Trial)
+        public void generate() {
+            build();
+        }
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            IdentityHashMap<Vertex, Boolean> picked = new IdentityHashMap<Vertex, Boolean>();
+            IdentityHashMap<Edge, Boolean> incident = new IdentityHashMap<Edge, Boolean>();
+            edges.clear();
+            for (int i = 0; i < BATCH; i++) {
+                Vertex v = anyVertex();
+                while (picked.containsKey(v)) {
+                    v = anyVertex();
+                }
+                picked.put(v, true);
+                removed[i] = v;
+                for (Edge e : graph.incidentEdges(v)) {
+                    if (incident.put(e, true) == null) {
+                        edges.add(e);
+                    }
+                }
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo() {
+            IdentityHashMap<Vertex, Vertex> restored = new IdentityHashMap<Vertex, Vertex>();
+            for (Vertex v : removed) {
+                restored.put(v, graph.insertVertex(v.getType(), v.getName()));
+            }
+            for (Edge e : edges) {
+                Vertex v = restored.containsKey(e.getV()) ? restored.get(e.getV()) : e.getV();
+                Vertex w = restored.containsKey(e.getW()) ? restored.get(e.getW()) : e.getW();
+                graph.insertEdge(v, w, e.getType(), e.getName());
+            }
+        }
+    }
+
+    /**
+     * Pairs of vertices that are not yet adjacent, with fresh names for the edges to join them, and the edges once
+     * inserted.
+     */
+    @State(Scope.Thread)
+    public static class EdgeInsertion extends Network {
+        final Vertex[] v = new Vertex[BATCH];
+        final Vertex[] w = new Vertex[BATCH];
+        final String[] names = new String[BATCH];
+        final Edge[] inserted = new Edge[BATCH];
+        int count;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            build();
+        }
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            for (int i = 0; i < BATCH; i++) {
+                do {
+                    v[i] = anyVertex();
+                    w[i] = anyVertex();
+                } while (v[i] == w[i] || graph.areAdjacent(v[i], w[i]) || picked(i));
+                names[i] = "new-" + count++;
+            }
+        }
+
+        private boolean picked(int i) {
+            for (int j = 0; j < i; j++) {
+                if ((v[j] == v[i] && w[j] == w[i]) || (v[j] == w[i] && w[j] == v[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo() {
+            for (Edge e : inserted) {
+                if (e != null) {
+                    graph.removeEdge(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Distinct edges to remove.
+     */
+    @State(Scope.Thread)
+    public static class EdgeRemoval extends Network {
+        final Edge[] removed = new Edge[BATCH];
+
+        @Setup(Level.Trial)
+        public void generate() {
+            build();
+        }
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            IdentityHashMap<Edge, Boolean> picked = new IdentityHashMap<Edge, Boolean>();
+            for (int i = 0; i < BATCH; i++) {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                while (picked.containsKey(e)) {
+                    e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                }
+                picked.put(e, true);
+                removed[i] = e;
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo() {
+            for (Edge e : removed) {
+                graph.insertEdge(e.getV(), e.getW(), e.getType(), e.getName());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertVertex(VertexInsertion batch) {
+        for (int i = 0; i < BATCH; i++) {
+            batch.inserted[i] = batch.graph.insertVertex("Mobile", batch.names[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeVertex(VertexRemoval batch) {
+        for (Vertex v : batch.removed) {
+            batch.graph.removeVertex(v);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertEdge(EdgeInsertion batch) {
+        for (int i = 0; i < BATCH; i++) {
+            batch.inserted[i] = batch.graph.insertEdge(batch.v[i], batch.w[i], "Channel", batch.names[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeEdge(EdgeRemoval batch) {
+        for (Edge e : batch.removed) {
+            batch.graph.removeEdge(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package adhoc;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A {@link Graph} built from one of the synthetic {@link Topologies}, extended by the state of each benchmark that
+ * queries or changes it, so that the graph measured is the one its setup and teardown work on. Every benchmark is
+ * run over each kind of topology at each size.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+@State(Scope.Thread)
+public abstract class Network {
+    @Param({"geometric", "grid", "scaleFree", "line"})
+    public String topology;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int n;
+
+    public Topologies generated;
+    public Graph graph;
+    public Random random;
+
+    /**
+     * Generates the topology and builds the graph.
+     */
+    protected void build() {
+        generated = Topologies.named(topology, n, 42);
+        graph = generated.toGraph(false);
+        random = new Random(7);
+    }
+
+    /**
+     * Picks a {@link Vertex} of the graph at random and returns it.
+     *
+     * @return	a Vertex of the graph
+     */
+    public Vertex anyVertex() {
+        return graph.vertexAt(random.nextInt(graph.getVertexCount()));
+    }
+}
@@ -0,0 +1,99 @@
+package adhoc;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the read-only operations of a {@link Graph}. Each call takes the next of a fixed ring of randomly chosen
+ * vertices or pairs. The ring of pairs for <code>path</code> is four times the capacity of the {@link RouteCache}, so
+ * every path is searched for rather than copied from the cache.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class QueryBenchmark extends Network {
+    private static final int RING = 4096;
+
+    private final Vertex[] from = new Vertex[RING];
+    private final Vertex[] to = new Vertex[RING];
+    private final String[] names = new String[RING];
+    private int next;
+
+    /**
+     * Picks the ring of vertices, half of the pairs joined by an Edge and half chosen at random. The
+     * {@link ConnectivityTracker} is built first, so its one-off cost is not measured.
+     */
+    @Setup(Level.Trial)
+    public void pick() {
+        build();
+        graph.trackConnectivity();
+        for (int i = 0; i < RING; i++) {
+            if (i % 2 == 0 && graph.getEdgeCount() > 0) {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                from[i] = e.getV();
+                to[i] = e.getW();
+            } else {
+                from[i] = anyVertex();
+                to[i] = anyVertex();
+            }
+            names[i] = from[i].getName();
+        }
+    }
+
+    private int next() {
+        next = (next + 1) & (RING - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean areAdjacent() {
+        int i = next();
+        return graph.areAdjacent(from[i], to[i]);
+    }
+
+    @Benchmark
+    public ArrayList<Edge> incidentEdges() {
+        return graph.incidentEdges(from[next()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Graph path() {
+        int i = next();
+        return graph.path(from[i], to[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Graph spanningTree() {
+        return graph.spanningTree(from[next()]);
+    }
+
+    @Benchmark
+    public boolean reportCycle() {
+        return graph.reportCycle();
+    }
+
+    @Benchmark
+    public Vertex getVertex() {
+        return graph.getVertex("Mobile", names[next()]);
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.Arrays;
+
+/**
+ * This class allows for the creation and alteration of a sparse adjacency structure. Every vertex keeps its own
+ * list of neighbour indices alongside the {@link Edge} joining it to each neighbour, so memory grows with the
+ * number of vertices plus the number of edges rather than with the square of the number of vertices.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class AdjacencyList implements AdjacencyStore {
+    private static final int INITIAL_DEGREE = 4;
+
+    private int[][] neighbours;
+    private Edge[][] edges;
+    private int[] degree;
+    private int listSize;
+
+    /**
+     * Creates a new adjacency list for <code>listSize</code> vertices.
+     *
+     * @param listSize	number of vertices
+     */
+    public AdjacencyList(int listSize) {
+        neighbours = new int[listSize][];
+        edges = new Edge[listSize][];
+        degree = new int[listSize];
+        this.listSize = listSize;
+    }
+
+    /**
+     * Adds an edge to the lists of both of its endpoints.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex    the index of Vertex w
+     * @param e		    {@link Edge} to add
+     * @return		    boolean stating whether the edge was added, which it is not if the vertices are already adjacent
+     */
+    public boolean addEdge(int vIndex, int wIndex, Edge e) {
+        if (find(vIndex, wIndex) >= 0) {
+            return false;
+        }
+        append(vIndex, wIndex, e);
+        if (vIndex != wIndex) {
+            append(wIndex, vIndex, e);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an {@link Edge} from the lists of both of its endpoints.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    boolean stating whether there was an edge to remove
+     */
+    public boolean removeEdge(int vIndex, int wIndex) {
+        int slot = find(vIndex, wIndex);
+        if (slot < 0) {
+            return false;
+        }
+        delete(vIndex, slot);
+        if (vIndex != wIndex) {
+            delete(wIndex, find(wIndex, vIndex));
+        }
+        return true;
+    }
+
+    /**
+     * Gets edge between two vertices and returns it. Only the shorter of the two neighbour lists is scanned.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    {@link Edge} between the vertices, or <code>null</code> if they are not adjacent
+     */
+    public Edge getEdge(int vIndex, int wIndex) {
+        if (degree[wIndex] < degree[vIndex]) {
+            int slot = find(wIndex, vIndex);
+            return slot < 0 ? null : edges[wIndex][slot];
+        }
+        int slot = find(vIndex, wIndex);
+        return slot < 0 ? null : edges[vIndex][slot];
+    }
+
+    /**
+     * Gets the number of neighbours of a vertex and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    public int degree(int vIndex) {
+        return degree[vIndex];
+    }
+
+    /**
+     * Gets the index of the <code>i</code>th neighbour of a vertex and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position in the neighbour list of v
+     * @return		    the index of the neighbouring Vertex
+     */
+    public int neighbour(int vIndex, int i) {
+        return neighbours[vIndex][i];
+    }
+
+    /**
+     * Gets the {@link Edge} joining a vertex to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position in the neighbour list of v
+     * @return		    the incident Edge
+     */
+    public Edge incidentEdge(int vIndex, int i) {
+        return edges[vIndex][i];
+    }
+
+    /**
+     * Adds a vertex with an empty neighbour list, doubling the capacity of the lists when they are full.
+     *
+     * @return	the index of the new vertex
+     */
+    public int addVertex() {
+        if (listSize == degree.length) {
+            ensureCapacity(Math.max(INITIAL_DEGREE, listSize * 2));
+        }
+        return listSize++;
+    }
+
+    /**
+     * Grows the lists to hold at least <code>capacity</code> vertices in a single copy.
+     *
+     * @param capacity	number of vertices the lists must be able to hold
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > degree.length) {
+            neighbours = Arrays.copyOf(neighbours, capacity);
+            edges = Arrays.copyOf(edges, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+    }
+
+    /**
+     * Removes a vertex and its edges, then moves the last vertex into the index left behind and points the
+     * neighbours of the moved vertex at its new index.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     */
+    public void removeVertex(int vIndex) {
+        for (int i = 0; i < degree[vIndex]; i++) {
+            int wIndex = neighbours[vIndex][i];
+            if (wIndex != vIndex) {
+                delete(wIndex, find(wIndex, vIndex));
+            }
+        }
+
+        int last = listSize - 1;
+        neighbours[vIndex] = neighbours[last];
+        edges[vIndex] = edges[last];
+        degree[vIndex] = degree[last];
+        neighbours[last] = null;
+        edges[last] = null;
+        degree[last] = 0;
+        listSize = last;
+
+        if (vIndex != last) {
+            for (int i = 0; i < degree[vIndex]; i++) {
+                int wIndex = neighbours[vIndex][i];
+                if (wIndex == last) {
+                    neighbours[vIndex][i] = vIndex;
+                } else {
+                    neighbours[wIndex][find(wIndex, last)] = vIndex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets list size and returns it.
+     *
+     * @return	the number of vertices
+     */
+    public int size() {
+        return listSize;
+    }
+
+    /**
+     * Finds the position of <code>wIndex</code> in the neighbour list of <code>vIndex</code>.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    position in the list of v, or -1 if w is not a neighbour
+     */
+    private int find(int vIndex, int wIndex) {
+        int[] list = neighbours[vIndex];
+        for (int i = 0; i < degree[vIndex]; i++) {
+            if (list[i] == wIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a neighbour to the list of <code>vIndex</code>, doubling the list when it is full.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of neighbouring Vertex w
+     * @param e		    {@link Edge} joining them
+     */
+    private void append(int vIndex, int wIndex, Edge e) {
+        int d = degree[vIndex];
+        if (neighbours[vIndex] == null) {
+            neighbours[vIndex] = new int[INITIAL_DEGREE];
+            edges[vIndex] = new Edge[INITIAL_DEGREE];
+        } else if (d == neighbours[vIndex].length) {
+            neighbours[vIndex] = Arrays.copyOf(neighbours[vIndex], d * 2);
+            edges[vIndex] = Arrays.copyOf(edges[vIndex], d * 2);
+        }
+        neighbours[vIndex][d] = wIndex;
+        edges[vIndex][d] = e;
+        degree[vIndex] = d + 1;
+    }
+
+    /**
+     * Deletes a position from the list of <code>vIndex</code> by moving the last entry into it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param slot	    position in the list to delete
+     */
+    private void delete(int vIndex, int slot) {
+        int last = --degree[vIndex];
+        neighbours[vIndex][slot] = neighbours[vIndex][last];
+        edges[vIndex][slot] = edges[vIndex][last];
+        edges[vIndex][last] = null;
+    }
+}
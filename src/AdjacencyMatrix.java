@@ -1,12 +1,16 @@
 /**
- * This class allows for the creation and alteration of an adjacency matrix.
+ * This class allows for the creation and alteration of an adjacency matrix. The matrix uses memory proportional
+ * to the square of the number of vertices, so it is best kept for small, densely connected graphs; large sparse
+ * networks should use an {@link AdjacencyList} instead. An {@link AdjacencyList} is kept alongside the matrix so that
+ * the neighbours of a vertex can be walked without scanning its whole row.
  *
  * @author Francis Poole
  * @version 1.0, 18/4/13
  */
-public class AdjacencyMatrix {
+public class AdjacencyMatrix implements AdjacencyStore {
     private Edge[][] matrix;
     private int matrixSize;
+    private AdjacencyList neighbours;
 
     /**
      * Creates a new matrix with size <code>matrixSize</code>.
@@ -16,6 +20,7 @@ public class AdjacencyMatrix {
     public AdjacencyMatrix(int matrixSize) {
         matrix = new Edge[matrixSize][matrixSize];
         this.matrixSize = matrixSize;
+        neighbours = new AdjacencyList(matrixSize);
     }
 
     /**
@@ -24,29 +29,33 @@ public class AdjacencyMatrix {
      * @param vIndex	the index of {@link Vertex} v
      * @param wIndex    the index of Vertex w
      * @param e		    {@link Edge} to add
+     * @return		    boolean stating whether the edge was added, which it is not if the position is taken
      */
-    public void addEdge(int vIndex, int wIndex, Edge e) {
-        if (matrix[vIndex][wIndex] == null) {
-            matrix[vIndex][wIndex] = e;
-            matrix[wIndex][vIndex] = e;
-        } else {
-            System.out.println("Error: Edge already exists at adjacency matrix position " + vIndex + ", " + wIndex);
-            System.out.println("Please remove edge " + getEdge(vIndex, wIndex).getName() + " from this position before trying again.");
+    public boolean addEdge(int vIndex, int wIndex, Edge e) {
+        if (matrix[vIndex][wIndex] != null) {
+            return false;
         }
+        matrix[vIndex][wIndex] = e;
+        matrix[wIndex][vIndex] = e;
+        neighbours.addEdge(vIndex, wIndex, e);
+        return true;
     }
 
     /**
-     * Removes an {@link Edge} from the matrix
+     * Removes an {@link Edge} from both positions it occupies in the matrix
      *
      * @param vIndex	the index of {@link Vertex} v
      * @param wIndex	the index of Vertex w
+     * @return		    boolean stating whether there was an edge to remove
      */
-    public void removeEdge(int vIndex, int wIndex) {
-        if (matrix[vIndex][wIndex] != null) {
-            matrix[vIndex][wIndex] = null;
-        } else {
-            System.out.println("Error: No edge exists at adjacency matrix position " + vIndex + ", " + wIndex);
+    public boolean removeEdge(int vIndex, int wIndex) {
+        if (matrix[vIndex][wIndex] == null) {
+            return false;
         }
+        matrix[vIndex][wIndex] = null;
+        matrix[wIndex][vIndex] = null;
+        neighbours.removeEdge(vIndex, wIndex);
+        return true;
     }
 
     /**
@@ -60,6 +69,101 @@ public class AdjacencyMatrix {
         return matrix[vIndex][wIndex];
     }
 
+    /**
+     * Gets the number of neighbours of a vertex and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    public int degree(int vIndex) {
+        return neighbours.degree(vIndex);
+    }
+
+    /**
+     * Gets the index of the <code>i</code>th neighbour of a vertex and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the index of the neighbouring Vertex
+     */
+    public int neighbour(int vIndex, int i) {
+        return neighbours.neighbour(vIndex, i);
+    }
+
+    /**
+     * Gets the {@link Edge} joining a vertex to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the incident Edge
+     */
+    public Edge incidentEdge(int vIndex, int i) {
+        return neighbours.incidentEdge(vIndex, i);
+    }
+
+    /**
+     * Adds a vertex with an empty row and column, doubling the matrix when it is full.
+     *
+     * @return	the index of the new vertex
+     */
+    public int addVertex() {
+        if (matrixSize == matrix.length) {
+            ensureCapacity(Math.max(4, matrixSize * 2));
+        }
+        neighbours.addVertex();
+        return matrixSize++;
+    }
+
+    /**
+     * Grows the matrix to hold at least <code>capacity</code> vertices in a single copy.
+     *
+     * @param capacity	number of vertices the matrix must be able to hold
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > matrix.length) {
+            Edge[][] grown = new Edge[capacity][capacity];
+            for (int i = 0; i < matrixSize; i++) {
+                System.arraycopy(matrix[i], 0, grown[i], 0, matrixSize);
+            }
+            matrix = grown;
+        }
+        neighbours.ensureCapacity(capacity);
+    }
+
+    /**
+     * Removes a vertex and its edges, then moves the row and column of the last vertex into the index left behind.
+     * Only the cells of actual neighbours are touched.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     */
+    public void removeVertex(int vIndex) {
+        int last = matrixSize - 1;
+
+        for (int i = 0; i < neighbours.degree(vIndex); i++) {
+            int wIndex = neighbours.neighbour(vIndex, i);
+            matrix[vIndex][wIndex] = null;
+            matrix[wIndex][vIndex] = null;
+        }
+        if (vIndex != last) {
+            for (int i = 0; i < neighbours.degree(last); i++) {
+                int wIndex = neighbours.neighbour(last, i);
+                if (wIndex != vIndex) {
+                    Edge e = matrix[last][wIndex];
+                    matrix[last][wIndex] = null;
+                    matrix[wIndex][last] = null;
+                    if (wIndex == last) {
+                        wIndex = vIndex;
+                    }
+                    matrix[vIndex][wIndex] = e;
+                    matrix[wIndex][vIndex] = e;
+                }
+            }
+        }
+
+        neighbours.removeVertex(vIndex);
+        matrixSize = last;
+    }
+
     /**
      * Gets matrix size and returns it.
      *
@@ -0,0 +1,54 @@
+/**
+ * Common interface for the structures that record which {@link Vertex} connects to which {@link Edge}. The
+ * {@link Graph} only talks to its adjacency through this interface so that a dense {@link AdjacencyMatrix} can
+ * be used for small, heavily connected networks and a sparse {@link AdjacencyList} for large meshes where each
+ * node only has a handful of neighbours. Reading the adjacency is covered by {@link Topology}; this interface
+ * adds the changes.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface AdjacencyStore extends Topology {
+
+    /**
+     * Adds an edge between two vertex indices.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @param e		    {@link Edge} to add
+     * @return		    boolean stating whether the edge was added, which it is not if the vertices are already adjacent
+     */
+    boolean addEdge(int vIndex, int wIndex, Edge e);
+
+    /**
+     * Removes the edge between two vertex indices.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    boolean stating whether there was an edge to remove
+     */
+    boolean removeEdge(int vIndex, int wIndex);
+
+    /**
+     * Adds a vertex with no edges at the next free index, growing the store if it is full.
+     *
+     * @return	the index of the new vertex
+     */
+    int addVertex();
+
+    /**
+     * Makes room for at least <code>capacity</code> vertices, so that adding vertices up to that number does not
+     * grow the store again.
+     *
+     * @param capacity	number of vertices the store must be able to hold
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * Removes a vertex together with all of its edges. The last vertex index is moved into <code>vIndex</code> so
+     * that indices stay contiguous, which only touches the neighbours of the two vertices involved.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     */
+    void removeVertex(int vIndex);
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TraceSink} that writes events out on a thread of its own, so a thread reporting an event never waits for
+ * I/O or for another reporting thread. Events are placed in a ring buffer of fixed size: each reporting thread
+ * claims the next slot with a compare-and-set, fills it in and marks it as ready, and the writer thread takes ready
+ * slots in order and writes one line per event. When the buffer is full the event is dropped and counted rather than
+ * making the reporting thread wait.
+ *
+ * An event whose slot is claimed as the writer is being closed is dropped too, but its slot is still marked as
+ * ready. The writer waits for every claimed slot before it ends, so each event is either written or counted as
+ * dropped.
+ *
+ * Lines look like <code>12:00:00.000 WARN  [main] graph.duplicate: Channel-7 already exists</code>.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class AsyncTraceWriter implements TraceSink {
+    private static final long IDLE_NANOS = 1000000;
+    private static final int DROPPED = -1;
+
+    private final Writer out;
+    private final int mask;
+    private final int[] levels;
+    private final String[] events;
+    private final String[] messages;
+    private final String[] threads;
+    private final long[] times;
+    private final AtomicLongArray ready;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private volatile long written;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * Creates an AsyncTraceWriter and starts its writer thread.
+     *
+     * @param out		Writer to write events to
+     * @param capacity	number of events the buffer holds, rounded up to a power of two
+     */
+    public AsyncTraceWriter(Writer out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.out = out;
+        this.mask = size - 1;
+        this.levels = new int[size];
+        this.events = new String[size];
+        this.messages = new String[size];
+        this.threads = new String[size];
+        this.times = new long[size];
+        this.ready = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            ready.set(i, i);
+        }
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                drainUntilClosed();
+            }
+        }, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void trace(int level, String event, String message) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        if (closed) {
+            dropped.incrementAndGet();
+            levels[slot] = DROPPED;
+            ready.lazySet(slot, sequence + 1);
+            return;
+        }
+        levels[slot] = level;
+        events[slot] = event;
+        messages[slot] = message;
+        threads[slot] = Thread.currentThread().getName();
+        times[slot] = System.currentTimeMillis();
+        ready.lazySet(slot, sequence + 1);
+    }
+
+    /**
+     * Waits until every event reported before the call has been written and flushed.
+     *
+     * @throws IOException	if writing an event failed
+     */
+    public void flush() throws IOException {
+        long target = tail.get();
+        while (head < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_NANOS / 10);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes out every event already reported and stops the writer thread. Events reported from then on are
+     * dropped. The Writer is flushed but left open, so that it may be shared with other code.
+     *
+     * @throws IOException	if writing an event failed
+     */
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the buffer was full or the writer was closed and returns it.
+     *
+     * @return	number of dropped events
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of events written and returns it.
+     *
+     * @return	number of written events
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Body of the writer thread. Ready events are written in order and the Writer is flushed whenever the buffer
+     * runs dry. Once the writer is closed no slot can be claimed for an event that will be written, so the thread
+     * waits for every slot claimed until then to be marked as ready, writes what they hold and ends.
+     */
+    private void drainUntilClosed() {
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+        StringBuilder line = new StringBuilder();
+        Date date = new Date();
+        long end = -1;
+
+        while (true) {
+            long next = head;
+            int slot = (int) next & mask;
+            if (ready.get(slot) == next + 1) {
+                if (levels[slot] == DROPPED) {
+                    ready.lazySet(slot, next + mask + 1);
+                    head = next + 1;
+                    continue;
+                }
+                date.setTime(times[slot]);
+                line.setLength(0);
+                line.append(format.format(date)).append(' ');
+                String level = Trace.name(levels[slot]);
+                line.append(level);
+                for (int i = level.length(); i < 6; i++) {
+                    line.append(' ');
+                }
+                line.append('[').append(threads[slot]).append("] ").append(events[slot]).append(": ")
+                        .append(messages[slot]).append(System.lineSeparator());
+                events[slot] = null;
+                messages[slot] = null;
+                threads[slot] = null;
+                ready.lazySet(slot, next + mask + 1);
+                write(line);
+                written++;
+                head = next + 1;
+                continue;
+            }
+
+            if (end < 0) {
+                flushOut();
+                if (closed) {
+                    end = tail.get();
+                    continue;
+                }
+            } else if (next == end) {
+                flushOut();
+                return;
+            }
+            LockSupport.parkNanos(this, end < 0 ? IDLE_NANOS : IDLE_NANOS / 10);
+        }
+    }
+
+    private void write(CharSequence line) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void flushOut() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 /**
- * Subclass of {@link Edge} that states type of Edge. Currently not fully used
- * as no other edge type currently exist or have any special information associated with them.
+ * Subclass of {@link Edge} that states type of Edge. A Channel is a radio link and carries the latency, energy
+ * and delivery ratio of the link, which weighted routes are costed by.
  *
  * @author Francis Poole
  * @version 1.0, 18/4/13
  *
  */
 public class Channel extends Edge {
+    private double latency = 1;
+    private double energy = 1;
+    private double quality = 1;
 
     /**
      * Creates a Channel edge.
@@ -19,6 +22,105 @@ public class Channel extends Edge {
         super(v, w, name);
     }
 
+    /**
+     * Creates a Channel edge with link attributes.
+     *
+     * @param v		    {@link Vertex} v to join to edge
+     * @param w		    Vertex w to join to edge
+     * @param name	    String name of edge
+     * @param latency	time taken for a packet to cross the link
+     * @param energy	energy spent sending a packet over the link
+     * @param quality	delivery ratio of the link, greater than 0 and at most 1
+     */
+    public Channel(Vertex v, Vertex w, String name, double latency, double energy, double quality) {
+        super(v, w, name);
+        setLatency(latency);
+        setEnergy(energy);
+        setQuality(quality);
+    }
+
+    /**
+     * Get and return the cost of the Channel for a {@link LinkMetric}.
+     *
+     * @param metric	LinkMetric to get the cost for
+     * @return		    non-negative cost of the Channel
+     */
+    public double getCost(LinkMetric metric) {
+        switch (metric) {
+            case LATENCY:
+                return latency;
+            case ENERGY:
+                return energy;
+            case QUALITY:
+                return 1 / quality;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Get and return the latency of the Channel
+     *
+     * @return	time taken for a packet to cross the link
+     */
+    public double getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get and return the energy cost of the Channel
+     *
+     * @return	energy spent sending a packet over the link
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * Get and return the delivery ratio of the Channel
+     *
+     * @return	delivery ratio of the link
+     */
+    public double getQuality() {
+        return quality;
+    }
+
+    /**
+     * Set <code>latency</code> to input double
+     *
+     * @param latency	non-negative latency to set <code>latency</code> to
+     */
+    public void setLatency(double latency) {
+        if (!(latency >= 0)) {
+            throw new IllegalArgumentException("Latency must be non-negative: " + latency);
+        }
+        this.latency = latency;
+    }
+
+    /**
+     * Set <code>energy</code> to input double
+     *
+     * @param energy	non-negative energy to set <code>energy</code> to
+     */
+    public void setEnergy(double energy) {
+        if (!(energy >= 0)) {
+            throw new IllegalArgumentException("Energy must be non-negative: " + energy);
+        }
+        this.energy = energy;
+    }
+
+    /**
+     * Set <code>quality</code> to input double
+     *
+     * @param quality	delivery ratio, greater than 0 and at most 1, to set <code>quality</code> to
+     */
+    public void setQuality(double quality) {
+        if (!(quality > 0 && quality <= 1)) {
+            throw new IllegalArgumentException("Quality must be in (0, 1]: " + quality);
+        }
+        this.quality = quality;
+    }
+
     /**
      * Gets type of {@list Edge} and returns it.
      *
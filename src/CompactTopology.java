@@ -0,0 +1,920 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Topology held as columns of primitives rather than as {@link Vertex} and {@link Edge} objects, for graphs of
+ * millions of vertices where object headers and pointers would take most of the heap. A Vertex is an int id with a
+ * byte type code and the number of its name in a {@link NameTable}, plus its coordinates if it has any. An Edge is
+ * an int id with a type code, a name number, the ids of its endpoints and the link attributes of a {@link Channel}.
+ * Objects are found by type and name through open-addressed tables of ids, so no key objects are kept either, and
+ * edges are found by their endpoints through a third such table. Like a {@link Graph}, a CompactTopology holds at
+ * most one Edge between two vertices. A name is added to the NameTable only once the insertion or rename using it
+ * is sure to succeed, so refused changes leave nothing behind.
+ *
+ * Ids are dense like the indices of a {@link Graph}: removing a Vertex or Edge moves the last one into the id left
+ * behind. The adjacency is kept in compressed rows, which are not patched as vertices and edges come and go but
+ * rebuilt in one O(V + E) pass the first time {@link #degree(int)}, {@link #neighbour(int, int)} or
+ * {@link #incidentEdge(int, int)} is called after a change. A CompactTopology is therefore meant to be loaded or
+ * imported in bulk and then read: changes should be made in runs between searches, since a workload that changes
+ * one thing and then walks the rows pays for a whole rebuild every time, and is better served by a Graph. Lookups by
+ * name and {@link #getEdge(int, int)} go through hash tables and never wait for a rebuild. MixedUseBenchmark shows
+ * the cost for runs of changes of different lengths.
+ *
+ * The Vertex and Edge objects returned by {@link #vertexAt(int)}, {@link #edgeAt(int)} and the {@link Topology}
+ * methods are views carrying the id as their index. Like those of a {@link MappedTopology} they are made the first
+ * time an id is asked for and kept, so a search sees the same object for an id on every call, but they are all let
+ * go whenever the topology changes, as ids may have moved. Changing a view does not change the topology. Like
+ * {@link AdjacencyList}, a CompactTopology is not synchronized.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class CompactTopology implements Topology {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ArrayList<String> vertexTypes = new ArrayList<String>();
+    private final ArrayList<String> edgeTypes = new ArrayList<String>();
+    private final NameTable names = new NameTable();
+
+    private int vertexCount;
+    private byte[] vertexType = new byte[INITIAL_CAPACITY];
+    private int[] vertexName = new int[INITIAL_CAPACITY];
+    private double[] x;
+    private double[] y;
+    private int[] vertexSlots = NameTable.empty(2 * INITIAL_CAPACITY);
+
+    private int edgeCount;
+    private byte[] edgeType = new byte[INITIAL_CAPACITY];
+    private int[] edgeName = new int[INITIAL_CAPACITY];
+    private int[] edgeV = new int[INITIAL_CAPACITY];
+    private int[] edgeW = new int[INITIAL_CAPACITY];
+    private double[] latency = new double[INITIAL_CAPACITY];
+    private double[] energy = new double[INITIAL_CAPACITY];
+    private double[] quality = new double[INITIAL_CAPACITY];
+    private int[] edgeSlots = NameTable.empty(2 * INITIAL_CAPACITY);
+    private int[] pairSlots = NameTable.empty(2 * INITIAL_CAPACITY);
+
+    private boolean indexed;
+    private int[] offset = new int[1];
+    private int[] target = new int[0];
+    private int[] incident = new int[0];
+
+    private Vertex[] vertexViews;
+    private Edge[] edgeViews;
+
+    /**
+     * Creates an empty CompactTopology.
+     */
+    public CompactTopology() {
+    }
+
+    /**
+     * Copies the topology of a graph, read through a {@link TopologySnapshot} so the graph may go on changing.
+     * Vertices keep their indices as ids and edges keep their slots.
+     *
+     * @param graph	Graph to copy
+     * @return		a new CompactTopology holding the topology of the graph
+     */
+    public static CompactTopology of(Graph graph) {
+        TopologySnapshot snapshot = graph.snapshot();
+        CompactTopology compact = new CompactTopology();
+        compact.ensureVertexCapacity(snapshot.size());
+        compact.ensureEdgeCapacity(snapshot.getEdgeCount());
+        for (int v = 0; v < snapshot.size(); v++) {
+            Vertex vertex = snapshot.vertexAt(v);
+            compact.insertVertex(vertex.getType(), vertex.getName());
+            if (vertex.hasPosition()) {
+                compact.setPosition(v, vertex.getX(), vertex.getY());
+            }
+        }
+        for (int e = 0; e < snapshot.getEdgeCount(); e++) {
+            Edge edge = snapshot.edgeAt(e);
+            int v = snapshot.indexOf(edge.getV());
+            int w = snapshot.indexOf(edge.getW());
+            if (edge instanceof Channel) {
+                Channel channel = (Channel) edge;
+                compact.insertEdge(v, w, edge.getType(), edge.getName(), channel.getLatency(), channel.getEnergy(),
+                        channel.getQuality());
+            } else {
+                compact.insertEdge(v, w, edge.getType(), edge.getName());
+            }
+        }
+        compact.trimToSize();
+        return compact;
+    }
+
+    /**
+     * Inserts a {@link Vertex} with a type and name.
+     *
+     * @param type	String naming the type of Vertex
+     * @param name	String of numbers naming the Vertex
+     * @return		id of the Vertex, or -1 if the type is not recognised or the name is taken
+     */
+    public int insertVertex(String type, String name) {
+        int code = typeCode(vertexTypes, type, true);
+        if (code < 0) {
+            return -1;
+        }
+        int nameId = names.find(name);
+        ensureVertexCapacity(vertexCount + 1);
+        if (nameId >= 0 && vertexSlots[slot(true, code, nameId)] >= 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.duplicate", type + "-" + name + " already exists");
+            }
+            return -1;
+        }
+        if (nameId < 0) {
+            nameId = names.intern(name);
+        }
+        int slot = slot(true, code, nameId);
+        int v = vertexCount++;
+        vertexType[v] = (byte) code;
+        vertexName[v] = nameId;
+        if (x != null) {
+            x[v] = Double.NaN;
+            y[v] = Double.NaN;
+        }
+        vertexSlots[slot] = v;
+        if (2 * vertexCount > vertexSlots.length) {
+            vertexSlots = rehash(true, vertexSlots.length * 2);
+        }
+        indexed = false;
+        dropViews();
+        return v;
+    }
+
+    /**
+     * Inserts an {@link Edge} with a type and name between two vertices, with the default link attributes.
+     *
+     * @param v		id of Vertex v
+     * @param w		id of Vertex w
+     * @param type	String naming the type of Edge
+     * @param name	String of numbers naming the Edge
+     * @return		id of the Edge, or -1 if an endpoint is missing, the type is not recognised, the name is taken or the
+     *              vertices are already adjacent
+     */
+    public int insertEdge(int v, int w, String type, String name) {
+        return insertEdge(v, w, type, name, 1, 1, 1);
+    }
+
+    /**
+     * Inserts an {@link Edge} with a type, name and link attributes between two vertices.
+     *
+     * @param v			id of Vertex v
+     * @param w			id of Vertex w
+     * @param type		String naming the type of Edge
+     * @param name		String of numbers naming the Edge
+     * @param latency	time taken for a packet to cross the link
+     * @param energy	energy spent sending a packet over the link
+     * @param quality	delivery ratio of the link, greater than 0 and at most 1
+     * @return			id of the Edge, or -1 if an endpoint is missing, the type is not recognised, the name is taken or
+     *                  the vertices are already adjacent
+     */
+    public int insertEdge(int v, int w, String type, String name, double latency, double energy, double quality) {
+        if (!(latency >= 0) || !(energy >= 0) || !(quality > 0 && quality <= 1)) {
+            throw new IllegalArgumentException("Link attributes out of range: " + latency + ", " + energy + ", "
+                    + quality);
+        }
+        if (v < 0 || v >= vertexCount || w < 0 || w >= vertexCount) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.missing",
+                        type + "-" + name + " joins a vertex that is not in the topology");
+            }
+            return -1;
+        }
+        int code = typeCode(edgeTypes, type, false);
+        if (code < 0) {
+            return -1;
+        }
+        int nameId = names.find(name);
+        ensureEdgeCapacity(edgeCount + 1);
+        if (nameId >= 0 && edgeSlots[slot(false, code, nameId)] >= 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.duplicate", type + "-" + name + " already exists");
+            }
+            return -1;
+        }
+        int pair = pairSlot(v, w);
+        if (pairSlots[pair] >= 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.parallel",
+                        type + "-" + name + " joins vertices that are already adjacent");
+            }
+            return -1;
+        }
+        if (nameId < 0) {
+            nameId = names.intern(name);
+        }
+        int slot = slot(false, code, nameId);
+        int e = edgeCount++;
+        edgeType[e] = (byte) code;
+        edgeName[e] = nameId;
+        edgeV[e] = v;
+        edgeW[e] = w;
+        this.latency[e] = latency;
+        this.energy[e] = energy;
+        this.quality[e] = quality;
+        edgeSlots[slot] = e;
+        pairSlots[pair] = e;
+        if (2 * edgeCount > edgeSlots.length) {
+            edgeSlots = rehash(false, edgeSlots.length * 2);
+            pairSlots = rehashPairs(edgeSlots.length);
+        }
+        indexed = false;
+        dropViews();
+        return e;
+    }
+
+    /**
+     * Removes an {@link Edge}, moving the last Edge into its id.
+     *
+     * @param e		id of the Edge
+     * @return		boolean stating whether the Edge was in the topology
+     */
+    public boolean removeEdge(int e) {
+        if (e < 0 || e >= edgeCount) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.missing", "Edge " + e + " is not in the topology");
+            }
+            return false;
+        }
+        delete(false, slot(false, edgeType[e], edgeName[e]));
+        deletePair(pairSlot(edgeV[e], edgeW[e]));
+        int last = --edgeCount;
+        if (e != last) {
+            edgeSlots[slot(false, edgeType[last], edgeName[last])] = e;
+            pairSlots[pairSlot(edgeV[last], edgeW[last])] = e;
+            edgeType[e] = edgeType[last];
+            edgeName[e] = edgeName[last];
+            edgeV[e] = edgeV[last];
+            edgeW[e] = edgeW[last];
+            latency[e] = latency[last];
+            energy[e] = energy[last];
+            quality[e] = quality[last];
+        }
+        indexed = false;
+        dropViews();
+        return true;
+    }
+
+    /**
+     * Removes a {@link Vertex} and its incident edges, moving the last Vertex into its id.
+     *
+     * @param v		id of the Vertex
+     * @return		boolean stating whether the Vertex was in the topology
+     */
+    public boolean removeVertex(int v) {
+        if (v < 0 || v >= vertexCount) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.missing", "Vertex " + v + " is not in the topology");
+            }
+            return false;
+        }
+        ensureIndexed();
+        int last = vertexCount - 1;
+        int[] removed = Arrays.copyOfRange(incident, offset[v], offset[v + 1]);
+        int[] moved = Arrays.copyOfRange(incident, offset[last], offset[last + 1]);
+        Arrays.sort(removed);
+
+        for (int r = removed.length - 1; r >= 0; r--) {
+            int e = removed[r];
+            int lastEdge = edgeCount - 1;
+            removeEdge(e);
+            for (int i = 0; i < moved.length; i++) {
+                if (moved[i] == e) {
+                    moved[i] = -1;
+                } else if (moved[i] == lastEdge) {
+                    moved[i] = e;
+                }
+            }
+        }
+
+        delete(true, slot(true, vertexType[v], vertexName[v]));
+        if (v != last) {
+            for (int e : moved) {
+                if (e < 0) {
+                    continue;
+                }
+                deletePair(pairSlot(edgeV[e], edgeW[e]));
+                if (edgeV[e] == last) {
+                    edgeV[e] = v;
+                }
+                if (edgeW[e] == last) {
+                    edgeW[e] = v;
+                }
+                pairSlots[pairSlot(edgeV[e], edgeW[e])] = e;
+            }
+            vertexSlots[slot(true, vertexType[last], vertexName[last])] = v;
+            vertexType[v] = vertexType[last];
+            vertexName[v] = vertexName[last];
+            if (x != null) {
+                x[v] = x[last];
+                y[v] = y[last];
+            }
+        }
+        vertexCount--;
+        indexed = false;
+        dropViews();
+        return true;
+    }
+
+    /**
+     * Renames a {@link Vertex}. Renaming it to the name it already has changes nothing.
+     *
+     * @param v		id of the Vertex
+     * @param name	String to use as name
+     * @return		boolean stating whether the Vertex has the name, which it does not if the name is taken
+     */
+    public boolean renameVertex(int v, String name) {
+        int nameId = names.find(name);
+        if (nameId >= 0 && nameId == vertexName[v]) {
+            return true;
+        }
+        if (nameId >= 0 && vertexSlots[slot(true, vertexType[v], nameId)] >= 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.duplicate", getType(v) + "-" + name + " already exists");
+            }
+            return false;
+        }
+        if (nameId < 0) {
+            nameId = names.intern(name);
+        }
+        delete(true, slot(true, vertexType[v], vertexName[v]));
+        vertexName[v] = nameId;
+        vertexSlots[slot(true, vertexType[v], nameId)] = v;
+        dropViews();
+        return true;
+    }
+
+    /**
+     * Renames an {@link Edge}. Renaming it to the name it already has changes nothing.
+     *
+     * @param e		id of the Edge
+     * @param name	String to use as name
+     * @return		boolean stating whether the Edge has the name, which it does not if the name is taken
+     */
+    public boolean renameEdge(int e, String name) {
+        int nameId = names.find(name);
+        if (nameId >= 0 && nameId == edgeName[e]) {
+            return true;
+        }
+        if (nameId >= 0 && edgeSlots[slot(false, edgeType[e], nameId)] >= 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.duplicate", getEdgeType(e) + "-" + name + " already exists");
+            }
+            return false;
+        }
+        if (nameId < 0) {
+            nameId = names.intern(name);
+        }
+        delete(false, slot(false, edgeType[e], edgeName[e]));
+        edgeName[e] = nameId;
+        edgeSlots[slot(false, edgeType[e], nameId)] = e;
+        dropViews();
+        return true;
+    }
+
+    /**
+     * Shrinks the columns and the name table to fit the vertices and edges they hold, giving back the room left by
+     * growing them. Inserting afterwards grows them again as needed.
+     */
+    public void trimToSize() {
+        vertexType = Arrays.copyOf(vertexType, Math.max(1, vertexCount));
+        vertexName = Arrays.copyOf(vertexName, vertexType.length);
+        if (x != null) {
+            x = Arrays.copyOf(x, vertexType.length);
+            y = Arrays.copyOf(y, vertexType.length);
+        }
+        edgeType = Arrays.copyOf(edgeType, Math.max(1, edgeCount));
+        edgeName = Arrays.copyOf(edgeName, edgeType.length);
+        edgeV = Arrays.copyOf(edgeV, edgeType.length);
+        edgeW = Arrays.copyOf(edgeW, edgeType.length);
+        latency = Arrays.copyOf(latency, edgeType.length);
+        energy = Arrays.copyOf(energy, edgeType.length);
+        quality = Arrays.copyOf(quality, edgeType.length);
+        names.trimToSize();
+    }
+
+    /**
+     * Gives a {@link Vertex} coordinates.
+     *
+     * @param v		id of the Vertex
+     * @param x		x coordinate
+     * @param y		y coordinate
+     */
+    public void setPosition(int v, double x, double y) {
+        if (this.x == null) {
+            this.x = new double[vertexType.length];
+            this.y = new double[vertexType.length];
+            Arrays.fill(this.x, Double.NaN);
+            Arrays.fill(this.y, Double.NaN);
+        }
+        this.x[v] = x;
+        this.y[v] = y;
+        dropViews();
+    }
+
+    /**
+     * Gets the id of the {@link Vertex} with a type and name and returns it.
+     *
+     * @param type	String of the type of Vertex
+     * @param name	String name of the Vertex
+     * @return		id of the Vertex, or -1 if there is none
+     */
+    public int getVertex(String type, String name) {
+        int code = vertexTypes.indexOf(type);
+        int nameId = names.find(name);
+        return code < 0 || nameId < 0 ? -1 : vertexSlots[slot(true, code, nameId)];
+    }
+
+    /**
+     * Gets the id of the {@link Edge} with a type and name and returns it.
+     *
+     * @param type	String of the type of Edge
+     * @param name	String name of the Edge
+     * @return		id of the Edge, or -1 if there is none
+     */
+    public int getEdge(String type, String name) {
+        int code = edgeTypes.indexOf(type);
+        int nameId = names.find(name);
+        return code < 0 || nameId < 0 ? -1 : edgeSlots[slot(false, code, nameId)];
+    }
+
+    /**
+     * Gets the type of a {@link Vertex} and returns it.
+     *
+     * @param v		id of the Vertex
+     * @return		String type of the Vertex
+     */
+    public String getType(int v) {
+        return vertexTypes.get(vertexType[v]);
+    }
+
+    /**
+     * Gets the name of a {@link Vertex} and returns it.
+     *
+     * @param v		id of the Vertex
+     * @return		String name of the Vertex
+     */
+    public String getName(int v) {
+        return names.get(vertexName[v]);
+    }
+
+    /**
+     * Checks if a {@link Vertex} has been given coordinates.
+     *
+     * @param v		id of the Vertex
+     * @return		boolean stating whether the Vertex has a position
+     */
+    public boolean hasPosition(int v) {
+        return x != null && !Double.isNaN(x[v]);
+    }
+
+    /**
+     * Gets the x coordinate of a {@link Vertex} and returns it.
+     *
+     * @param v		id of the Vertex
+     * @return		x coordinate, or NaN if the Vertex has no position
+     */
+    public double getX(int v) {
+        return x == null ? Double.NaN : x[v];
+    }
+
+    /**
+     * Gets the y coordinate of a {@link Vertex} and returns it.
+     *
+     * @param v		id of the Vertex
+     * @return		y coordinate, or NaN if the Vertex has no position
+     */
+    public double getY(int v) {
+        return y == null ? Double.NaN : y[v];
+    }
+
+    /**
+     * Gets the type of an {@link Edge} and returns it.
+     *
+     * @param e		id of the Edge
+     * @return		String type of the Edge
+     */
+    public String getEdgeType(int e) {
+        return edgeTypes.get(edgeType[e]);
+    }
+
+    /**
+     * Gets the name of an {@link Edge} and returns it.
+     *
+     * @param e		id of the Edge
+     * @return		String name of the Edge
+     */
+    public String getEdgeName(int e) {
+        return names.get(edgeName[e]);
+    }
+
+    /**
+     * Gets the id of endpoint v of an {@link Edge} and returns it.
+     *
+     * @param e		id of the Edge
+     * @return		id of Vertex v
+     */
+    public int getV(int e) {
+        return edgeV[e];
+    }
+
+    /**
+     * Gets the id of endpoint w of an {@link Edge} and returns it.
+     *
+     * @param e		id of the Edge
+     * @return		id of Vertex w
+     */
+    public int getW(int e) {
+        return edgeW[e];
+    }
+
+    /**
+     * Gets the cost of an {@link Edge} for a {@link LinkMetric} and returns it, as {@link Channel#getCost(LinkMetric)}
+     * would.
+     *
+     * @param e			id of the Edge
+     * @param metric	LinkMetric to get the cost for
+     * @return			non-negative cost of the Edge
+     */
+    public double getCost(int e, LinkMetric metric) {
+        switch (metric) {
+            case LATENCY:
+                return latency[e];
+            case ENERGY:
+                return energy[e];
+            case QUALITY:
+                return 1 / quality[e];
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Gets the number of distinct names held in the name table and returns it.
+     *
+     * @return	number of names, including those no Vertex or Edge uses any more
+     */
+    int getNameCount() {
+        return names.size();
+    }
+
+    /**
+     * Gets the number of edges and returns it.
+     *
+     * @return	the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Gets the edge between two vertex ids and returns it.
+     *
+     * @param vIndex	the id of {@link Vertex} v
+     * @param wIndex	the id of Vertex w
+     * @return		    view of the {@link Edge} between the vertices, or <code>null</code> if they are not adjacent
+     */
+    public Edge getEdge(int vIndex, int wIndex) {
+        int e = pairSlots[pairSlot(vIndex, wIndex)];
+        return e < 0 ? null : edgeAt(e);
+    }
+
+    /**
+     * Gets the number of edges incident to a vertex id and returns it, rebuilding the compressed rows first if the
+     * topology has changed since they were last built.
+     *
+     * @param vIndex	the id of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    public int degree(int vIndex) {
+        ensureIndexed();
+        return offset[vIndex + 1] - offset[vIndex];
+    }
+
+    /**
+     * Gets the id of the <code>i</code>th neighbour of a vertex id and returns it, rebuilding the compressed rows
+     * first if the topology has changed since they were last built.
+     *
+     * @param vIndex	the id of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the id of the neighbouring Vertex
+     */
+    public int neighbour(int vIndex, int i) {
+        ensureIndexed();
+        return target[offset[vIndex] + i];
+    }
+
+    /**
+     * Gets a view of the {@link Edge} joining a vertex id to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the id of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    view of the incident Edge
+     */
+    public Edge incidentEdge(int vIndex, int i) {
+        return edgeAt(incidentEdgeIndex(vIndex, i));
+    }
+
+    /**
+     * Gets the id of the {@link Edge} joining a vertex id to its <code>i</code>th neighbour and returns it, without
+     * making a view.
+     *
+     * @param vIndex	the id of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the id of the incident Edge
+     */
+    public int incidentEdgeIndex(int vIndex, int i) {
+        ensureIndexed();
+        return incident[offset[vIndex] + i];
+    }
+
+    /**
+     * Gets the number of vertices and returns it.
+     *
+     * @return	the number of vertices
+     */
+    public int size() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the view of a {@link Vertex} and returns it, making it if the id has not been asked for since the
+     * topology last changed.
+     *
+     * @param v		id of the Vertex
+     * @return		Vertex with the type, name and position of the id, and the id as its index
+     */
+    public Vertex vertexAt(int v) {
+        if (vertexViews == null) {
+            vertexViews = new Vertex[vertexCount];
+        }
+        if (vertexViews[v] == null) {
+            vertexViews[v] = vertex(v);
+        }
+        return vertexViews[v];
+    }
+
+    /**
+     * Gets the view of an {@link Edge} and its endpoints and returns it, making it if the id has not been asked for
+     * since the topology last changed.
+     *
+     * @param e		id of the Edge
+     * @return		Edge with the type, name and link attributes of the id, and the id as its index
+     */
+    public Edge edgeAt(int e) {
+        if (edgeViews == null) {
+            edgeViews = new Edge[edgeCount];
+        }
+        if (edgeViews[e] == null) {
+            edgeViews[e] = edge(e, vertexAt(edgeV[e]), vertexAt(edgeW[e]));
+        }
+        return edgeViews[e];
+    }
+
+    /**
+     * Creates a {@link Graph} of ordinary objects holding this topology, with the same indices.
+     *
+     * @param dense	boolean stating whether the Graph should use a dense {@link AdjacencyMatrix}
+     * @return		a new Graph
+     */
+    public Graph toGraph(boolean dense) {
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>(vertexCount);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(edgeCount);
+        for (int v = 0; v < vertexCount; v++) {
+            vertexList.add(vertex(v));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            edgeList.add(edge(e, vertexList.get(edgeV[e]), vertexList.get(edgeW[e])));
+        }
+        return new Graph(vertexList, edgeList, dense);
+    }
+
+    /**
+     * Lets go of every view, after a change that may have moved ids or changed what they hold.
+     */
+    private void dropViews() {
+        vertexViews = null;
+        edgeViews = null;
+    }
+
+    private Vertex vertex(int v) {
+        Vertex vertex = Graph.createVertex(getType(v), getName(v));
+        vertex.setIndex(v);
+        if (hasPosition(v)) {
+            vertex.setPosition(x[v], y[v]);
+        }
+        return vertex;
+    }
+
+    private Edge edge(int e, Vertex v, Vertex w) {
+        Edge edge = Graph.createEdge(v, w, getEdgeType(e), getEdgeName(e));
+        edge.setIndex(e);
+        if (edge instanceof Channel) {
+            Channel channel = (Channel) edge;
+            channel.setLatency(latency[e]);
+            channel.setEnergy(energy[e]);
+            channel.setQuality(quality[e]);
+        }
+        return edge;
+    }
+
+    /**
+     * Rebuilds the compressed rows from the endpoint columns if anything has changed since they were last built.
+     */
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        int[] degree = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            degree[edgeV[e] + 1]++;
+            if (edgeW[e] != edgeV[e]) {
+                degree[edgeW[e] + 1]++;
+            }
+        }
+        offset = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            offset[v + 1] = offset[v] + degree[v + 1];
+        }
+        target = new int[offset[vertexCount]];
+        incident = new int[offset[vertexCount]];
+        int[] fill = degree;
+        System.arraycopy(offset, 0, fill, 0, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int v = edgeV[e];
+            int w = edgeW[e];
+            target[fill[v]] = w;
+            incident[fill[v]++] = e;
+            if (w != v) {
+                target[fill[w]] = v;
+                incident[fill[w]++] = e;
+            }
+        }
+        indexed = true;
+    }
+
+    /**
+     * Gets the code of a type, adding the type the first time it is seen if a Vertex or Edge of it can be created.
+     */
+    private static int typeCode(ArrayList<String> types, String type, boolean vertex) {
+        int code = types.indexOf(type);
+        if (code >= 0) {
+            return code;
+        }
+        if (vertex ? Graph.createVertex(type, "") == null : Graph.createEdge(null, null, type, "") == null) {
+            return -1;
+        }
+        if (types.size() > Byte.MAX_VALUE) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "topology.type", "Too many types to add '" + type + "'");
+            }
+            return -1;
+        }
+        types.add(type);
+        return types.size() - 1;
+    }
+
+    private void ensureVertexCapacity(int capacity) {
+        if (capacity <= vertexType.length) {
+            return;
+        }
+        int grown = Math.max(capacity, vertexType.length * 2);
+        vertexType = Arrays.copyOf(vertexType, grown);
+        vertexName = Arrays.copyOf(vertexName, grown);
+        if (x != null) {
+            x = Arrays.copyOf(x, grown);
+            y = Arrays.copyOf(y, grown);
+        }
+        if (2 * capacity > vertexSlots.length) {
+            vertexSlots = rehash(true, Integer.highestOneBit(2 * capacity - 1) << 1);
+        }
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        if (capacity <= edgeType.length) {
+            return;
+        }
+        int grown = Math.max(capacity, edgeType.length * 2);
+        edgeType = Arrays.copyOf(edgeType, grown);
+        edgeName = Arrays.copyOf(edgeName, grown);
+        edgeV = Arrays.copyOf(edgeV, grown);
+        edgeW = Arrays.copyOf(edgeW, grown);
+        latency = Arrays.copyOf(latency, grown);
+        energy = Arrays.copyOf(energy, grown);
+        quality = Arrays.copyOf(quality, grown);
+        if (2 * capacity > edgeSlots.length) {
+            edgeSlots = rehash(false, Integer.highestOneBit(2 * capacity - 1) << 1);
+            pairSlots = rehashPairs(edgeSlots.length);
+        }
+    }
+
+    private static int home(int code, int nameId) {
+        int h = nameId * 0x9E3779B9 + code;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the slot of the vertex or edge table holding a type and name, or the empty slot they would go in.
+     */
+    private int slot(boolean vertices, int code, int nameId) {
+        int[] slots = vertices ? vertexSlots : edgeSlots;
+        byte[] types = vertices ? vertexType : edgeType;
+        int[] keys = vertices ? vertexName : edgeName;
+        int mask = slots.length - 1;
+        int slot = home(code, nameId) & mask;
+        while (slots[slot] >= 0 && (types[slots[slot]] != code || keys[slots[slot]] != nameId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving later entries of the same run back so that every entry stays reachable from its home.
+     */
+    private void delete(boolean vertices, int slot) {
+        int[] slots = vertices ? vertexSlots : edgeSlots;
+        byte[] types = vertices ? vertexType : edgeType;
+        int[] keys = vertices ? vertexName : edgeName;
+        int mask = slots.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; slots[i] >= 0; i = (i + 1) & mask) {
+            int id = slots[i];
+            int home = home(types[id], keys[id]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = id;
+                hole = i;
+            }
+        }
+        slots[hole] = -1;
+    }
+
+    private int[] rehash(boolean vertices, int size) {
+        int count = vertices ? vertexCount : edgeCount;
+        byte[] types = vertices ? vertexType : edgeType;
+        int[] keys = vertices ? vertexName : edgeName;
+        int[] slots = NameTable.empty(size);
+        int mask = size - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = home(types[id], keys[id]) & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+        return slots;
+    }
+
+    private static int pairHome(int v, int w) {
+        int h = Math.min(v, w) * 0x9E3779B9 ^ Math.max(v, w);
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the slot of the pair table holding the Edge between two vertex ids, or the empty slot it would go in.
+     */
+    private int pairSlot(int v, int w) {
+        int mask = pairSlots.length - 1;
+        int slot = pairHome(v, w) & mask;
+        while (pairSlots[slot] >= 0) {
+            int e = pairSlots[slot];
+            if (edgeV[e] == v && edgeW[e] == w || edgeV[e] == w && edgeW[e] == v) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot of the pair table in the same way as {@link #delete(boolean, int)}.
+     */
+    private void deletePair(int slot) {
+        int mask = pairSlots.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; pairSlots[i] >= 0; i = (i + 1) & mask) {
+            int e = pairSlots[i];
+            int home = pairHome(edgeV[e], edgeW[e]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                pairSlots[hole] = e;
+                hole = i;
+            }
+        }
+        pairSlots[hole] = -1;
+    }
+
+    private int[] rehashPairs(int size) {
+        int[] slots = NameTable.empty(size);
+        int mask = size - 1;
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = pairHome(edgeV[e], edgeW[e]) & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = e;
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,410 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of the partitions of a {@link Graph} as it changes, so that the number of partitions, whether two
+ * vertices can reach each other and whether the graph or a new {@link Edge} makes a cycle are answered in
+ * near-constant time instead of by sweeping the graph.
+ *
+ * Partitions are held in a union-find structure over tracker ids given to each {@link Vertex}. A new {@link Edge}
+ * unions the partitions of its endpoints. A removal cannot be undone in a union-find, so instead a search is run
+ * outwards from both sides of the cut at once, one vertex at a time from whichever side has the smaller frontier.
+ * If the two searches meet nothing has split, which in a mesh usually takes only a few steps. If one search runs out
+ * first it has walked the whole of a new partition, and only the vertices of that partition are given fresh ids and
+ * unioned again; the other side keeps its ids. Ids left behind by removed and relabelled vertices stay in the
+ * structure as internal nodes, and once they outnumber the live vertices after a removal or a split the whole
+ * structure is rebuilt from the graph, so a link that keeps going down and up does not grow it without bound.
+ *
+ * A graph has one tracker, created by {@link Graph#trackConnectivity()} and updated from its {@link TopologyListener} events.
+ * All methods are synchronized, so it can be queried from any thread.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ConnectivityTracker implements TopologyListener {
+    private static final int REBUILD_SLACK = 64;
+
+    private final Graph graph;
+    private final IdentityHashMap<Vertex, Integer> ids = new IdentityHashMap<Vertex, Integer>();
+    private final CopyOnWriteArrayList<PartitionListener> listeners = new CopyOnWriteArrayList<PartitionListener>();
+    private final ArrayList<Vertex> orphaned = new ArrayList<Vertex>();
+    private int[] parent = new int[0];
+    private int[] size = new int[0];
+    private int nextId;
+    private int partitions;
+    private long splits;
+    private long merges;
+
+    private int[] stamp = new int[0];
+    private byte[] side = new byte[0];
+    private int[][] queue = {new int[0], new int[0]};
+    private int[] reached = new int[2];
+    private int epoch;
+
+    /**
+     * Creates a tracker for a graph and fills it from the current topology. The caller holds the write lock of the
+     * graph and registers the tracker as a listener.
+     *
+     * @param graph	Graph to track
+     */
+    ConnectivityTracker(Graph graph) {
+        this.graph = graph;
+        rebuild();
+    }
+
+    /**
+     * Adds a listener to be told when partitions merge or split.
+     *
+     * @param listener	PartitionListener to add
+     */
+    public void addPartitionListener(PartitionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addPartitionListener(PartitionListener)}.
+     *
+     * @param listener	PartitionListener to remove
+     */
+    public void removePartitionListener(PartitionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the number of partitions of the graph and returns it.
+     *
+     * @return	number of connected components, counting every isolated Vertex as one
+     */
+    public synchronized int getPartitionCount() {
+        return partitions;
+    }
+
+    /**
+     * Checks if there is a path between two vertices.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		boolean stating whether both vertices are in the graph and in the same partition
+     */
+    public synchronized boolean connected(Vertex v, Vertex w) {
+        Integer vId = ids.get(v);
+        Integer wId = ids.get(w);
+        return vId != null && wId != null && find(vId) == find(wId);
+    }
+
+    /**
+     * Checks if the graph has a cycle. A graph without cycles is a forest, which has exactly one Edge fewer than it
+     * has vertices in every partition, so any Edge beyond that count closes a cycle.
+     *
+     * @return	boolean stating whether the graph has a cycle
+     */
+    public synchronized boolean hasCycle() {
+        return graph.getEdgeCount() > graph.getVertexCount() - partitions;
+    }
+
+    /**
+     * Checks if an {@link Edge} between two vertices would close a cycle, which it does when they are already in the
+     * same partition.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		boolean stating whether an Edge from v to w would create a cycle
+     */
+    public synchronized boolean wouldCreateCycle(Vertex v, Vertex w) {
+        return v == w || connected(v, w);
+    }
+
+    /**
+     * Gets the number of vertices in the partition of a {@link Vertex} and returns it.
+     *
+     * @param v		Vertex to check
+     * @return		number of vertices that can reach v, including v, or 0 if v is not in the graph
+     */
+    public synchronized int getPartitionSize(Vertex v) {
+        Integer id = ids.get(v);
+        return id == null ? 0 : size[find(id)];
+    }
+
+    /**
+     * Gets the number of splits seen since the tracker was created and returns it.
+     *
+     * @return	number of splits
+     */
+    public synchronized long getSplits() {
+        return splits;
+    }
+
+    /**
+     * Gets the number of merges seen since the tracker was created and returns it.
+     *
+     * @return	number of merges
+     */
+    public synchronized long getMerges() {
+        return merges;
+    }
+
+    /**
+     * Gives a new Vertex its own partition.
+     */
+    public synchronized void vertexInserted(Graph graph, Vertex v) {
+        ids.put(v, newId());
+        partitions++;
+    }
+
+    /**
+     * Works out how many pieces the partition of a removed Vertex was cut into, using the neighbours recorded as
+     * its incident edges were removed. Each neighbour is compared with the one neighbour already known to stand for
+     * its partition; neighbours whose partitions already differ need no search.
+     */
+    public synchronized void vertexRemoved(Graph graph, Vertex v) {
+        size[find(ids.remove(v))]--;
+        if (orphaned.isEmpty()) {
+            partitions--;
+        }
+
+        ArrayList<Vertex> pieces = new ArrayList<Vertex>();
+        for (Vertex w : orphaned) {
+            Vertex piece = null;
+            for (Vertex p : pieces) {
+                if (find(ids.get(p)) == find(ids.get(w))) {
+                    piece = p;
+                    break;
+                }
+            }
+            if (piece == null) {
+                pieces.add(w);
+            } else if (piece != w && cut(piece, w)) {
+                pieces.add(w);
+            }
+        }
+        orphaned.clear();
+        compact();
+    }
+
+    /**
+     * Unions the partitions of the endpoints of a new Edge.
+     */
+    public synchronized void edgeInserted(Graph graph, Edge e) {
+        int vRoot = find(ids.get(e.getV()));
+        int wRoot = find(ids.get(e.getW()));
+        if (vRoot == wRoot) {
+            return;
+        }
+        union(vRoot, wRoot);
+        partitions--;
+        merges++;
+        for (PartitionListener listener : listeners) {
+            listener.partitionsMerged(e.getV(), e.getW(), partitions);
+        }
+    }
+
+    /**
+     * Checks whether a removed Edge was the last link between its endpoints, compacting the structure after a split
+     * since the side that was walked has been given fresh ids. Edges removed along with an endpoint only record the
+     * surviving endpoint, which is dealt with when the Vertex removal is reported.
+     */
+    public synchronized void edgeRemoved(Graph graph, Edge e) {
+        Vertex v = e.getV();
+        Vertex w = e.getW();
+        boolean vLive = graph.contains(v);
+        boolean wLive = graph.contains(w);
+        if (vLive && wLive) {
+            if (v != w && cut(v, w)) {
+                compact();
+            }
+        } else if (vLive) {
+            orphaned.add(v);
+        } else if (wLive) {
+            orphaned.add(w);
+        }
+    }
+
+    /**
+     * Names do not affect partitions.
+     */
+    public void vertexRenamed(Graph graph, Vertex v, String oldName) {
+    }
+
+    /**
+     * Names do not affect partitions.
+     */
+    public void edgeRenamed(Graph graph, Edge e, String oldName) {
+    }
+
+    /**
+     * Positions do not affect partitions.
+     */
+    public void vertexMoved(Graph graph, Vertex v) {
+    }
+
+    /**
+     * Searches outwards from two vertices of one partition, and if they can no longer reach each other gives the
+     * side that was fully walked fresh ids.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		boolean stating whether the partition was split
+     */
+    private boolean cut(Vertex v, Vertex w) {
+        int exhausted = search(graph.indexOf(v), graph.indexOf(w));
+        if (exhausted < 0) {
+            return false;
+        }
+
+        int[] members = queue[exhausted];
+        int count = reached[exhausted];
+        size[find(ids.get(graph.vertexAt(members[0])))] -= count;
+        int root = newId();
+        ids.put(graph.vertexAt(members[0]), root);
+        for (int i = 1; i < count; i++) {
+            int id = newId();
+            ids.put(graph.vertexAt(members[i]), id);
+            union(root, id);
+        }
+
+        partitions++;
+        splits++;
+        for (PartitionListener listener : listeners) {
+            listener.partitionSplit(v, w, partitions);
+        }
+        return true;
+    }
+
+    /**
+     * Runs a search from each of two vertex indices at once, expanding one vertex at a time from the side with the
+     * smaller frontier.
+     *
+     * @return	-1 if the searches meet, otherwise 0 or 1 for the side that ran out, whose queue then holds every
+     *          vertex of its partition
+     */
+    private int search(int a, int b) {
+        Topology store = graph.topology();
+        int n = store.size();
+        if (stamp.length < n) {
+            int capacity = Math.max(n, stamp.length * 2);
+            stamp = new int[capacity];
+            side = new byte[capacity];
+            queue[0] = new int[capacity];
+            queue[1] = new int[capacity];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+
+        int[] head = new int[2];
+        stamp[a] = epoch;
+        side[a] = 0;
+        queue[0][0] = a;
+        reached[0] = 1;
+        stamp[b] = epoch;
+        side[b] = 1;
+        queue[1][0] = b;
+        reached[1] = 1;
+
+        while (true) {
+            if (head[0] == reached[0]) {
+                return 0;
+            }
+            if (head[1] == reached[1]) {
+                return 1;
+            }
+            int s = reached[0] - head[0] <= reached[1] - head[1] ? 0 : 1;
+            int vIndex = queue[s][head[s]++];
+            for (int i = 0; i < store.degree(vIndex); i++) {
+                int wIndex = store.neighbour(vIndex, i);
+                if (stamp[wIndex] != epoch) {
+                    stamp[wIndex] = epoch;
+                    side[wIndex] = (byte) s;
+                    queue[s][reached[s]++] = wIndex;
+                } else if (side[wIndex] != s) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the structure from the graph once ids left behind outnumber the live vertices.
+     */
+    private void compact() {
+        if (nextId - ids.size() > ids.size() + REBUILD_SLACK) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Gives every Vertex of the graph a fresh id and unions the endpoints of every Edge.
+     */
+    private void rebuild() {
+        int n = graph.getVertexCount();
+        ids.clear();
+        nextId = 0;
+        parent = new int[Math.max(n, 16)];
+        size = new int[parent.length];
+        for (int i = 0; i < n; i++) {
+            ids.put(graph.vertexAt(i), newId());
+        }
+        partitions = n;
+        for (int i = 0; i < graph.getEdgeCount(); i++) {
+            Edge e = graph.edgeAt(i);
+            int vRoot = find(ids.get(e.getV()));
+            int wRoot = find(ids.get(e.getW()));
+            if (vRoot != wRoot) {
+                union(vRoot, wRoot);
+                partitions--;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of ids handed out since the structure was last rebuilt, live or left behind, and returns it.
+     *
+     * @return	number of ids in use
+     */
+    synchronized int getIdCount() {
+        return nextId;
+    }
+
+    private int newId() {
+        if (nextId == parent.length) {
+            parent = Arrays.copyOf(parent, Math.max(16, nextId * 2));
+            size = Arrays.copyOf(size, parent.length);
+        }
+        parent[nextId] = nextId;
+        size[nextId] = 1;
+        return nextId++;
+    }
+
+    /**
+     * Finds the root of an id, halving the path on the way.
+     */
+    private int find(int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Joins the trees of two ids, hanging the smaller under the larger.
+     */
+    private void union(int a, int b) {
+        int aRoot = find(a);
+        int bRoot = find(b);
+        if (aRoot == bRoot) {
+            return;
+        }
+        if (size[aRoot] < size[bRoot]) {
+            int swap = aRoot;
+            aRoot = bRoot;
+            bRoot = swap;
+        }
+        parent[bRoot] = aRoot;
+        size[aRoot] += size[bRoot];
+    }
+}
@@ -10,8 +10,7 @@ public abstract class Edge {
     private Vertex v;
     private Vertex w;
     private String name;
-    public boolean visited = false;
-    public boolean crossEdge = false;
+    private int index;
 
     /**
      * Creates an {@link Edge}
@@ -45,37 +44,39 @@ public abstract class Edge {
     }
 
     /**
-     * Abstract method to get Edge type
+     * Get and return the slot of the Edge in the edge list of its graph
      *
-     * @return	String representation of Edge type
+     * @return	slot of Edge
      */
-    public abstract String getType();
+    public int getIndex() {
+        return index;
+    }
 
     /**
-     * Get and return Edge name
+     * Abstract method to get Edge type
      *
-     * @return	String name of Edge
+     * @return	String representation of Edge type
      */
-    public String getName() {
-        return name;
-    }
+    public abstract String getType();
 
     /**
-     * Get and return if Edge has been visited
+     * Get and return the cost of sending a packet over the Edge for a {@link LinkMetric}. Edges with no link
+     * attributes cost 1 for every metric; subclasses such as {@link Channel} report their own costs.
      *
-     * @return	boolean representing if Edge has been visited
+     * @param metric	LinkMetric to get the cost for
+     * @return		    non-negative cost of the Edge
      */
-    public boolean getVisited() {
-        return visited;
+    public double getCost(LinkMetric metric) {
+        return 1;
     }
 
     /**
-     * Get and return if Edge has been marked as a cross edge
+     * Get and return Edge name
      *
-     * @return	boolean representing if Edge is a cross edge
+     * @return	String name of Edge
      */
-    public boolean getCrossEdge() {
-        return crossEdge;
+    public String getName() {
+        return name;
     }
 
     /**
@@ -97,30 +98,21 @@ public abstract class Edge {
     }
 
     /**
-     * Set <code>name</code> to input String
-     *
-     * @param name	String to set <code>name</code> to
-     */
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    /**
-     * Set <code>visited</code> to input boolean
+     * Set <code>index</code> to input
      *
-     * @param visited	boolean to set <code>visited</code> to
+     * @param index	    slot to set <code>index</code> to
      */
-    public void setVisited(boolean visited) {
-        this.visited = visited;
+    public void setIndex(int index) {
+        this.index = index;
     }
 
     /**
-     * Set <code>crossEdge</code> to input boolean
+     * Set <code>name</code> to input String
      *
-     * @param crossEdge	boolean to set <code>crossEdge</code> to
+     * @param name	String to set <code>name</code> to
      */
-    public void setCrossEdge(boolean crossEdge) {
-        this.crossEdge = crossEdge;
+    public void setName(String name) {
+        this.name = name;
     }
 
     /**
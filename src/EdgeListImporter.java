@@ -0,0 +1,317 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Reads a topology from an edge list file and builds a {@link Graph} from it in one pass. Every line names the two
+ * endpoints of one {@link Channel} and the Channel itself:
+ *
+ * <pre>
+ * type,name,type,name,channel
+ * </pre>
+ *
+ * Blank lines and lines starting with <code>#</code> are skipped. A line naming a link the Graph refuses, such as
+ * one between two vertices already joined by an earlier line or one reusing the name of an earlier Channel, is
+ * skipped too: it is counted by {@link #getLinesSkipped()} and reported as a warning through
+ * {@link Trace}, and the import goes on. Only a line that is not an edge at all stops the import. A {@link Vertex} is created the first time its
+ * type and name are seen and found through a {@link NameIndex} after that, so each endpoint exists once however
+ * many lines name it.
+ *
+ * The file is read through a {@link FileChannel} in chunks of a few megabytes, and each chunk is parsed into its
+ * fields and then inserted into the Graph before the next is kept, so only a few chunks are ever held in memory
+ * whatever the size of the file. With more than one thread, chunks further on in the file are parsed on a pool while
+ * the calling thread inserts the earlier ones in file order. A line belongs to the chunk it starts in.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class EdgeListImporter {
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final int FIELDS = 5;
+
+    private final int threads;
+    private long edgesImported;
+    private long linesRead;
+    private long linesSkipped;
+
+    /**
+     * Creates an importer that parses on the calling thread alone.
+     */
+    public EdgeListImporter() {
+        this(1);
+    }
+
+    /**
+     * Creates an importer that parses chunks of a file on <code>threads</code> threads.
+     *
+     * @param threads	number of threads to parse with, at least 1
+     */
+    public EdgeListImporter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An importer needs at least one thread, not " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Reads an edge list file and returns a new Graph holding its topology.
+     *
+     * @param file	File to read
+     * @param dense	boolean stating whether the Graph should use a dense {@link AdjacencyMatrix}
+     * @return		the Graph built from the file
+     * @throws IOException	if the file cannot be read, a line does not have five fields or names an unknown type
+     */
+    public Graph importFile(File file, boolean dense) throws IOException {
+        Graph graph = new Graph(new ArrayList<Vertex>(), new ArrayList<Edge>(), dense);
+        NameIndex<Vertex> vertices = new NameIndex<Vertex>();
+        edgesImported = 0;
+        linesRead = 0;
+        linesSkipped = 0;
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            FileChannel channel = in.getChannel();
+            long length = channel.size();
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+            long next = 0;
+
+            while (next < length || !pending.isEmpty()) {
+                while (next < length && pending.size() < 2 * threads) {
+                    Parse parse = new Parse(channel, next, Math.min(length, next + CHUNK_SIZE));
+                    if (pool != null) {
+                        pending.add(pool.submit(parse));
+                    } else {
+                        FutureTask<Chunk> task = new FutureTask<Chunk>(parse);
+                        task.run();
+                        pending.add(task);
+                    }
+                    next += CHUNK_SIZE;
+                }
+                insert(graph, vertices, take(pending.poll()));
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            in.close();
+        }
+        return graph;
+    }
+
+    /**
+     * Gets the number of edges inserted by the last import and returns it.
+     *
+     * @return	number of edges imported
+     */
+    public long getEdgesImported() {
+        return edgesImported;
+    }
+
+    /**
+     * Gets the number of lines read by the last import, including skipped ones, and returns it.
+     *
+     * @return	number of lines read
+     */
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    /**
+     * Gets the number of lines of the last import that named a link the Graph refused, and were skipped, and
+     * returns it. Blank lines and comments are not counted.
+     *
+     * @return	number of links skipped
+     */
+    public long getLinesSkipped() {
+        return linesSkipped;
+    }
+
+    /**
+     * Inserts the edges of one parsed chunk, creating any endpoint not seen before.
+     */
+    private void insert(Graph graph, NameIndex<Vertex> vertices, Chunk chunk) throws IOException {
+        String[] fields = chunk.fields;
+        for (int f = 0, line = 0; f < chunk.count; f += FIELDS, line++) {
+            Vertex v = vertex(graph, vertices, fields[f], fields[f + 1], chunk.at[line]);
+            Vertex w = vertex(graph, vertices, fields[f + 2], fields[f + 3], chunk.at[line]);
+            if (graph.insertEdge(v, w, "Channel", fields[f + 4]) == null) {
+                linesSkipped++;
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "import.skipped", "Skipped Channel-" + fields[f + 4] + " between " + v
+                            + " and " + w + " on the line starting at byte " + chunk.at[line]);
+                }
+                continue;
+            }
+            edgesImported++;
+        }
+        linesRead += chunk.lines;
+    }
+
+    private static Vertex vertex(Graph graph, NameIndex<Vertex> vertices, String type, String name, long at)
+            throws IOException {
+        Vertex v = vertices.get(type, name);
+        if (v == null) {
+            v = graph.insertVertex(type, name);
+            if (v == null) {
+                throw new IOException("Could not insert " + type + "-" + name + " from the line starting at byte "
+                        + at);
+            }
+            vertices.put(type, name, v);
+        }
+        return v;
+    }
+
+    private static Chunk take(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * The fields of every edge line starting in one chunk of the file, five to a line, and the position in the file
+     * of each of those lines.
+     */
+    private static class Chunk {
+        final String[] fields;
+        final long[] at;
+        final int count;
+        final int lines;
+
+        Chunk(String[] fields, long[] at, int count, int lines) {
+            this.fields = fields;
+            this.at = at;
+            this.count = count;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Reads the lines starting between two positions of the file, reading on past the end of the range to finish
+     * the last line, and splits them into fields.
+     */
+    private static class Parse implements Callable<Chunk> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        Parse(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Chunk call() throws IOException {
+            long from = start == 0 ? 0 : start - 1;
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - from) + 1024);
+            long position = from;
+            byte[] bytes = buffer.array();
+            int limit = read(buffer, position);
+            position += limit;
+
+            int i = 0;
+            if (start > 0) {
+                while (i < limit && bytes[i] != '\n') {
+                    i++;
+                }
+                i++;
+            }
+
+            String[] fields = new String[FIELDS * 4096];
+            long[] at = new long[4096];
+            int count = 0;
+            int lines = 0;
+            int[] comma = new int[FIELDS - 1];
+            while (i < limit && from + i < end) {
+                int lineStart = i;
+                int commas = 0;
+                while (true) {
+                    if (i == limit) {
+                        if (position >= channel.size()) {
+                            break;
+                        }
+                        if (limit == bytes.length) {
+                            ByteBuffer grown = ByteBuffer.allocate(bytes.length * 2);
+                            grown.put(bytes, 0, limit);
+                            buffer = grown;
+                            bytes = buffer.array();
+                        }
+                        buffer.position(limit);
+                        int read = channel.read(buffer, position);
+                        if (read <= 0) {
+                            break;
+                        }
+                        position += read;
+                        limit += read;
+                        continue;
+                    }
+                    byte b = bytes[i];
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (b == ',' && commas < comma.length) {
+                        comma[commas] = i;
+                        commas++;
+                    } else if (b == ',') {
+                        commas++;
+                    }
+                    i++;
+                }
+                int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                i++;
+                lines++;
+
+                if (lineEnd == lineStart || bytes[lineStart] == '#') {
+                    continue;
+                }
+                if (commas != FIELDS - 1) {
+                    throw new IOException("Line starting at byte " + (from + lineStart) + " has " + (commas + 1)
+                            + " fields instead of " + FIELDS);
+                }
+                if (count + FIELDS > fields.length) {
+                    fields = Arrays.copyOf(fields, fields.length * 2);
+                    at = Arrays.copyOf(at, at.length * 2);
+                }
+                at[count / FIELDS] = from + lineStart;
+                int fieldStart = lineStart;
+                for (int f = 0; f < FIELDS; f++) {
+                    int fieldEnd = f < comma.length ? comma[f] : lineEnd;
+                    fields[count++] = new String(bytes, fieldStart, fieldEnd - fieldStart, GraphFile.UTF8);
+                    fieldStart = fieldEnd + 1;
+                }
+            }
+            return new Chunk(fields, at, count, lines);
+        }
+
+        private int read(ByteBuffer buffer, long position) throws IOException {
+            int total = 0;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + total);
+                if (read <= 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+    }
+}
@@ -1,9 +1,32 @@
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class allows for the creation and alteration of an Ad-Hoc Network graph. The graph is made up of {@link Vertex} and
- * {@link Edge} objects, both containing data about themselves. The graph takes the form of an adjacency matrix structure which
- * allows for the graph to be navigated quickly as well as for vertices to be connected easily.
+ * {@link Edge} objects, both containing data about themselves. Connections are kept in an {@link AdjacencyStore}, either a dense
+ * {@link AdjacencyMatrix} for small, heavily connected graphs or a sparse {@link AdjacencyList} (the default) whose memory grows
+ * with the number of vertices and edges, which allows for the graph to be navigated quickly as well as for vertices to be
+ * connected easily.
+ *
+ * Every Vertex and every Edge is known by its type and name, which no other object of the graph shares. Names are
+ * kept in a hash index from the moment the graph is created, so a Vertex or Edge whose type and name are taken is
+ * refused by every insertion and rename, and every object can be found again by name.
+ *
+ * Searches keep their state in a {@link Traversal} belonging to the calling thread rather than on the vertices and edges,
+ * so any number of threads may query a Graph at once. Queries hold the read lock of the graph and changes hold its write
+ * lock, so a query sees the topology either before or after each change, or each {@link TopologyBatch} of changes. The
+ * per-element accessors such as <code>degree</code>, <code>neighbour</code> and <code>vertexAt</code> take no lock, so
+ * walks built from them should not run while the graph is being altered.
+ *
+ * Threads that must never wait for a change to finish can query an immutable {@link TopologySnapshot} instead. With
+ * snapshot publishing turned on, every change publishes a new snapshot, and {@link #snapshot()} returns the latest one
+ * without taking any lock.
+ *
+ * Calls to the main operations can be counted and timed by a {@link GraphMetrics} turned on with
+ * {@link #enableMetrics()}. While metrics are off an operation only reads one field more.
  *
  * @author Francis Poole
  * @version 1.0, 18/4/13
@@ -11,374 +34,1536 @@ import java.util.ArrayList;
 public class Graph {
     private ArrayList<Vertex> vertexList;
     private ArrayList<Edge> edgeList;
-    private AdjacencyMatrix matrix;
+    private AdjacencyStore matrix;
+    private boolean dense;
+    private IdentityHashMap<Vertex, Integer> localIndex;
+    private IdentityHashMap<Edge, Integer> localEdgeIndex;
+    private volatile long version;
+    private volatile RouteCache routeCache;
+    private final NameIndex<Vertex> vertexNames = new NameIndex<Vertex>();
+    private final NameIndex<Edge> edgeNames = new NameIndex<Edge>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile TopologySnapshot snapshot;
+    private volatile boolean publishing;
+    private volatile ConnectivityTracker connectivity;
+    private volatile GraphMetrics metrics;
+    private volatile TopologyAnalysis analysis;
+    private volatile SpatialGrid spatialGrid;
+    private final CopyOnWriteArrayList<TopologyListener> listeners = new CopyOnWriteArrayList<TopologyListener>();
+
+    private static final int ROUTE_CACHE_CAPACITY = 1024;
+    private static final int PARALLEL_SEARCH_SIZE = 100000;
+
+    static final ThreadLocal<WeightedSearch> WEIGHTED_SEARCH = new ThreadLocal<WeightedSearch>() {
+        protected WeightedSearch initialValue() {
+            return new WeightedSearch();
+        }
+    };
+
+    static final ThreadLocal<Traversal> TRAVERSAL = new ThreadLocal<Traversal>() {
+        protected Traversal initialValue() {
+            return new Traversal();
+        }
+    };
 
     /**
      * Creates an empty Graph.
      */
     public Graph() {
+        this(new ArrayList<Vertex>(), new ArrayList<Edge>());
     }
 
     /**
-     * Creates a Graph based on lists of {@link Vertex} and {@link Edge} objects.
+     * Creates a Graph based on lists of {@link Vertex} and {@link Edge} objects, using a sparse {@link AdjacencyList}.
      *
      * @param vertexList	ArrayList of Vertex objects to add to the graph
      * @param edgeList		ArrayList of Edge objects to add to the graph
      */
     public Graph(ArrayList<Vertex> vertexList, ArrayList<Edge> edgeList) {
+        this(vertexList, edgeList, false);
+    }
+
+    /**
+     * Creates a Graph based on lists of {@link Vertex} and {@link Edge} objects.
+     *
+     * @param vertexList	ArrayList of Vertex objects to add to the graph
+     * @param edgeList		ArrayList of Edge objects to add to the graph
+     * @param dense		    boolean stating whether to use a dense {@link AdjacencyMatrix} rather than an {@link AdjacencyList}
+     */
+    public Graph(ArrayList<Vertex> vertexList, ArrayList<Edge> edgeList, boolean dense) {
+        this(vertexList, edgeList, dense, false);
+    }
+
+    /**
+     * Creates a Graph based on lists of {@link Vertex} and {@link Edge} objects. When <code>shared</code> is set the
+     * objects already belong to another Graph, such as the one a path or spanning tree was taken from, so their
+     * indices are left alone and this Graph keeps its own indices in a lookup table instead.
+     *
+     * @param vertexList	ArrayList of Vertex objects to add to the graph
+     * @param edgeList		ArrayList of Edge objects to add to the graph
+     * @param dense		    boolean stating whether to use a dense {@link AdjacencyMatrix}
+     * @param shared		boolean stating whether the objects belong to another Graph
+     * @throws IllegalArgumentException	if two vertices or two edges share a type and name
+     */
+    private Graph(ArrayList<Vertex> vertexList, ArrayList<Edge> edgeList, boolean dense, boolean shared) {
         this.vertexList = vertexList;
         this.edgeList = edgeList;
+        this.dense = dense;
+        if (shared) {
+            this.localIndex = new IdentityHashMap<Vertex, Integer>();
+            this.localEdgeIndex = new IdentityHashMap<Edge, Integer>();
+        }
 
         for (int i = 0; i < vertexList.size(); i++) {
-            vertexList.get(i).setIndex(i);
+            Vertex v = vertexList.get(i);
+            if (!vertexNames.put(v.getType(), v.getName(), v)) {
+                throw new IllegalArgumentException(v + " appears more than once in the vertex list");
+            }
+            setIndexOf(v, i);
+        }
+        for (int i = 0; i < edgeList.size(); i++) {
+            Edge e = edgeList.get(i);
+            if (!edgeNames.put(e.getType(), e.getName(), e)) {
+                throw new IllegalArgumentException(e.getType() + "-" + e.getName()
+                        + " appears more than once in the edge list");
+            }
+            setIndexOf(e, i);
         }
 
         initMatrix();
     }
 
     /**
-     * Initializes the {@link AdjacencyMatrix} that shows which {@link Vertex} connects to which {@link Edge}
+     * Gets the index of a {@link Vertex} within this graph and returns it.
+     *
+     * @param v		Vertex to look up
+     * @return		index of the Vertex
+     */
+    int indexOf(Vertex v) {
+        if (localIndex == null) {
+            return v.getIndex();
+        }
+        return localIndex.get(v);
+    }
+
+    /**
+     * Sets the index of a {@link Vertex} within this graph.
+     *
+     * @param v		Vertex to index
+     * @param index	index of the Vertex
+     */
+    private void setIndexOf(Vertex v, int index) {
+        if (localIndex == null) {
+            v.setIndex(index);
+        } else {
+            localIndex.put(v, index);
+        }
+    }
+
+    /**
+     * Gets the slot of an {@link Edge} in the edge list of this graph and returns it.
+     *
+     * @param e		Edge to look up
+     * @return		slot of the Edge, or -1 if it is not in this graph
+     */
+    private int indexOf(Edge e) {
+        if (localEdgeIndex == null) {
+            int index = e.getIndex();
+            return index < edgeList.size() && edgeList.get(index) == e ? index : -1;
+        }
+        Integer index = localEdgeIndex.get(e);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Sets the slot of an {@link Edge} in the edge list of this graph.
+     *
+     * @param e		Edge to index
+     * @param index	slot of the Edge
+     */
+    private void setIndexOf(Edge e, int index) {
+        if (localEdgeIndex == null) {
+            e.setIndex(index);
+        } else {
+            localEdgeIndex.put(e, index);
+        }
+    }
+
+    /**
+     * Removes an {@link Edge} from the edge list by moving the last Edge into its slot.
+     *
+     * @param index	slot of the Edge to remove
+     */
+    private void removeEdgeSlot(int index) {
+        Edge removed = edgeList.get(index);
+        int last = edgeList.size() - 1;
+        Edge moved = edgeList.remove(last);
+        if (index != last) {
+            edgeList.set(index, moved);
+            setIndexOf(moved, index);
+        }
+        if (localEdgeIndex != null) {
+            localEdgeIndex.remove(removed);
+        }
+        edgeNames.remove(removed.getType(), removed.getName(), removed);
+    }
+
+    /**
+     * Initializes the {@link AdjacencyStore} that shows which {@link Vertex} connects to which {@link Edge}
      */
     private void initMatrix() {
-        this.matrix = new AdjacencyMatrix(vertexList.size());
+        if (dense) {
+            this.matrix = new AdjacencyMatrix(vertexList.size());
+        } else {
+            this.matrix = new AdjacencyList(vertexList.size());
+        }
         for (Edge edge : edgeList) {
-            matrix.addEdge(edge.getV().getIndex(), edge.getW().getIndex(), edge);
+            matrix.addEdge(indexOf(edge.getV()), indexOf(edge.getW()), edge);
         }
     }
 
     /**
-     * Creates and inserts an {@link Edge} into the graph with specified {@link Vertex} endpoints as well as a specified type and name.
+     * Creates an {@link Edge} of a specified type and name between two {@link Vertex} endpoints, without inserting it.
      *
      * @param v		Vertex v
      * @param w		Vertex w
      * @param type	String naming the type of Edge to create
      * @param name	String of numbers naming the Edge
+     * @return		the Edge created, or <code>null</code> if the type is not recognised
      */
-    public void insertEdge(Vertex v, Vertex w, String type, String name) {
-        Edge edge;
-
+    static Edge createEdge(Vertex v, Vertex w, String type, String name) {
         if (type.equals("Channel")) {
-            edge = new Channel(v, w, name);
-        } else {
-            System.out
-                    .println("Error: Edge type '" + type + "' not recognised");
-            return;
+            return new Channel(v, w, name);
         }
-        edgeList.add(edge);
-        matrix.addEdge(v.getIndex(), w.getIndex(), edge);
+        if (Trace.isEnabled(Trace.WARN)) {
+            Trace.emit(Trace.WARN, "graph.type", "Edge type '" + type + "' not recognised");
+        }
+        return null;
+    }
+
+    /**
+     * Creates a {@link Vertex} of a specified type and name, without inserting it.
+     *
+     * @param type	String naming the type of Vertex to create
+     * @param name	String of numbers naming the Vertex
+     * @return		the Vertex created, or <code>null</code> if the type is not recognised
+     */
+    static Vertex createVertex(String type, String name) {
+        if (type.equals("PC")) {
+            return new PC(name);
+        } else if (type.equals("Mobile")) {
+            return new Mobile(name);
+        }
+        if (Trace.isEnabled(Trace.WARN)) {
+            Trace.emit(Trace.WARN, "graph.type", "Vertex type '" + type + "' not recognised");
+        }
+        return null;
     }
 
     /**
-     * Removes an {@link Edge} from the graph
+     * Creates and inserts an {@link Edge} into the graph with specified {@link Vertex} endpoints as well as a specified type and name.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @param type	String naming the type of Edge to create
+     * @param name	String of numbers naming the Edge
+     * @return		the Edge created, or <code>null</code> if it could not be inserted
+     */
+    public Edge insertEdge(Vertex v, Vertex w, String type, String name) {
+        long begin = begin();
+        Edge edge = createEdge(v, w, type, name);
+        if (edge == null) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!attach(edge)) {
+                return null;
+            }
+            changed();
+            return edge;
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.INSERT_EDGE, begin, 0, 1);
+        }
+    }
+
+    /**
+     * Removes an {@link Edge} from the graph. The last Edge in the edge list is moved into the slot left behind, so
+     * removal takes constant time apart from unlinking the Edge from the neighbour lists of its endpoints.
      *
      * @param e		Edge to remove from graph
+     * @return		boolean stating whether the Edge was in the graph
      */
-    public void removeEdge(Edge e) {
-        edgeList.remove(e);
-        matrix.removeEdge(e.getV().getIndex(), e.getW().getIndex());
+    public boolean removeEdge(Edge e) {
+        long begin = begin();
+        lock.writeLock().lock();
+        try {
+            if (!detach(e)) {
+                return false;
+            }
+            changed();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.REMOVE_EDGE, begin, 0, 1);
+        }
     }
 
     /**
-     * Creates and inserts an {@link Vertex} into the graph with a specified type and name. The {@link AdjacencyMatrix} is then re-initialized
-     * so incorporate the new Vertex.
+     * Creates and inserts an {@link Vertex} into the graph with a specified type and name. The Vertex takes the next free
+     * index of the {@link AdjacencyStore}, which grows its capacity geometrically, so insertion is amortized constant time.
      *
      * @param type	String naming the type of Vertex to create
      * @param name	String of numbers naming the Vertex
+     * @return		the Vertex created, or <code>null</code> if the type is not recognised or the name is taken
      */
-    public void insertVertex(String type, String name) {
-        Vertex vertex;
+    public Vertex insertVertex(String type, String name) {
+        long begin = begin();
+        Vertex vertex = createVertex(type, name);
+        if (vertex == null) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!attach(vertex)) {
+                return null;
+            }
+            changed();
+            return vertex;
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.INSERT_VERTEX, begin, 1, 0);
+        }
+    }
 
-        if (type.equals("PC")) {
-            vertex = new PC(vertexList.size(), name);
-        } else if (type.equals("Mobile")) {
-            vertex = new Mobile(vertexList.size(), name);
-        } else {
-            System.out.println("Error: Vertex type '" + type
-                    + "' not recognised");
-            return;
+    /**
+     * Removes a {@link Vertex} and its incident {@link Edge} objects from the graph. The last Vertex is moved into the
+     * index left behind, so only the neighbours of the two vertices involved are touched in the {@link AdjacencyStore},
+     * and each incident Edge leaves the edge list in constant time.
+     *
+     * @param v		Vertex to be removed
+     * @return		boolean stating whether the Vertex was in the graph
+     */
+    public boolean removeVertex(Vertex v) {
+        long begin = begin();
+        int degree = 0;
+        lock.writeLock().lock();
+        try {
+            if (begin != 0 && contains(v)) {
+                degree = matrix.degree(indexOf(v));
+            }
+            if (!detach(v)) {
+                return false;
+            }
+            changed();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.REMOVE_VERTEX, begin, 1, degree);
+        }
+    }
+
+    /**
+     * Applies every insertion and removal in a {@link TopologyBatch}, in the order they were added. The whole batch
+     * is applied under the write lock of the graph, so no query sees part of it, and the version goes up once, so
+     * cached routes are dropped once. Room for the inserted vertices is made in the {@link AdjacencyStore} before
+     * any are added, so the store grows at most once. An operation that fails, such as removing an object that is
+     * not in the graph, is reported and skipped without undoing the rest of the batch.
+     *
+     * @param batch	TopologyBatch to apply
+     * @return		the number of operations applied
+     */
+    public int apply(TopologyBatch batch) {
+        long begin = begin();
+        int applied = 0;
+        int vertices = 0;
+
+        lock.writeLock().lock();
+        try {
+            matrix.ensureCapacity(vertexList.size() + batch.getVertexInsertions());
+            for (TopologyBatch.Operation operation : batch.getOperations()) {
+                boolean done;
+                switch (operation.kind) {
+                    case TopologyBatch.INSERT_VERTEX:
+                        done = attach(operation.vertex);
+                        break;
+                    case TopologyBatch.REMOVE_VERTEX:
+                        done = detach(operation.vertex);
+                        break;
+                    case TopologyBatch.INSERT_EDGE:
+                        done = attach(operation.edge);
+                        break;
+                    default:
+                        done = detach(operation.edge);
+                        break;
+                }
+                if (done) {
+                    applied++;
+                    if (operation.vertex != null) {
+                        vertices++;
+                    }
+                }
+            }
+            if (applied > 0) {
+                changed();
+            }
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.APPLY, begin, vertices, applied - vertices);
+        }
+        return applied;
+    }
+
+    /**
+     * Records that the topology has changed, publishing a new {@link TopologySnapshot} when publishing is on. The
+     * caller holds the write lock.
+     */
+    private void changed() {
+        version++;
+        if (publishing) {
+            snapshot = new TopologySnapshot(version, vertexList, edgeList, matrix);
+        }
+    }
+
+    /**
+     * Checks if a {@link Vertex} belongs to this graph.
+     *
+     * @param v		Vertex to check
+     * @return		boolean stating whether the Vertex is in the graph
+     */
+    public boolean contains(Vertex v) {
+        if (localIndex == null) {
+            int index = v.getIndex();
+            return index >= 0 && index < vertexList.size() && vertexList.get(index) == v;
         }
+        return localIndex.containsKey(v);
+    }
 
+    /**
+     * Adds a new {@link Edge} to the edge list and the {@link AdjacencyStore}. An Edge between two vertices that are
+     * already adjacent is refused. The caller holds the write lock.
+     *
+     * @param edge	Edge to add
+     * @return		boolean stating whether the Edge was added
+     */
+    private boolean attach(Edge edge) {
+        if (!contains(edge.getV()) || !contains(edge.getW())) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.missing", edge + " joins a vertex that is not in the graph");
+            }
+            return false;
+        }
+        if (!edgeNames.put(edge.getType(), edge.getName(), edge)) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.duplicate", edge.getType() + "-" + edge.getName() + " already exists");
+            }
+            return false;
+        }
+        if (!matrix.addEdge(indexOf(edge.getV()), indexOf(edge.getW()), edge)) {
+            edgeNames.remove(edge.getType(), edge.getName(), edge);
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.parallel", edge + " joins vertices that are already adjacent");
+            }
+            return false;
+        }
+        edgeList.add(edge);
+        setIndexOf(edge, edgeList.size() - 1);
+        for (TopologyListener listener : listeners) {
+            listener.edgeInserted(this, edge);
+        }
+        return true;
+    }
+
+    /**
+     * Takes an {@link Edge} out of the edge list and the {@link AdjacencyStore}. The caller holds the write lock.
+     *
+     * @param e		Edge to remove
+     * @return		boolean stating whether the Edge was in the graph
+     */
+    private boolean detach(Edge e) {
+        int index = indexOf(e);
+        if (index < 0) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.missing", e + " is not in the graph");
+            }
+            return false;
+        }
+        removeEdgeSlot(index);
+        matrix.removeEdge(indexOf(e.getV()), indexOf(e.getW()));
+        for (TopologyListener listener : listeners) {
+            listener.edgeRemoved(this, e);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a new {@link Vertex} at the next free index of the {@link AdjacencyStore}. The caller holds the write lock.
+     *
+     * @param vertex	Vertex to add
+     * @return		    boolean stating whether the Vertex was added
+     */
+    private boolean attach(Vertex vertex) {
+        if (!vertexNames.put(vertex.getType(), vertex.getName(), vertex)) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.duplicate",
+                        vertex.getType() + "-" + vertex.getName() + " already exists");
+            }
+            return false;
+        }
         vertexList.add(vertex);
-        initMatrix();
+        setIndexOf(vertex, matrix.addVertex());
+        for (TopologyListener listener : listeners) {
+            listener.vertexInserted(this, vertex);
+        }
+        return true;
     }
 
     /**
-     * Removes a {@link Vertex} from the graph. The {@link AdjacencyMatrix} is then re-initialized to remove the removed Vertex.
+     * Takes a {@link Vertex} and its incident {@link Edge} objects out of the graph, moving the last Vertex into the
+     * index left behind. The caller holds the write lock.
      *
-     * @param v		Vertex to be removed
+     * @param v		Vertex to remove
+     * @return		boolean stating whether the Vertex was in the graph
      */
-    public void removeVertex(Vertex v) {
-        int index = v.getIndex();
-        vertexList.remove(v);
+    private boolean detach(Vertex v) {
+        if (!contains(v)) {
+            if (Trace.isEnabled(Trace.WARN)) {
+                Trace.emit(Trace.WARN, "graph.missing", v + " is not in the graph");
+            }
+            return false;
+        }
+        int index = indexOf(v);
+        Edge[] incident = listeners.isEmpty() ? null : new Edge[matrix.degree(index)];
 
-        for (int i = 0; i < matrix.size(); i++) {
-            edgeList.remove(matrix.getEdge(index, i));
-            vertexList.get(i).setIndex(i);
+        for (int i = 0; i < matrix.degree(index); i++) {
+            Edge e = matrix.incidentEdge(index, i);
+            removeEdgeSlot(indexOf(e));
+            if (incident != null) {
+                incident[i] = e;
+            }
         }
+        matrix.removeVertex(index);
+        vertexNames.remove(v.getType(), v.getName(), v);
 
-        initMatrix();
+        int last = vertexList.size() - 1;
+        Vertex moved = vertexList.remove(last);
+        if (index != last) {
+            vertexList.set(index, moved);
+            setIndexOf(moved, index);
+        }
+        if (localIndex != null) {
+            localIndex.remove(v);
+        }
+        if (incident != null) {
+            for (TopologyListener listener : listeners) {
+                for (Edge e : incident) {
+                    listener.edgeRemoved(this, e);
+                }
+                listener.vertexRemoved(this, v);
+            }
+        }
+        return true;
     }
 
     /**
-     * Uses {@link AdjacenecyMatrix} to check if {@link Vertex} inputs are adjacent, returns result as a boolean.
+     * Uses the {@link AdjacencyStore} to check if {@link Vertex} inputs are adjacent, returns result as a boolean.
      *
      * @param v		Vertex v
      * @param w		Vertex w
      * @return		boolean regarding whether the Vertices are adjacent or not
      */
     public boolean areAdjacent(Vertex v, Vertex w) {
-        return matrix.getEdge(v.getIndex(), w.getIndex()) != null;
+        long begin = begin();
+        lock.readLock().lock();
+        try {
+            return matrix.getEdge(indexOf(v), indexOf(w)) != null;
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.ARE_ADJACENT, begin, 2, 0);
+        }
     }
 
     /**
-     * Gets a list of all incident {@link Edge} objects to a {@link vertex} and returns them.
+     * Gets a list of all incident {@link Edge} objects to a {@link Vertex} and returns them. A new list is built on
+     * every call; hot loops should walk the neighbours with {@link #degree(Vertex)} and
+     * {@link #incidentEdge(Vertex, int)} instead.
      *
      * @param v		Vertex to check
      * @return		ArrayList of Edge objects
      */
     public ArrayList<Edge> incidentEdges(Vertex v) {
-        ArrayList<Edge> incidentEdges = new ArrayList<Edge>();
+        long begin = begin();
+        int degree = 0;
+        lock.readLock().lock();
+        try {
+            int vIndex = indexOf(v);
+            degree = matrix.degree(vIndex);
+            ArrayList<Edge> incidentEdges = new ArrayList<Edge>(degree);
 
-        for (int wIndex = 0; wIndex < vertexList.size(); wIndex++) {
-            if (matrix.getEdge(v.getIndex(), wIndex) != null) {
-                incidentEdges.add(matrix.getEdge(v.getIndex(), wIndex));
+            for (int i = 0; i < degree; i++) {
+                incidentEdges.add(matrix.incidentEdge(vIndex, i));
             }
+
+            return incidentEdges;
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.INCIDENT_EDGES, begin, 1, degree);
         }
+    }
+
+    /**
+     * Gets the number of {@link Edge} objects incident to a {@link Vertex} and returns it. The neighbours of v can be
+     * walked without allocating by calling {@link #neighbour(Vertex, int)} and {@link #incidentEdge(Vertex, int)}
+     * for every position from 0 to the degree.
+     *
+     * @param v		Vertex to check
+     * @return		the degree of the Vertex
+     */
+    public int degree(Vertex v) {
+        return matrix.degree(indexOf(v));
+    }
 
-        return incidentEdges;
+    /**
+     * Gets the <code>i</code>th neighbour of a {@link Vertex} and returns it.
+     *
+     * @param v		Vertex to check
+     * @param i		position of the neighbour, from 0 to <code>degree(v) - 1</code>
+     * @return		the neighbouring Vertex
+     */
+    public Vertex neighbour(Vertex v, int i) {
+        return vertexList.get(matrix.neighbour(indexOf(v), i));
+    }
+
+    /**
+     * Gets the {@link Edge} joining a {@link Vertex} to its <code>i</code>th neighbour and returns it.
+     *
+     * @param v		Vertex to check
+     * @param i		position of the neighbour, from 0 to <code>degree(v) - 1</code>
+     * @return		the incident Edge
+     */
+    public Edge incidentEdge(Vertex v, int i) {
+        return matrix.incidentEdge(indexOf(v), i);
     }
 
     /**
-     * Renames a {@link Vertex}.
+     * Renames a {@link Vertex}, keeping the name index up to date. Vertices in the graph should always be renamed
+     * here rather than through {@link Vertex#setName(String)}. Renaming a Vertex to the name it already has changes
+     * nothing and tells no listener.
      *
      * @param v		Vertex to rename
      * @param name	String to use as name
+     * @return		boolean stating whether the Vertex has the name, which it does not if the name is taken or the
+     *              Vertex is not in the graph
      */
-    public void rename(Vertex v, String name) {
-        v.setName(name);
+    public boolean rename(Vertex v, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!contains(v)) {
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "graph.missing", v + " is not in the graph");
+                }
+                return false;
+            }
+            if (name.equals(v.getName())) {
+                return true;
+            }
+            if (!vertexNames.put(v.getType(), name, v)) {
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "graph.duplicate", v.getType() + "-" + name + " already exists");
+                }
+                return false;
+            }
+            vertexNames.remove(v.getType(), v.getName(), v);
+            String oldName = v.getName();
+            v.setName(name);
+            for (TopologyListener listener : listeners) {
+                listener.vertexRenamed(this, v, oldName);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Renames an {@link Edge}.
+     * Renames an {@link Edge}, keeping the name index up to date. Edges in the graph should always be renamed here
+     * rather than through {@link Edge#setName(String)}. Renaming an Edge to the name it already has changes nothing
+     * and tells no listener.
      *
      * @param e		Edge to rename
      * @param name	String to use as name
+     * @return		boolean stating whether the Edge has the name, which it does not if the name is taken or the
+     *              Edge is not in the graph
      */
-    public void rename(Edge e, String name) {
-        e.setName(name);
+    public boolean rename(Edge e, String name) {
+        lock.writeLock().lock();
+        try {
+            if (indexOf(e) < 0) {
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "graph.missing", e + " is not in the graph");
+                }
+                return false;
+            }
+            if (name.equals(e.getName())) {
+                return true;
+            }
+            if (!edgeNames.put(e.getType(), name, e)) {
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "graph.duplicate", e.getType() + "-" + name + " already exists");
+                }
+                return false;
+            }
+            edgeNames.remove(e.getType(), e.getName(), e);
+            String oldName = e.getName();
+            e.setName(name);
+            for (TopologyListener listener : listeners) {
+                listener.edgeRenamed(this, e, oldName);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Uses <code>#searchAllVertices()</code> to search all vertices and print them out when they are found.
+     * Uses <code>#searchAllVertices()</code> to search all vertices and print them out when they are found. The
+     * network is printed to <code>System.out</code> whatever {@link Trace} is set to.
      */
     public void printNetwork() {
-        searchAllVertices(true);
-        searchReset();
+        lock.readLock().lock();
+        try {
+            searchAllVertices(new TraceSink() {
+                public void trace(int level, String event, String message) {
+                    System.out.println(message);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Checks if there is a cycle in the graph and returns a boolean representing the answer.
+     * Checks if there is a cycle in the graph and returns a boolean representing the answer. The answer comes from the
+     * {@link ConnectivityTracker} of the graph, which is created on the first call, so after that each call takes
+     * constant time however the graph has changed in between.
      *
      * @return	boolean representing if there is a cycle in the graph
      */
     public boolean reportCycle() {
-        searchAllVertices(false);
-        for (Edge e : edgeList) {
-            if (e.getCrossEdge()) {
-                searchReset();
-                return true;
-            }
+        long begin = begin();
+        ConnectivityTracker tracker = trackConnectivity();
+        lock.readLock().lock();
+        try {
+            return tracker.hasCycle();
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.REPORT_CYCLE, begin, 0, 0);
+        }
+    }
+
+    /**
+     * Checks if inserting an {@link Edge} between two vertices would close a cycle, which it does exactly when the
+     * vertices can already reach each other. Answered by the {@link ConnectivityTracker} of the graph in near
+     * constant time.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		boolean stating whether an Edge from v to w would create a cycle
+     */
+    public boolean wouldCreateCycle(Vertex v, Vertex w) {
+        ConnectivityTracker tracker = trackConnectivity();
+        lock.readLock().lock();
+        try {
+            return tracker.wouldCreateCycle(v, w);
+        } finally {
+            lock.readLock().unlock();
         }
-        searchReset();
-        return false;
     }
 
     /**
-     * Gets a spanning tree from the Graph starting at a {@link Vertex}.
+     * Gets a spanning tree from the Graph starting at a {@link Vertex}. Graphs of at least 100,000 vertices are
+     * searched with a {@link ParallelBreadthFirstSearch} on the common {@link ForkJoinPool}.
      *
      * @param start	Vertex to start spanning tree from
      * @return		Graph of spanning tree objects
      */
     public Graph spanningTree(Vertex start) {
-        ArrayList<Vertex> vertices = new ArrayList<Vertex>();
-        ArrayList<Edge> edges = new ArrayList<Edge>();
+        long begin = begin();
+        int visited = 0;
+        int scanned = 0;
+        lock.readLock().lock();
+        try {
+            ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+            ArrayList<Edge> edges = new ArrayList<Edge>();
+            int startIndex = indexOf(start);
+
+            if (vertexList.size() >= PARALLEL_SEARCH_SIZE) {
+                int[] parent = new ParallelBreadthFirstSearch(matrix, ForkJoinPool.commonPool()).search(startIndex);
+                for (int i = 0; i < vertexList.size(); i++) {
+                    if (parent[i] >= 0) {
+                        vertices.add(vertexList.get(i));
+                        if (i != startIndex) {
+                            edges.add(matrix.getEdge(i, parent[i]));
+                        }
+                        if (begin != 0) {
+                            scanned += matrix.degree(i);
+                        }
+                    }
+                }
+                visited = vertices.size();
+                return new Graph(vertices, edges, dense, true);
+            }
 
-        searchBreadthFirst(start, null, false);
-        for (Vertex v : vertexList) {
-            if (v.getVisited()) {
-                vertices.add(v);
-                v.setVisited(false);
+            Traversal traversal = startSearch();
+            traversal.breadthFirst(matrix, startIndex, -1, vertexList, Trace.sink(Trace.TRACE));
+            for (int i = 0; i < vertexList.size(); i++) {
+                if (traversal.isVisited(i)) {
+                    vertices.add(vertexList.get(i));
+                    if (traversal.getParentEdge(i) != null) {
+                        edges.add(traversal.getParentEdge(i));
+                    }
+                }
             }
+            visited = traversal.getVisitedCount();
+            scanned = traversal.getEdgesScanned();
+            return new Graph(vertices, edges, dense, true);
+
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.SPANNING_TREE, begin, visited, scanned);
         }
-        for (Edge e : edgeList) {
-            if (e.getVisited()) {
-                edges.add(e);
-                e.setVisited(false);
-            } else {
-                e.setCrossEdge(false);
+    }
+
+    /**
+     * Gets a minimum spanning forest of the graph, costing each {@link Edge} by a {@link LinkMetric}, using
+     * Kruskal's algorithm. Unlike {@link #spanningTree(Vertex)} it covers every component and no Graph is built.
+     *
+     * @param metric	LinkMetric to cost edges by
+     * @return		    slots of the Edge objects in the forest, which {@link #edgeAt(int)} turns back into Edge objects
+     *                  until the graph next changes
+     */
+    public int[] minimumSpanningForest(LinkMetric metric) {
+        lock.readLock().lock();
+        try {
+            return spanningForest(metric, ForkJoinPool.commonPool()).kruskal();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a minimum spanning forest of the graph, costing each {@link Edge} by a {@link LinkMetric}, using
+     * Boruvka's algorithm with the cheapest edges of each round chosen in parallel on <code>pool</code>. The forest
+     * holds the same edges as the one found by {@link #minimumSpanningForest(LinkMetric)}.
+     *
+     * @param metric	LinkMetric to cost edges by
+     * @param pool		ForkJoinPool to run the rounds in
+     * @return		    slots of the Edge objects in the forest, which {@link #edgeAt(int)} turns back into Edge objects
+     *                  until the graph next changes
+     */
+    public int[] minimumSpanningForest(LinkMetric metric, ForkJoinPool pool) {
+        lock.readLock().lock();
+        try {
+            return spanningForest(metric, pool).boruvka();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the endpoints and costs of the edges into a {@link MinimumSpanningForest}. The caller holds the read
+     * lock.
+     *
+     * @param metric	LinkMetric to cost edges by
+     * @param pool		ForkJoinPool to run parallel work in
+     * @return		    MinimumSpanningForest over the edge slots of the graph
+     */
+    private MinimumSpanningForest spanningForest(LinkMetric metric, ForkJoinPool pool) {
+        int m = edgeList.size();
+        int[] edgeV = new int[m];
+        int[] edgeW = new int[m];
+        double[] cost = new double[m];
+        for (int e = 0; e < m; e++) {
+            Edge edge = edgeList.get(e);
+            edgeV[e] = indexOf(edge.getV());
+            edgeW[e] = indexOf(edge.getW());
+            cost[e] = edge.getCost(metric);
+        }
+        return new MinimumSpanningForest(vertexList.size(), edgeV, edgeW, cost, pool);
+    }
+
+    /**
+     * Finds the connected components, bridges, articulation points and biconnected components of the graph. The
+     * {@link TopologyAnalysis} is kept and returned again until the graph next changes, so asking after each failure
+     * report costs one search per change rather than one per question.
+     *
+     * @return	TopologyAnalysis of the current topology, addressed by vertex index and edge slot
+     */
+    public TopologyAnalysis analyse() {
+        lock.readLock().lock();
+        try {
+            TopologyAnalysis current = analysis;
+            if (current != null && current.getVersion() == version) {
+                return current;
             }
+            int n = vertexList.size();
+            int[] offset = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offset[v + 1] = offset[v] + matrix.degree(v);
+            }
+            int[] target = new int[offset[n]];
+            int[] slot = new int[offset[n]];
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < matrix.degree(v); i++) {
+                    target[offset[v] + i] = matrix.neighbour(v, i);
+                    slot[offset[v] + i] = indexOf(matrix.incidentEdge(v, i));
+                }
+            }
+            current = new TopologyAnalysis(version, n, edgeList.size(), offset, target, slot);
+            analysis = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
         }
-        return new Graph(vertices, edges);
+    }
 
+    /**
+     * Labels every {@link Vertex} with the connected component it belongs to, sweeping the graph with a
+     * {@link ParallelBreadthFirstSearch} on the common {@link ForkJoinPool}.
+     *
+     * @return	array holding a component number from 0 upwards for each vertex index
+     */
+    public int[] connectedComponents() {
+        lock.readLock().lock();
+        try {
+            return new ParallelBreadthFirstSearch(matrix, ForkJoinPool.commonPool()).components().clone();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Gets the shortest path between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex.
+     * Gets the shortest path between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex. Paths are
+     * remembered in the {@link RouteCache} until the graph next changes, so asking for the same pair again only
+     * copies the cached path.
      *
      * @param start     Vertex to start path at
      * @param finish	Vertex to finish path at
      * @return		    Graph containing path objects
      */
     public Graph path(Vertex start, Vertex finish) {
+        long begin = begin();
+        int visited = 0;
+        int scanned = 0;
+        lock.readLock().lock();
+        try {
+            int startIndex = indexOf(start);
+            int finishIndex = indexOf(finish);
+            long searched = version;
+            RouteCache cache = getRouteCache();
+            RouteCache.Route cached = cache.get(startIndex, finishIndex, searched);
+            Graph path;
+
+            if (cached != null) {
+                path = cached.graph;
+            } else {
+                path = searchPath(startIndex, finishIndex);
+                cache.put(startIndex, finishIndex, searched, path);
+                Traversal traversal = TRAVERSAL.get();
+                visited = traversal.getVisitedCount();
+                scanned = traversal.getEdgesScanned();
+            }
+            if (path == null) {
+                return null;
+            }
+
+            if (Trace.isEnabled(Trace.TRACE)) {
+                Trace.emit(Trace.TRACE, "graph.path", path.vertexList + " " + path.edgeList);
+            }
+            return new Graph(new ArrayList<Vertex>(path.vertexList), new ArrayList<Edge>(path.edgeList), dense, true);
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.PATH, begin, visited, scanned);
+        }
+    }
+
+    /**
+     * Searches for the shortest path between two vertex indices with a bidirectional breadth first search.
+     *
+     * @param startIndex	index of the Vertex to start path at
+     * @param finishIndex	index of the Vertex to finish path at
+     * @return		        Graph containing path objects, or <code>null</code> if there is no path
+     */
+    private Graph searchPath(int startIndex, int finishIndex) {
         ArrayList<Vertex> vertices = new ArrayList<Vertex>();
         ArrayList<Edge> edges = new ArrayList<Edge>();
-        searchBreadthFirst(finish, start, false);
+        Traversal traversal = startSearch();
 
-        if (!start.getVisited()) {
+        if (!traversal.bidirectional(matrix, startIndex, finishIndex)) {
             return null;
         }
 
-        for (Vertex child = start; child != finish; child = child.getParent()) {
-            vertices.add(child);
-            edges.add(matrix.getEdge(child.getIndex(), child.getParent().getIndex()));
+        for (int child = startIndex; child != finishIndex; child = traversal.getParent(child)) {
+            vertices.add(vertexList.get(child));
+            edges.add(traversal.getParentEdge(child));
+        }
+        vertices.add(vertexList.get(finishIndex));
+
+        return new Graph(vertices, edges, dense, true);
+    }
+
+    /**
+     * Gets the cheapest route between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex, costing
+     * each {@link Edge} by a {@link LinkMetric}, using Dijkstra's algorithm.
+     *
+     * @param start     Vertex to start route at
+     * @param finish	Vertex to finish route at
+     * @param metric	LinkMetric to cost edges by
+     * @return		    array of the indices of the vertices on the route, which {@link #vertexAt(int)} turns back into
+     *                  Vertex objects, or <code>null</code> if there is no route
+     */
+    public int[] route(Vertex start, Vertex finish, LinkMetric metric) {
+        return route(start, finish, metric, 0);
+    }
+
+    /**
+     * Gets the cheapest route between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex, costing
+     * each {@link Edge} by a {@link LinkMetric}. When the vertices have positions and <code>costPerDistance</code> is
+     * greater than 0 an A* search guided by the straight line distance to <code>finish</code> is used. No Edge may
+     * cost less than its length times <code>costPerDistance</code>, or the route found may not be the cheapest.
+     *
+     * @param start             Vertex to start route at
+     * @param finish	        Vertex to finish route at
+     * @param metric	        LinkMetric to cost edges by
+     * @param costPerDistance	lower bound on the cost of an Edge per unit of its length, or 0 for Dijkstra
+     * @return		            array of the indices of the vertices on the route, or <code>null</code> if there is no route
+     */
+    public int[] route(Vertex start, Vertex finish, LinkMetric metric, double costPerDistance) {
+        long begin = begin();
+        lock.readLock().lock();
+        try {
+            return WEIGHTED_SEARCH.get().route(matrix, vertexList, indexOf(start), indexOf(finish), metric, costPerDistance);
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.ROUTE, begin, 0, 0);
+        }
+    }
+
+    /**
+     * Gets the {@link Edge} in a slot of the edge list and returns it. Slots run from 0 to one less than the number
+     * of edges; removing an Edge moves the last Edge into its slot.
+     *
+     * @param index	slot of the Edge
+     * @return		the Edge in that slot
+     */
+    public Edge edgeAt(int index) {
+        return edgeList.get(index);
+    }
+
+    /**
+     * Gets the number of {@link Vertex} objects in the graph and returns it.
+     *
+     * @return	the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexList.size();
+    }
+
+    /**
+     * Gets the number of {@link Edge} objects in the graph and returns it.
+     *
+     * @return	the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeList.size();
+    }
+
+    /**
+     * Computes next hop forwarding tables from every {@link Vertex} to every other, running the searches in
+     * parallel on the common {@link ForkJoinPool}. The graph must not change while the tables are computed.
+     *
+     * @return	RoutingTable covering every Vertex, addressed by vertex index
+     */
+    public RoutingTable routingTable() {
+        return routingTable(vertexList, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes next hop forwarding tables from each of <code>sources</code> to every {@link Vertex}, running the
+     * searches in parallel on <code>pool</code>. The graph must not change while the tables are computed.
+     *
+     * @param sources	ArrayList of the Vertex objects to compute tables for
+     * @param pool		ForkJoinPool to run the searches in
+     * @return		    RoutingTable for the sources, addressed by vertex index
+     */
+    public RoutingTable routingTable(ArrayList<Vertex> sources, ForkJoinPool pool) {
+        lock.readLock().lock();
+        try {
+            int[] indices = new int[sources.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = indexOf(sources.get(i));
+            }
+            return new RoutingTable(matrix, indices, pool);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the {@link Vertex} at an index of the graph and returns it.
+     *
+     * @param index	index of the Vertex
+     * @return		the Vertex at that index
+     */
+    public Vertex vertexAt(int index) {
+        return vertexList.get(index);
+    }
+
+    /**
+     * Gets the version of the graph and returns it. The version goes up every time a {@link Vertex} or {@link Edge}
+     * is inserted or removed, so two equal versions mean the topology has not changed in between.
+     *
+     * @return	the version of the graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets an immutable {@link TopologySnapshot} of the graph and returns it. With publishing turned on this returns
+     * the last snapshot published by a change, without locking. Otherwise a snapshot is taken under the read lock
+     * the first time one is asked for after a change, and kept until the next change.
+     *
+     * @return	the latest TopologySnapshot of the graph
+     */
+    public TopologySnapshot snapshot() {
+        TopologySnapshot current = snapshot;
+        if (current != null && (publishing || current.getVersion() == version)) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            current = snapshot;
+            if (current == null || current.getVersion() != version) {
+                current = new TopologySnapshot(version, vertexList, edgeList, matrix);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Turns snapshot publishing on or off. While it is on, every change and every {@link TopologyBatch} copies the
+     * topology into a new {@link TopologySnapshot} before releasing the write lock, so readers of
+     * {@link #snapshot()} never wait or see an old version. Each copy costs time in proportion to the size of the
+     * graph, so changes should be batched while publishing.
+     *
+     * @param publishing	boolean stating whether every change should publish a snapshot
+     */
+    public void setSnapshotPublishing(boolean publishing) {
+        lock.writeLock().lock();
+        try {
+            if (publishing) {
+                snapshot = new TopologySnapshot(version, vertexList, edgeList, matrix);
+            }
+            this.publishing = publishing;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a listener to be told of every {@link Vertex} and {@link Edge} inserted or removed from now on.
+     *
+     * @param listener	TopologyListener to add
+     */
+    public void addTopologyListener(TopologyListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addTopologyListener(TopologyListener)}.
+     *
+     * @param listener	TopologyListener to remove
+     */
+    public void removeTopologyListener(TopologyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the {@link ConnectivityTracker} of the graph and returns it. The first call fills a tracker from the
+     * current topology under the write lock, so no change can slip in, and registers it as a listener so that it
+     * follows every later change; later calls return the same tracker.
+     *
+     * @return	the ConnectivityTracker of the graph
+     */
+    public ConnectivityTracker trackConnectivity() {
+        ConnectivityTracker tracker = connectivity;
+        if (tracker != null) {
+            return tracker;
+        }
+        lock.writeLock().lock();
+        try {
+            tracker = connectivity;
+            if (tracker == null) {
+                tracker = new ConnectivityTracker(this);
+                listeners.add(tracker);
+                connectivity = tracker;
+            }
+            return tracker;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts keeping the graph linked by radio range. A {@link SpatialGrid} is filled with every {@link Vertex} that
+     * has a position and registered as a listener, so vertices inserted with a position later are added to it, and
+     * the links of every positioned Vertex are refreshed at once as by {@link #refreshLinks()}. A grid kept for an
+     * earlier range is replaced. All of this is done under the write lock, so no change can slip in. From then on
+     * positions should be changed with {@link #move(Vertex, double, double)}, which the grid follows, rather than
+     * {@link Vertex#setPosition(double, double)}, which it does not.
+     *
+     * @param range	greatest distance at which two vertices are linked
+     * @return		the SpatialGrid of the graph
+     */
+    public SpatialGrid linkWithinRange(double range) {
+        SpatialGrid grid = new SpatialGrid(range);
+        lock.writeLock().lock();
+        try {
+            if (spatialGrid != null) {
+                listeners.remove(spatialGrid);
+            }
+            for (Vertex v : vertexList) {
+                grid.place(v);
+            }
+            listeners.add(grid);
+            spatialGrid = grid;
+            refreshLinks();
+            return grid;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the {@link SpatialGrid} started by {@link #linkWithinRange(double)} and returns it.
+     *
+     * @return	the SpatialGrid of the graph, or <code>null</code> if links are not kept by range
+     */
+    public SpatialGrid getSpatialGrid() {
+        return spatialGrid;
+    }
+
+    /**
+     * Moves a {@link Vertex} to new coordinates. When links are kept by range, the Vertex changes cell in the
+     * {@link SpatialGrid} and is marked as pending, and its links change at the next {@link #refreshLinks()}, so a
+     * whole tick of moves costs one refresh. Positions are not part of the topology, so the version does not change,
+     * but every {@link TopologyListener} is told of the move, so a {@link TopologyJournal} keeps positions durable.
+     *
+     * @param v		Vertex to move
+     * @param x		new x coordinate
+     * @param y		new y coordinate
+     * @return		boolean stating whether the Vertex is in the graph
+     */
+    public boolean move(Vertex v, double x, double y) {
+        lock.writeLock().lock();
+        try {
+            if (!contains(v)) {
+                if (Trace.isEnabled(Trace.WARN)) {
+                    Trace.emit(Trace.WARN, "graph.missing", v + " is not in the graph");
+                }
+                return false;
+            }
+            v.setPosition(x, y);
+            for (TopologyListener listener : listeners) {
+                listener.vertexMoved(this, v);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings the links of every {@link Vertex} moved or inserted since the last refresh into line with the range of
+     * the {@link SpatialGrid}. Each {@link Channel} from a pending Vertex to a positioned Vertex now out of range is
+     * removed, and a Channel is inserted to every Vertex now within range that it is not already adjacent to. Only
+     * the pending vertices and the cells around them are looked at, and pairs of vertices that have both stayed put
+     * are never compared. The refresh is applied under the write lock as one change, like a {@link TopologyBatch}.
+     *
+     * @return	the number of links inserted and removed, or 0 if links are not kept by range
+     */
+    public int refreshLinks() {
+        long begin = begin();
+        int changes = 0;
+        lock.writeLock().lock();
+        try {
+            SpatialGrid grid = spatialGrid;
+            if (grid == null) {
+                return 0;
+            }
+            ArrayList<Edge> lost = new ArrayList<Edge>();
+            ArrayList<Vertex> near = new ArrayList<Vertex>();
+            for (int i = 0; i < grid.pendingLength(); i++) {
+                Vertex v = grid.pendingVertex(i);
+                if (v == null) {
+                    continue;
+                }
+                int vIndex = indexOf(v);
+                lost.clear();
+                for (int k = 0; k < matrix.degree(vIndex); k++) {
+                    Edge e = matrix.incidentEdge(vIndex, k);
+                    Vertex w = vertexList.get(matrix.neighbour(vIndex, k));
+                    if (e instanceof Channel && w.hasPosition() && !grid.inRange(v, w)) {
+                        lost.add(e);
+                    }
+                }
+                for (Edge e : lost) {
+                    if (detach(e)) {
+                        changes++;
+                    }
+                }
+                near.clear();
+                grid.withinRange(v.getX(), v.getY(), v, near);
+                for (Vertex w : near) {
+                    if (matrix.getEdge(vIndex, indexOf(w)) == null && attach(new Channel(v, w, linkName(grid)))) {
+                        changes++;
+                    }
+                }
+            }
+            grid.clearPending();
+            if (changes > 0) {
+                changed();
+            }
+            return changes;
+        } finally {
+            lock.writeLock().unlock();
+            record(GraphMetrics.REFRESH_LINKS, begin, 0, changes);
+        }
+    }
+
+    /**
+     * Makes a name for a link inserted by {@link #refreshLinks()} that no {@link Edge} in the graph has. The caller
+     * holds the write lock.
+     *
+     * @param grid	SpatialGrid handing out the names
+     * @return		String name for the link
+     */
+    private String linkName(SpatialGrid grid) {
+        String name = grid.nextName();
+        while (edgeNames.get("Channel", name) != null) {
+            name = grid.nextName();
+        }
+        return name;
+    }
+
+    /**
+     * Gets the {@link AdjacencyStore} of the graph as a read-only {@link Topology} and returns it.
+     *
+     * @return	the Topology of the graph, addressed by the same indices as {@link #vertexAt(int)}
+     */
+    Topology topology() {
+        return matrix;
+    }
+
+    /**
+     * Gets the {@link RouteCache} used by <code>#path()</code> and returns it, creating it on first use.
+     *
+     * @return	the RouteCache of the graph
+     */
+    public RouteCache getRouteCache() {
+        RouteCache cache = routeCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = routeCache;
+                if (cache == null) {
+                    cache = new RouteCache(ROUTE_CACHE_CAPACITY);
+                    routeCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Replaces the {@link RouteCache} used by <code>#path()</code> with an empty one of a new capacity. A capacity of
+     * 0 turns caching off.
+     *
+     * @param capacity	maximum number of routes to cache
+     */
+    public void setRouteCacheCapacity(int capacity) {
+        routeCache = new RouteCache(capacity);
+    }
+
+    /**
+     * Turns on counting and timing of the operations of the graph. Later calls return the same {@link GraphMetrics}
+     * until metrics are turned off.
+     *
+     * @return	the GraphMetrics the graph records into
+     */
+    public synchronized GraphMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new GraphMetrics();
         }
-        vertices.add(finish);
+        return metrics;
+    }
 
-        System.out.println(vertices);
-        System.out.println(edges);
-        Graph path = new Graph(vertices, edges);
-        return path;
+    /**
+     * Turns off counting and timing of the operations of the graph. The {@link GraphMetrics} recorded so far keeps
+     * its counts.
+     */
+    public synchronized void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Gets the {@link GraphMetrics} the graph records into and returns it.
+     *
+     * @return	the GraphMetrics, or <code>null</code> while metrics are off
+     */
+    public GraphMetrics getMetrics() {
+        return metrics;
     }
 
     /**
-     * Gets and returns the {@link Vertex} with the required <code>type</code> and <code>name</code>
+     * Gets and returns the {@link Vertex} with the required <code>type</code> and <code>name</code>. Vertices are
+     * looked up in a hash index kept up to date by every change.
      *
      * @param type	String of the type of Vertex
      * @param name	String name of the Vertex
-     * @return		Vertex with the specified type and name
+     * @return		Vertex with the specified type and name, or <code>null</code> if there is none
      */
     public Vertex getVertex(String type, String name) {
-        for (Vertex v : vertexList) {
-            if (v.getType().equals(type) && v.getName().equals(name)) {
-                return v;
+        long begin = begin();
+        lock.readLock().lock();
+        try {
+            Vertex v = vertexNames.get(type, name);
+            if (v == null) {
+                if (Trace.isEnabled(Trace.DEBUG)) {
+                    Trace.emit(Trace.DEBUG, "graph.lookup", type + "-" + name + " could not be found");
+                }
             }
+            return v;
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.GET_VERTEX, begin, 1, 0);
         }
-        System.out.println("Error: " + type + "-" + name
-                + " could not be found");
-        return null;
     }
 
     /**
-     * Gets and returns the {@link Edge} with the required <code>type</code> and <code>name</code>
+     * Gets and returns the {@link Edge} with the required <code>type</code> and <code>name</code>. Edges are looked
+     * up in a hash index kept up to date by every change.
      *
      * @param type	String of the type of Edge
      * @param name	String name of the Edge
-     * @return		Vertex with the specified type and name
+     * @return		Edge with the specified type and name, or <code>null</code> if there is none
      */
     public Edge getEdge(String type, String name) {
-
-        for (Edge e : edgeList) {
-            if (e.getType().equals(type) && e.getName().equals(name)) {
-                return e;
+        long begin = begin();
+        lock.readLock().lock();
+        try {
+            Edge e = edgeNames.get(type, name);
+            if (e == null) {
+                if (Trace.isEnabled(Trace.DEBUG)) {
+                    Trace.emit(Trace.DEBUG, "graph.lookup", type + "-" + name + " could not be found");
+                }
             }
+            return e;
+        } finally {
+            lock.readLock().unlock();
+            record(GraphMetrics.GET_EDGE, begin, 0, 1);
+        }
+    }
+
+    /**
+     * Gets and returns the {@link Edge} joining two vertices named by their types and names. Both vertices are found
+     * through the name index and the Edge through the {@link AdjacencyStore}, so no list is scanned.
+     *
+     * @param vType	String of the type of Vertex v
+     * @param vName	String name of Vertex v
+     * @param wType	String of the type of Vertex w
+     * @param wName	String name of Vertex w
+     * @return		Edge joining the vertices, or <code>null</code> if either is missing or they are not adjacent
+     */
+    public Edge getEdge(String vType, String vName, String wType, String wName) {
+        Vertex v = getVertex(vType, vName);
+        Vertex w = getVertex(wType, wName);
+        if (v == null || w == null) {
+            return null;
+        }
+        return getEdge(v, w);
+    }
+
+    /**
+     * Gets and returns the {@link Edge} joining two vertices.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		Edge joining the vertices, or <code>null</code> if they are not adjacent
+     */
+    public Edge getEdge(Vertex v, Vertex w) {
+        lock.readLock().lock();
+        try {
+            return matrix.getEdge(indexOf(v), indexOf(w));
+        } finally {
+            lock.readLock().unlock();
         }
-        System.out.println("Error: " + type + "-" + name
-                + " could not be found");
-        return null;
     }
 
     /**
      * Searches through all vertices using a breadth first search and making sure each {@link Vertex}
-     * has been visited, printing out all visited objects depending on <code>print</code> state.
+     * has been visited, reporting all visited objects to <code>trace</code>.
      *
-     * @param print	boolean stating whether or not to print objects that are visited in search
+     * @param trace	TraceSink to report objects that are visited in search to, or <code>null</code>
+     * @return		the Traversal holding the results of the search
      */
-    private void searchAllVertices(boolean print) {
+    private Traversal searchAllVertices(TraceSink trace) {
+        Traversal traversal = startSearch();
         for (int i = 0; i < vertexList.size(); i++) {
-            if (!vertexList.get(i).getVisited()) {
-                searchBreadthFirst(vertexList.get(i), null, print);
-            }
-        }
-    }
-
-    /**
-     * Do a breadth search of the graph from <code>start</code> to <code>finish</code>, printing out
-     * all visited objects depending on <code>print</code> state. Objects are marked as visited once
-     * the search visits them.
-     *
-     * @param start	    Vertex to start search from
-     * @param finish	Vertex to finish search at
-     * @param print	    boolean stating whether or not to print objects that are visited in search
-     */
-    private void searchBreadthFirst(Vertex start, Vertex finish, boolean print) {
-        ArrayList<ArrayList<Vertex>> level = new ArrayList<ArrayList<Vertex>>();
-        level.add(new ArrayList<Vertex>());
-
-        level.get(0).add(start);
-        start.setVisited(true);
-        if (print) {
-            System.out.println("Start: " + start);
-        }
-        int i = 0;
-
-        while (level.get(i).size() != 0) {
-
-            for (Vertex v : level.get(i)) {
-                level.add(new ArrayList<Vertex>());
-                for (Edge e : incidentEdges(v)) {
-                    if (!e.getVisited()) {
-                        if (!e.getV().getVisited()) {
-                            e.setVisited(true);
-                            e.getV().setVisited(true);
-                            e.getV().setParent(e.getW());
-                            level.get(i + 1).add(e.getV());
-                            if (print) {
-                                System.out.println("Visit: " + e);
-                            }
-                            if (print) {
-                                System.out.println("Visit: " + e.getV());
-                            }
-                        } else if (!e.getW().getVisited()) {
-                            e.setVisited(true);
-                            e.getW().setVisited(true);
-                            e.getW().setParent(e.getV());
-                            level.get(i + 1).add(e.getW());
-                            if (print) {
-                                System.out.println("Visit: " + e);
-                            }
-                            if (print) {
-                                System.out.println("Visit: " + e.getW());
-                            }
-                        } else {
-                            e.setCrossEdge(true);
-                            if (print) {
-                                System.out.println("Cross Edge: " + e);
-                            }
-                        }
-                        if (finish != null && (e.getV() == finish || e.getW() == finish)) {
-                            return;
-                        }
-                    } else {
-                        if (print) {
-                            System.out.println("Visited: " + e);
-                        }
-                    }
-                }
+            if (!traversal.isVisited(i)) {
+                traversal.breadthFirst(matrix, i, -1, vertexList, trace);
             }
-            i += 1;
         }
+        return traversal;
     }
 
     /**
-     * Sets all objects to not visited.
+     * Reads the clock at the start of an operation if metrics are on.
+     *
+     * @return	the time in nanoseconds, or 0 while metrics are off
      */
-    private void searchReset() {
-        for (Vertex v : vertexList) {
-            v.setVisited(false);
-        }
-        for (Edge e : edgeList) {
-            e.setVisited(false);
-            e.setCrossEdge(false);
+    private long begin() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records an operation that started at <code>begin</code> in the {@link GraphMetrics} of the graph. Nothing is
+     * recorded if metrics were off when the operation started or have been turned off since.
+     *
+     * @param operation	number of the operation, such as {@link GraphMetrics#PATH}
+     * @param begin		time returned by {@link #begin()}
+     * @param vertices	number of vertices visited
+     * @param edges		number of edges visited
+     */
+    private void record(int operation, long begin, int vertices, int edges) {
+        GraphMetrics recording = metrics;
+        if (begin != 0 && recording != null) {
+            recording.record(operation, System.nanoTime() - begin, vertices, edges);
         }
     }
+
+    /**
+     * Gets the {@link Traversal} of the calling thread and resets it for a new search of this graph.
+     *
+     * @return	the reset Traversal
+     */
+    private Traversal startSearch() {
+        Traversal traversal = TRAVERSAL.get();
+        traversal.reset(vertexList.size());
+        return traversal;
+    }
 }
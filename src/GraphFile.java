@@ -0,0 +1,296 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Saves the topology of a {@link Graph} in a compact binary file and loads it back, either into a new Graph or as
+ * a {@link MappedTopology} that answers neighbour queries straight from the memory-mapped file.
+ *
+ * The file starts with a header giving the counts and the position of each section, all in big-endian order with
+ * every section starting on an eight byte boundary:
+ * <ul>
+ * <li>a string table holding every distinct type and name once, as offsets into a block of UTF-8 bytes;</li>
+ * <li>a vertex table of fixed size records: type and name as string numbers, a flag for whether the
+ * {@link Vertex} has a position, and its coordinates;</li>
+ * <li>the adjacency in compressed rows: an offset per vertex into an array of neighbour indices and a parallel
+ * array of the {@link Edge} numbers reaching them;</li>
+ * <li>an edge table of fixed size records: type and name as string numbers, the endpoint indices and the link
+ * attributes of a {@link Channel}.</li>
+ * </ul>
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class GraphFile {
+    static final int MAGIC = 0x41484E47;
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_SIZE = 72;
+    static final int VERTEX_RECORD = 32;
+    static final int EDGE_RECORD = 40;
+    static final int POSITIONED = 1;
+
+    static final int VERTEX_COUNT_AT = 8;
+    static final int EDGE_COUNT_AT = 12;
+    static final int STRING_COUNT_AT = 16;
+    static final int ENTRY_COUNT_AT = 20;
+    static final int STRINGS_AT = 24;
+    static final int VERTICES_AT = 32;
+    static final int OFFSETS_AT = 40;
+    static final int NEIGHBOURS_AT = 48;
+    static final int INCIDENT_AT = 56;
+    static final int EDGES_AT = 64;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private GraphFile() {
+    }
+
+    /**
+     * Saves the topology of a graph to a file, replacing anything already there. The graph is read through a
+     * {@link TopologySnapshot}, so it may go on changing while the file is written.
+     *
+     * @param graph	Graph to save
+     * @param file	File to write
+     * @throws IOException	if the file cannot be written or would be larger than 2GB
+     */
+    public static void save(Graph graph, File file) throws IOException {
+        save(graph.snapshot(), file);
+    }
+
+    /**
+     * Saves a {@link TopologySnapshot} to a file, replacing anything already there. Names and link attributes are
+     * read from the {@link Vertex} and {@link Edge} objects as they are written. The snapshot is written to a file of
+     * the same name ending in <code>.tmp</code> beside the target, which is then moved over the target in one step.
+     * A crash part way through therefore leaves the previous file whole, and a {@link MappedTopology} of the
+     * previous file goes on reading the old contents.
+     *
+     * @param snapshot	TopologySnapshot to save
+     * @param file		File to write
+     * @throws IOException	if the file cannot be written or would be larger than 2GB
+     */
+    public static void save(TopologySnapshot snapshot, File file) throws IOException {
+        int n = snapshot.size();
+        int m = snapshot.getEdgeCount();
+
+        HashMap<String, Integer> interned = new HashMap<String, Integer>();
+        ArrayList<byte[]> strings = new ArrayList<byte[]>();
+        int[] vertexType = new int[n];
+        int[] vertexName = new int[n];
+        int[] edgeType = new int[m];
+        int[] edgeName = new int[m];
+        long stringBytes = 0;
+        for (int v = 0; v < n; v++) {
+            vertexType[v] = intern(snapshot.vertexAt(v).getType(), interned, strings);
+            vertexName[v] = intern(snapshot.vertexAt(v).getName(), interned, strings);
+        }
+        IdentityHashMap<Edge, Integer> edgeNumber = new IdentityHashMap<Edge, Integer>(m);
+        for (int e = 0; e < m; e++) {
+            edgeType[e] = intern(snapshot.edgeAt(e).getType(), interned, strings);
+            edgeName[e] = intern(snapshot.edgeAt(e).getName(), interned, strings);
+            edgeNumber.put(snapshot.edgeAt(e), e);
+        }
+        for (byte[] bytes : strings) {
+            stringBytes += bytes.length;
+        }
+        long entries = 0;
+        for (int v = 0; v < n; v++) {
+            entries += snapshot.degree(v);
+        }
+
+        long stringsAt = HEADER_SIZE;
+        long verticesAt = align(stringsAt + 4L * (strings.size() + 1) + stringBytes);
+        long offsetsAt = align(verticesAt + (long) VERTEX_RECORD * n);
+        long neighboursAt = align(offsetsAt + 4L * (n + 1));
+        long incidentAt = align(neighboursAt + 4 * entries);
+        long edgesAt = align(incidentAt + 4 * entries);
+        long length = edgesAt + (long) EDGE_RECORD * m;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Graph of " + n + " vertices and " + m + " edges is too large to save");
+        }
+
+        File temporary = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        boolean moved = false;
+        RandomAccessFile out = new RandomAccessFile(temporary, "rw");
+        try {
+            out.setLength(0);
+            out.setLength(length);
+            MappedByteBuffer buffer = out.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(VERTEX_COUNT_AT, n);
+            buffer.putInt(EDGE_COUNT_AT, m);
+            buffer.putInt(STRING_COUNT_AT, strings.size());
+            buffer.putInt(ENTRY_COUNT_AT, (int) entries);
+            buffer.putLong(STRINGS_AT, stringsAt);
+            buffer.putLong(VERTICES_AT, verticesAt);
+            buffer.putLong(OFFSETS_AT, offsetsAt);
+            buffer.putLong(NEIGHBOURS_AT, neighboursAt);
+            buffer.putLong(INCIDENT_AT, incidentAt);
+            buffer.putLong(EDGES_AT, edgesAt);
+
+            int bytesAt = (int) stringsAt + 4 * (strings.size() + 1);
+            int offset = 0;
+            for (int s = 0; s < strings.size(); s++) {
+                buffer.putInt((int) stringsAt + 4 * s, offset);
+                buffer.position(bytesAt + offset);
+                buffer.put(strings.get(s));
+                offset += strings.get(s).length;
+            }
+            buffer.putInt((int) stringsAt + 4 * strings.size(), offset);
+
+            for (int v = 0; v < n; v++) {
+                Vertex vertex = snapshot.vertexAt(v);
+                int at = (int) verticesAt + VERTEX_RECORD * v;
+                buffer.putInt(at, vertexType[v]);
+                buffer.putInt(at + 4, vertexName[v]);
+                if (vertex.hasPosition()) {
+                    buffer.putInt(at + 8, POSITIONED);
+                    buffer.putDouble(at + 16, vertex.getX());
+                    buffer.putDouble(at + 24, vertex.getY());
+                }
+            }
+
+            int entry = 0;
+            for (int v = 0; v < n; v++) {
+                buffer.putInt((int) offsetsAt + 4 * v, entry);
+                for (int i = 0; i < snapshot.degree(v); i++) {
+                    buffer.putInt((int) neighboursAt + 4 * entry, snapshot.neighbour(v, i));
+                    buffer.putInt((int) incidentAt + 4 * entry, edgeNumber.get(snapshot.incidentEdge(v, i)));
+                    entry++;
+                }
+            }
+            buffer.putInt((int) offsetsAt + 4 * n, entry);
+
+            for (int e = 0; e < m; e++) {
+                Edge edge = snapshot.edgeAt(e);
+                int at = (int) edgesAt + EDGE_RECORD * e;
+                buffer.putInt(at, edgeType[e]);
+                buffer.putInt(at + 4, edgeName[e]);
+                buffer.putInt(at + 8, snapshot.indexOf(edge.getV()));
+                buffer.putInt(at + 12, snapshot.indexOf(edge.getW()));
+                if (edge instanceof Channel) {
+                    Channel channel = (Channel) edge;
+                    buffer.putDouble(at + 16, channel.getLatency());
+                    buffer.putDouble(at + 24, channel.getEnergy());
+                    buffer.putDouble(at + 32, channel.getQuality());
+                } else {
+                    buffer.putDouble(at + 16, 1);
+                    buffer.putDouble(at + 24, 1);
+                    buffer.putDouble(at + 32, 1);
+                }
+            }
+            buffer.force();
+            out.close();
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            out.close();
+            if (!moved) {
+                temporary.delete();
+            }
+        }
+    }
+
+    /**
+     * Maps a saved file into memory and returns a {@link MappedTopology} over it. Nothing but the header is read
+     * until it is asked for, so mapping takes the same time whatever the size of the file.
+     *
+     * @param file	File to map
+     * @return		MappedTopology reading the file
+     * @throws IOException	if the file cannot be read or is not a saved graph
+     */
+    public static MappedTopology map(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            long length = in.length();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a saved graph");
+            }
+            ByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a saved graph");
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException(file + " was saved in format " + buffer.getInt(4) + ", not " + FORMAT_VERSION);
+            }
+            if (!fits(buffer, length)) {
+                throw new IOException(file + " has a corrupt header or has been cut short");
+            }
+            return new MappedTopology(buffer);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads a saved file into a new {@link Graph} made of ordinary objects.
+     *
+     * @param file	File to load
+     * @param dense	boolean stating whether the Graph should use a dense {@link AdjacencyMatrix}
+     * @return		the loaded Graph
+     * @throws IOException	if the file cannot be read or is not a saved graph
+     */
+    public static Graph load(File file, boolean dense) throws IOException {
+        try {
+            return map(file).toGraph(dense);
+        } catch (IllegalStateException e) {
+            throw new IOException(file + " is not a saved graph: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks that the sections named by the header of a file are large enough for the counts it gives, come in
+     * order and end within the file.
+     *
+     * @param buffer	ByteBuffer holding the file
+     * @param length	length of the file in bytes
+     * @return			boolean stating whether the header is sound
+     */
+    private static boolean fits(ByteBuffer buffer, long length) {
+        long n = buffer.getInt(VERTEX_COUNT_AT);
+        long m = buffer.getInt(EDGE_COUNT_AT);
+        long strings = buffer.getInt(STRING_COUNT_AT);
+        long entries = buffer.getInt(ENTRY_COUNT_AT);
+        if (n < 0 || m < 0 || strings < 0 || entries < 0) {
+            return false;
+        }
+        long stringsAt = buffer.getLong(STRINGS_AT);
+        long verticesAt = buffer.getLong(VERTICES_AT);
+        long offsetsAt = buffer.getLong(OFFSETS_AT);
+        long neighboursAt = buffer.getLong(NEIGHBOURS_AT);
+        long incidentAt = buffer.getLong(INCIDENT_AT);
+        long edgesAt = buffer.getLong(EDGES_AT);
+        return stringsAt == HEADER_SIZE
+                && verticesAt >= stringsAt + 4 * (strings + 1)
+                && offsetsAt >= verticesAt + VERTEX_RECORD * n
+                && neighboursAt >= offsetsAt + 4 * (n + 1)
+                && incidentAt >= neighboursAt + 4 * entries
+                && edgesAt >= incidentAt + 4 * entries
+                && edgesAt + EDGE_RECORD * m <= length;
+    }
+
+    private static int intern(String s, HashMap<String, Integer> interned, ArrayList<byte[]> strings) {
+        Integer id = interned.get(s);
+        if (id == null) {
+            id = strings.size();
+            interned.put(s, id);
+            strings.add(s.getBytes(UTF8));
+        }
+        return id;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+}
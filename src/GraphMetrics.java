@@ -0,0 +1,199 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the calls made to each operation of a {@link Graph} and records how long they took and how much of the
+ * graph they visited. A Graph only records while metrics are turned on with {@link Graph#enableMetrics()}; while they
+ * are off each operation pays for a single field read.
+ *
+ * Latencies go into a log-linear histogram per operation in the style of an HDR histogram: values below 16
+ * nanoseconds have a bucket each, and every power of two above that is split into 16 buckets, so a percentile read
+ * back is never more than 1/16 above the true value. Every count is held in an {@link AtomicLongArray}, so threads
+ * record without taking a lock, and a reader sees each count as it was at some moment during the read.
+ *
+ * The counts can be read with {@link #get(int)} and {@link #snapshot()}, or through JMX once the metrics have been
+ * registered with {@link #register(String)}.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class GraphMetrics implements GraphMetricsMXBean {
+    public static final int INSERT_VERTEX = 0;
+    public static final int REMOVE_VERTEX = 1;
+    public static final int INSERT_EDGE = 2;
+    public static final int REMOVE_EDGE = 3;
+    public static final int APPLY = 4;
+    public static final int ARE_ADJACENT = 5;
+    public static final int INCIDENT_EDGES = 6;
+    public static final int PATH = 7;
+    public static final int SPANNING_TREE = 8;
+    public static final int REPORT_CYCLE = 9;
+    public static final int ROUTE = 10;
+    public static final int GET_VERTEX = 11;
+    public static final int GET_EDGE = 12;
+    public static final int REFRESH_LINKS = 13;
+
+    static final String[] NAMES = {"insertVertex", "removeVertex", "insertEdge", "removeEdge", "apply",
+            "areAdjacent", "incidentEdges", "path", "spanningTree", "reportCycle", "route", "getVertex", "getEdge",
+            "refreshLinks"};
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+    private static final int VERTICES = 3;
+    private static final int EDGES = 4;
+    private static final int FIELDS = 5;
+
+    private final AtomicLongArray totals = new AtomicLongArray(NAMES.length * FIELDS);
+    private final AtomicLongArray histograms = new AtomicLongArray(NAMES.length * BUCKETS);
+
+    /**
+     * Records one call of an operation.
+     *
+     * @param operation	number of the operation, such as {@link #PATH}
+     * @param nanos		time the call took in nanoseconds
+     * @param vertices	number of vertices the call visited
+     * @param edges		number of edges the call visited
+     */
+    void record(int operation, long nanos, int vertices, int edges) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int base = operation * FIELDS;
+        totals.incrementAndGet(base + COUNT);
+        totals.addAndGet(base + TOTAL, nanos);
+        if (vertices != 0) {
+            totals.addAndGet(base + VERTICES, vertices);
+        }
+        if (edges != 0) {
+            totals.addAndGet(base + EDGES, edges);
+        }
+        long max = totals.get(base + MAX);
+        while (nanos > max && !totals.compareAndSet(base + MAX, max, nanos)) {
+            max = totals.get(base + MAX);
+        }
+        histograms.incrementAndGet(operation * BUCKETS + bucket(nanos));
+    }
+
+    /**
+     * Gets the counts of one operation as they stand and returns them.
+     *
+     * @param operation	number of the operation, such as {@link #PATH}
+     * @return		    OperationStats of the operation
+     */
+    public OperationStats get(int operation) {
+        int base = operation * FIELDS;
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histograms.get(operation * BUCKETS + i);
+            count += counts[i];
+        }
+        return new OperationStats(NAMES[operation], count, totals.get(base + TOTAL), totals.get(base + MAX),
+                percentile(counts, count, 0.5), percentile(counts, count, 0.9), percentile(counts, count, 0.99),
+                totals.get(base + VERTICES), totals.get(base + EDGES));
+    }
+
+    /**
+     * Gets the counts of every operation that has been called at least once and returns them.
+     *
+     * @return	ArrayList of OperationStats in operation order
+     */
+    public ArrayList<OperationStats> snapshot() {
+        ArrayList<OperationStats> stats = new ArrayList<OperationStats>();
+        for (int operation = 0; operation < NAMES.length; operation++) {
+            if (totals.get(operation * FIELDS + COUNT) > 0) {
+                stats.add(get(operation));
+            }
+        }
+        return stats;
+    }
+
+    public ArrayList<OperationStats> getOperations() {
+        return snapshot();
+    }
+
+    public void reset() {
+        for (int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0);
+        }
+        for (int i = 0; i < histograms.length(); i++) {
+            histograms.set(i, 0);
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under the name
+     * <code>adhoc:type=GraphMetrics,name=</code><code>name</code>.
+     *
+     * @param name	String naming the graph the metrics belong to
+     * @return		the ObjectName registered
+     * @throws JMException	if the name is malformed or already registered
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("adhoc:type=GraphMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Removes metrics registered with {@link #register(String)} from the platform MBean server.
+     *
+     * @param objectName	ObjectName returned by <code>register</code>
+     * @throws JMException	if nothing is registered under the name
+     */
+    public void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    /**
+     * Finds the histogram bucket holding a value. Values of 2<sup>40</sup> nanoseconds, about 18 minutes, and more
+     * share the last bucket.
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (nanos >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the highest value that falls in a histogram bucket.
+     */
+    static long highest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] counts, long count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highest(i);
+            }
+        }
+        return highest(counts.length - 1);
+    }
+}
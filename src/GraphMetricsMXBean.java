@@ -0,0 +1,23 @@
+import java.util.List;
+
+/**
+ * Management interface through which JMX clients read the {@link GraphMetrics} of a {@link Graph}. Each
+ * {@link OperationStats} in the list is shown as a composite of its counts.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface GraphMetricsMXBean {
+
+    /**
+     * Gets the counts of every operation that has been called at least once and returns them.
+     *
+     * @return	List of OperationStats in operation order
+     */
+    List<OperationStats> getOperations();
+
+    /**
+     * Sets every count back to zero. Calls recorded while the reset is running may be partly kept.
+     */
+    void reset();
+}
@@ -0,0 +1,128 @@
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertex indices keyed by a double priority. The position of every index in the heap is
+ * tracked, so the priority of an index already in the heap can be lowered in place, which is what Dijkstra and
+ * A* searches need. Nothing is boxed and no memory is allocated once the heap has grown to the size of the graph.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class IndexedHeap {
+    private int[] heap = new int[0];
+    private int[] position = new int[0];
+    private double[] key = new double[0];
+    private int size;
+
+    /**
+     * Empties the heap and makes room for indices from 0 to <code>capacity - 1</code>. Only the indices still in the
+     * heap are touched.
+     *
+     * @param capacity	number of indices the heap must be able to hold
+     */
+    public void clear(int capacity) {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+        if (position.length < capacity) {
+            int grown = Math.max(capacity, position.length * 2);
+            heap = new int[grown];
+            key = new double[grown];
+            position = new int[grown];
+            Arrays.fill(position, -1);
+        }
+    }
+
+    /**
+     * Get and return if the heap is empty
+     *
+     * @return	boolean representing if the heap holds no indices
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get and return if an index is in the heap
+     *
+     * @param index	index to check
+     * @return		boolean representing if the index is in the heap
+     */
+    public boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+    /**
+     * Adds an index to the heap, or lowers its priority if it is already there and the new priority is smaller.
+     *
+     * @param index		index to add
+     * @param priority	priority of the index
+     */
+    public void push(int index, double priority) {
+        int i = position[index];
+        if (i < 0) {
+            i = size++;
+            heap[i] = index;
+            position[index] = i;
+        } else if (priority >= key[index]) {
+            return;
+        }
+        key[index] = priority;
+        siftUp(i);
+    }
+
+    /**
+     * Removes the index with the smallest priority from the heap and returns it.
+     *
+     * @return	the index with the smallest priority
+     */
+    public int pop() {
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int index = heap[i];
+        double priority = key[index];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (key[heap[parent]] <= priority) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+
+    private void siftDown(int i) {
+        int index = heap[i];
+        double priority = key[index];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (key[heap[child]] >= priority) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = index;
+        position[index] = i;
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * The link costs a route can be optimised for. Each {@link Edge} reports a non-negative cost for every metric
+ * through {@link Edge#getCost(LinkMetric)}.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public enum LinkMetric {
+    /** Every link costs 1, so the cheapest route is the one with the fewest hops. */
+    HOPS,
+    /** Time taken for a packet to cross the link. */
+    LATENCY,
+    /** Energy spent sending a packet over the link. */
+    ENERGY,
+    /** Expected number of transmissions needed to cross the link, the inverse of its delivery ratio. */
+    QUALITY
+}
@@ -0,0 +1,253 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only {@link Topology} served from a file saved by {@link GraphFile}. Degrees, neighbours, names and types are
+ * read straight from the mapped buffer, so a topology of millions of edges is ready as soon as the file is mapped
+ * and costs the heap almost nothing. The {@link Vertex} and {@link Edge} objects the {@link Topology} interface hands
+ * out are only created the first time each one is asked for, and the same object is returned from then on.
+ *
+ * Nothing in the buffer changes, so any number of threads may query a MappedTopology at once.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class MappedTopology implements Topology {
+    private final ByteBuffer buffer;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int stringCount;
+    private final int stringsAt;
+    private final int bytesAt;
+    private final int verticesAt;
+    private final int offsetsAt;
+    private final int neighboursAt;
+    private final int incidentAt;
+    private final int edgesAt;
+    private final String[] strings;
+    private final AtomicReferenceArray<Vertex> vertices;
+    private final AtomicReferenceArray<Edge> edges;
+
+    /**
+     * Creates a MappedTopology over a buffer whose header has been checked by {@link GraphFile}.
+     *
+     * @param buffer	ByteBuffer holding the whole file
+     */
+    MappedTopology(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.vertexCount = buffer.getInt(GraphFile.VERTEX_COUNT_AT);
+        this.edgeCount = buffer.getInt(GraphFile.EDGE_COUNT_AT);
+        this.stringCount = buffer.getInt(GraphFile.STRING_COUNT_AT);
+        this.stringsAt = (int) buffer.getLong(GraphFile.STRINGS_AT);
+        this.bytesAt = stringsAt + 4 * (stringCount + 1);
+        this.verticesAt = (int) buffer.getLong(GraphFile.VERTICES_AT);
+        this.offsetsAt = (int) buffer.getLong(GraphFile.OFFSETS_AT);
+        this.neighboursAt = (int) buffer.getLong(GraphFile.NEIGHBOURS_AT);
+        this.incidentAt = (int) buffer.getLong(GraphFile.INCIDENT_AT);
+        this.edgesAt = (int) buffer.getLong(GraphFile.EDGES_AT);
+        this.strings = new String[stringCount];
+        this.vertices = new AtomicReferenceArray<Vertex>(vertexCount);
+        this.edges = new AtomicReferenceArray<Edge>(edgeCount);
+    }
+
+    /**
+     * Gets the edge between two vertex indices and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    {@link Edge} between the vertices, or <code>null</code> if they are not adjacent
+     */
+    public Edge getEdge(int vIndex, int wIndex) {
+        int end = offset(vIndex + 1);
+        for (int entry = offset(vIndex); entry < end; entry++) {
+            if (buffer.getInt(neighboursAt + 4 * entry) == wIndex) {
+                return edgeAt(buffer.getInt(incidentAt + 4 * entry));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of edges incident to a vertex index and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    public int degree(int vIndex) {
+        return offset(vIndex + 1) - offset(vIndex);
+    }
+
+    /**
+     * Gets the index of the <code>i</code>th neighbour of a vertex index and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the index of the neighbouring Vertex
+     */
+    public int neighbour(int vIndex, int i) {
+        return buffer.getInt(neighboursAt + 4 * (offset(vIndex) + i));
+    }
+
+    /**
+     * Gets the {@link Edge} joining a vertex index to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the incident Edge
+     */
+    public Edge incidentEdge(int vIndex, int i) {
+        return edgeAt(incidentEdgeIndex(vIndex, i));
+    }
+
+    /**
+     * Gets the number of the {@link Edge} joining a vertex index to its <code>i</code>th neighbour and returns it,
+     * without creating the Edge.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the number of the incident Edge, for {@link #edgeAt(int)}
+     */
+    public int incidentEdgeIndex(int vIndex, int i) {
+        return buffer.getInt(incidentAt + 4 * (offset(vIndex) + i));
+    }
+
+    /**
+     * Gets the number of vertices in the file and returns it.
+     *
+     * @return	the number of vertices
+     */
+    public int size() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the number of {@link Edge} objects in the file and returns it.
+     *
+     * @return	the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Gets the type of a vertex index and returns it, without creating the {@link Vertex}.
+     *
+     * @param vIndex	the index of the Vertex
+     * @return		    String type of the Vertex
+     */
+    public String getType(int vIndex) {
+        return string(buffer.getInt(verticesAt + GraphFile.VERTEX_RECORD * vIndex));
+    }
+
+    /**
+     * Gets the name of a vertex index and returns it, without creating the {@link Vertex}.
+     *
+     * @param vIndex	the index of the Vertex
+     * @return		    String name of the Vertex
+     */
+    public String getName(int vIndex) {
+        return string(buffer.getInt(verticesAt + GraphFile.VERTEX_RECORD * vIndex + 4));
+    }
+
+    /**
+     * Gets the {@link Vertex} at an index and returns it, creating it on first use.
+     *
+     * @param index	index of the Vertex
+     * @return		the Vertex at that index
+     * @throws IllegalStateException	if the file gives the Vertex a type that is not recognised
+     */
+    public Vertex vertexAt(int index) {
+        Vertex vertex = vertices.get(index);
+        if (vertex == null) {
+            int at = verticesAt + GraphFile.VERTEX_RECORD * index;
+            String type = string(buffer.getInt(at));
+            vertex = Graph.createVertex(type, string(buffer.getInt(at + 4)));
+            if (vertex == null) {
+                throw new IllegalStateException("Vertex " + index + " of the file has unknown type '" + type + "'");
+            }
+            vertex.setIndex(index);
+            if (buffer.getInt(at + 8) == GraphFile.POSITIONED) {
+                vertex.setPosition(buffer.getDouble(at + 16), buffer.getDouble(at + 24));
+            }
+            if (!vertices.compareAndSet(index, null, vertex)) {
+                vertex = vertices.get(index);
+            }
+        }
+        return vertex;
+    }
+
+    /**
+     * Gets the {@link Edge} with a number and returns it, creating it and its endpoints on first use.
+     *
+     * @param index	number of the Edge
+     * @return		the Edge with that number
+     * @throws IllegalStateException	if the file gives the Edge or an endpoint a type that is not recognised
+     */
+    public Edge edgeAt(int index) {
+        Edge edge = edges.get(index);
+        if (edge == null) {
+            int at = edgesAt + GraphFile.EDGE_RECORD * index;
+            Vertex v = vertexAt(buffer.getInt(at + 8));
+            Vertex w = vertexAt(buffer.getInt(at + 12));
+            String type = string(buffer.getInt(at));
+            edge = Graph.createEdge(v, w, type, string(buffer.getInt(at + 4)));
+            if (edge == null) {
+                throw new IllegalStateException("Edge " + index + " of the file has unknown type '" + type + "'");
+            }
+            edge.setIndex(index);
+            if (edge instanceof Channel) {
+                Channel channel = (Channel) edge;
+                channel.setLatency(buffer.getDouble(at + 16));
+                channel.setEnergy(buffer.getDouble(at + 24));
+                channel.setQuality(buffer.getDouble(at + 32));
+            }
+            if (!edges.compareAndSet(index, null, edge)) {
+                edge = edges.get(index);
+            }
+        }
+        return edge;
+    }
+
+    /**
+     * Creates every {@link Vertex} and {@link Edge} of the file and builds a {@link Graph} of them. The Graph takes
+     * over the objects, so this topology should not be used once the Graph has been changed.
+     *
+     * @param dense	boolean stating whether the Graph should use a dense {@link AdjacencyMatrix}
+     * @return		a new Graph holding the topology of the file
+     */
+    public Graph toGraph(boolean dense) {
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>(vertexCount);
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(edgeCount);
+        for (int v = 0; v < vertexCount; v++) {
+            vertexList.add(vertexAt(v));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            edgeList.add(edgeAt(e));
+        }
+        return new Graph(vertexList, edgeList, dense);
+    }
+
+    private int offset(int vIndex) {
+        return buffer.getInt(offsetsAt + 4 * vIndex);
+    }
+
+    /**
+     * Decodes a string of the string table, keeping it for later calls. Two threads may both decode the same string,
+     * which is harmless as they produce equal values.
+     */
+    private String string(int s) {
+        String value = strings[s];
+        if (value == null) {
+            int start = buffer.getInt(stringsAt + 4 * s);
+            int end = buffer.getInt(stringsAt + 4 * (s + 1));
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(bytesAt + start + i);
+            }
+            value = new String(bytes, GraphFile.UTF8);
+            strings[s] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,395 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Finds a minimum spanning forest of a weighted topology: for every connected component, the tree joining all of its
+ * vertices whose edges cost least in total. The topology is given as primitive arrays holding the endpoints and
+ * cost of each edge, and the forest is returned as the numbers of the edges in it, so no objects are made per edge.
+ *
+ * Ties between edges of equal cost are broken by edge number, which makes the forest unique, so both algorithms
+ * offered return the same edges:
+ * <ul>
+ * <li>{@link #kruskal()} sorts the edges by cost and takes each one that joins two trees, using a union-find over
+ * int arrays. The sort is done in parallel with {@link Arrays#parallelSort(long[])}, which always uses the common
+ * {@link ForkJoinPool}.</li>
+ * <li>{@link #boruvka()} works in rounds: every tree picks its cheapest edge to another tree in parallel, all those
+ * edges are added at once, and edges left inside a tree are dropped. Each round at least halves the number of trees,
+ * so there are at most log<sub>2</sub> of the number of vertices rounds.</li>
+ * </ul>
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class MinimumSpanningForest {
+    private static final int GRAIN = 8192;
+
+    private final int n;
+    private final int[] edgeV;
+    private final int[] edgeW;
+    private final double[] cost;
+    private final ForkJoinPool pool;
+
+    private int[] parent;
+    private int[] size;
+
+    /**
+     * Creates a MinimumSpanningForest over a topology of <code>vertexCount</code> vertices. Edge <code>e</code> joins
+     * vertices <code>edgeV[e]</code> and <code>edgeW[e]</code> and costs <code>cost[e]</code>. The arrays are not
+     * copied and must not change while the forest is found.
+     *
+     * @param vertexCount	number of vertices
+     * @param edgeV		    index of the first endpoint of each edge
+     * @param edgeW		    index of the second endpoint of each edge
+     * @param cost		    cost of each edge, which may not be NaN
+     * @param pool		    ForkJoinPool to run parallel work in
+     */
+    public MinimumSpanningForest(int vertexCount, int[] edgeV, int[] edgeW, double[] cost, ForkJoinPool pool) {
+        this.n = vertexCount;
+        this.edgeV = edgeV;
+        this.edgeW = edgeW;
+        this.cost = cost;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds the forest with Kruskal's algorithm.
+     *
+     * @return	numbers of the edges in the forest, cheapest first
+     */
+    public int[] kruskal() {
+        int m = edgeV.length;
+        double[] sorted = cost.clone();
+        Arrays.parallelSort(sorted);
+        long[] keys = new long[m];
+        run(new Rank(sorted, keys, 0, m), m);
+        Arrays.parallelSort(keys);
+
+        startForest();
+        int[] forest = new int[Math.max(0, n - 1)];
+        int count = 0;
+        for (int i = 0; i < m && count < forest.length; i++) {
+            int e = (int) keys[i];
+            if (union(edgeV[e], edgeW[e])) {
+                forest[count++] = e;
+            }
+        }
+        return Arrays.copyOf(forest, count);
+    }
+
+    /**
+     * Finds the forest with Boruvka's algorithm, choosing the cheapest edges of each round in parallel.
+     *
+     * @return	numbers of the edges in the forest, in the order they were found
+     */
+    public int[] boruvka() {
+        startForest();
+        int[] label = new int[n];
+        int[] roots = new int[n];
+        for (int v = 0; v < n; v++) {
+            label[v] = v;
+            roots[v] = v;
+        }
+        int rootCount = n;
+        int[] active = new int[edgeV.length];
+        int activeCount = 0;
+        for (int e = 0; e < edgeV.length; e++) {
+            if (edgeV[e] != edgeW[e]) {
+                active[activeCount++] = e;
+            }
+        }
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            cheapest.set(v, -1);
+        }
+        int[] forest = new int[Math.max(0, n - 1)];
+        int count = 0;
+
+        while (activeCount > 0) {
+            run(new Cheapest(label, active, cheapest, 0, activeCount), activeCount);
+
+            for (int i = 0; i < rootCount; i++) {
+                int e = cheapest.get(roots[i]);
+                if (e >= 0) {
+                    if (union(edgeV[e], edgeW[e])) {
+                        forest[count++] = e;
+                    }
+                    cheapest.set(roots[i], -1);
+                }
+            }
+            int kept = 0;
+            for (int i = 0; i < rootCount; i++) {
+                if (find(roots[i]) == roots[i]) {
+                    roots[kept++] = roots[i];
+                }
+            }
+            rootCount = kept;
+
+            run(new Relabel(label, 0, n), n);
+            int chunks = (activeCount + GRAIN - 1) / GRAIN;
+            int[] counts = new int[chunks];
+            run(new Compact(label, active, activeCount, counts, 0, chunks), activeCount);
+            activeCount = counts[0];
+            for (int c = 1; c < chunks; c++) {
+                System.arraycopy(active, c * GRAIN, active, activeCount, counts[c]);
+                activeCount += counts[c];
+            }
+        }
+        return Arrays.copyOf(forest, count);
+    }
+
+    /**
+     * Adds up the cost of the edges of a forest.
+     *
+     * @param forest	numbers of the edges in the forest
+     * @return		    total cost of the forest
+     */
+    public double weight(int[] forest) {
+        double total = 0;
+        for (int e : forest) {
+            total += cost[e];
+        }
+        return total;
+    }
+
+    /**
+     * Runs a task on the pool, or on the calling thread if there is too little work to be worth forking.
+     */
+    private void run(RecursiveAction task, int work) {
+        if (work > GRAIN) {
+            pool.invoke(task);
+        } else {
+            task.invoke();
+        }
+    }
+
+    /**
+     * Puts every vertex in a tree of its own.
+     */
+    private void startForest() {
+        parent = new int[n];
+        size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+    }
+
+    /**
+     * Finds the root of the tree holding a vertex, halving the path to it on the way.
+     */
+    private int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Finds the root of the tree holding a vertex without changing the union-find, so that many threads may do so
+     * at once.
+     */
+    private int root(int v) {
+        while (parent[v] != v) {
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Joins the trees holding two vertices, hanging the smaller under the larger.
+     *
+     * @return	boolean stating whether the vertices were in different trees
+     */
+    private boolean union(int v, int w) {
+        int vRoot = find(v);
+        int wRoot = find(w);
+        if (vRoot == wRoot) {
+            return false;
+        }
+        if (size[vRoot] < size[wRoot]) {
+            int swap = vRoot;
+            vRoot = wRoot;
+            wRoot = swap;
+        }
+        parent[wRoot] = vRoot;
+        size[vRoot] += size[wRoot];
+        return true;
+    }
+
+    /**
+     * Checks whether edge <code>e</code> comes before edge <code>f</code>, by cost and then by number.
+     */
+    private boolean lighter(int e, int f) {
+        return cost[e] < cost[f] || (cost[e] == cost[f] && e < f);
+    }
+
+    /**
+     * Task over a range that splits itself in half until the range is small enough to sweep directly.
+     */
+    @SuppressWarnings("serial")
+    private abstract static class Sweep extends RecursiveAction {
+        final int from;
+        final int to;
+
+        Sweep(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > grain()) {
+                int middle = (from + to) >>> 1;
+                invokeAll(split(from, middle), split(middle, to));
+                return;
+            }
+            sweep();
+        }
+
+        int grain() {
+            return GRAIN;
+        }
+
+        abstract Sweep split(int from, int to);
+
+        abstract void sweep();
+    }
+
+    /**
+     * Makes the sort key of each edge: the rank of its cost among all costs, then its number.
+     */
+    @SuppressWarnings("serial")
+    private class Rank extends Sweep {
+        private final double[] sorted;
+        private final long[] keys;
+
+        Rank(double[] sorted, long[] keys, int from, int to) {
+            super(from, to);
+            this.sorted = sorted;
+            this.keys = keys;
+        }
+
+        Sweep split(int from, int to) {
+            return new Rank(sorted, keys, from, to);
+        }
+
+        void sweep() {
+            for (int e = from; e < to; e++) {
+                keys[e] = ((long) Arrays.binarySearch(sorted, cost[e]) << 32) | e;
+            }
+        }
+    }
+
+    /**
+     * Offers each active edge to the trees at both of its ends, each tree keeping the lightest edge offered.
+     */
+    @SuppressWarnings("serial")
+    private class Cheapest extends Sweep {
+        private final int[] label;
+        private final int[] active;
+        private final AtomicIntegerArray cheapest;
+
+        Cheapest(int[] label, int[] active, AtomicIntegerArray cheapest, int from, int to) {
+            super(from, to);
+            this.label = label;
+            this.active = active;
+            this.cheapest = cheapest;
+        }
+
+        Sweep split(int from, int to) {
+            return new Cheapest(label, active, cheapest, from, to);
+        }
+
+        void sweep() {
+            for (int i = from; i < to; i++) {
+                int e = active[i];
+                int a = label[edgeV[e]];
+                int b = label[edgeW[e]];
+                if (a != b) {
+                    offer(a, e);
+                    offer(b, e);
+                }
+            }
+        }
+
+        private void offer(int tree, int e) {
+            while (true) {
+                int current = cheapest.get(tree);
+                if (current >= 0 && !lighter(e, current)) {
+                    return;
+                }
+                if (cheapest.compareAndSet(tree, current, e)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels every vertex with the root of its tree after a round of unions.
+     */
+    @SuppressWarnings("serial")
+    private class Relabel extends Sweep {
+        private final int[] label;
+
+        Relabel(int[] label, int from, int to) {
+            super(from, to);
+            this.label = label;
+        }
+
+        Sweep split(int from, int to) {
+            return new Relabel(label, from, to);
+        }
+
+        void sweep() {
+            for (int v = from; v < to; v++) {
+                label[v] = root(label[v]);
+            }
+        }
+    }
+
+    /**
+     * Drops the active edges that now lie inside one tree. Each chunk of {@link #GRAIN} edges is packed to its own
+     * start and the number kept is recorded, so the chunks can be packed together afterwards.
+     */
+    @SuppressWarnings("serial")
+    private class Compact extends Sweep {
+        private final int[] label;
+        private final int[] active;
+        private final int activeCount;
+        private final int[] counts;
+
+        Compact(int[] label, int[] active, int activeCount, int[] counts, int from, int to) {
+            super(from, to);
+            this.label = label;
+            this.active = active;
+            this.activeCount = activeCount;
+            this.counts = counts;
+        }
+
+        int grain() {
+            return 1;
+        }
+
+        Sweep split(int from, int to) {
+            return new Compact(label, active, activeCount, counts, from, to);
+        }
+
+        void sweep() {
+            for (int c = from; c < to; c++) {
+                int start = c * GRAIN;
+                int end = Math.min(activeCount, start + GRAIN);
+                int kept = start;
+                for (int i = start; i < end; i++) {
+                    int e = active[i];
+                    if (label[edgeV[e]] != label[edgeW[e]]) {
+                        active[kept++] = e;
+                    }
+                }
+                counts[c] = kept - start;
+            }
+        }
+    }
+}
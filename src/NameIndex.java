@@ -0,0 +1,60 @@
+import java.util.HashMap;
+
+/**
+ * Hash index from the type and name of a graph object to the object itself, so a {@link Vertex} or {@link Edge} can
+ * be found by name in constant time instead of by scanning every object. Each type has its own table of names, so
+ * no key has to be built to look an object up.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class NameIndex<T> {
+    private final HashMap<String, HashMap<String, T>> types = new HashMap<String, HashMap<String, T>>();
+
+    /**
+     * Gets the object with a type and name and returns it.
+     *
+     * @param type	String type of the object
+     * @param name	String name of the object
+     * @return		the object, or <code>null</code> if none has that type and name
+     */
+    public T get(String type, String name) {
+        HashMap<String, T> names = types.get(type);
+        return names == null ? null : names.get(name);
+    }
+
+    /**
+     * Adds an object under a type and name, unless another object already has them.
+     *
+     * @param type		String type of the object
+     * @param name		String name of the object
+     * @param object	object to add
+     * @return		    boolean stating whether the object was added
+     */
+    public boolean put(String type, String name, T object) {
+        HashMap<String, T> names = types.get(type);
+        if (names == null) {
+            names = new HashMap<String, T>();
+            types.put(type, names);
+        }
+        if (names.containsKey(name)) {
+            return false;
+        }
+        names.put(name, object);
+        return true;
+    }
+
+    /**
+     * Removes an object from under a type and name, if it is the object held there.
+     *
+     * @param type		String type of the object
+     * @param name		String name of the object
+     * @param object	object to remove
+     */
+    public void remove(String type, String name, T object) {
+        HashMap<String, T> names = types.get(type);
+        if (names != null && names.get(name) == object) {
+            names.remove(name);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+/**
+ * Table of interned strings held as UTF-8 bytes in one shared array, so that millions of names cost a few bytes each
+ * rather than a {@link String} object apiece. Each distinct string is stored once and known by a number, and strings
+ * are found again through an open-addressed hash table of those numbers.
+ *
+ * Strings are never removed, so a table that sees many renames keeps the old names until it is rebuilt.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+class NameTable {
+    private byte[] bytes = new byte[1024];
+    private int used;
+    private int[] start = new int[65];
+    private int count;
+    private int[] slots = empty(64);
+
+    /**
+     * Gets the number of a string, adding the string if it is not in the table yet.
+     *
+     * @param s		String to intern
+     * @return		the number of the string
+     */
+    int intern(String s) {
+        byte[] encoded = s.getBytes(GraphFile.UTF8);
+        int slot = slot(encoded);
+        if (slots[slot] >= 0) {
+            return slots[slot];
+        }
+        if (used + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(used + encoded.length, bytes.length * 2));
+        }
+        if (count + 1 == start.length) {
+            start = Arrays.copyOf(start, Math.max(64, start.length * 2));
+        }
+        System.arraycopy(encoded, 0, bytes, used, encoded.length);
+        used += encoded.length;
+        slots[slot] = count;
+        count++;
+        start[count] = used;
+        if (2 * count > slots.length) {
+            rehash();
+        }
+        return count - 1;
+    }
+
+    /**
+     * Gets the number of a string without adding it.
+     *
+     * @param s		String to find
+     * @return		the number of the string, or -1 if it is not in the table
+     */
+    int find(String s) {
+        return slots[slot(s.getBytes(GraphFile.UTF8))];
+    }
+
+    /**
+     * Decodes a string of the table and returns it.
+     *
+     * @param id	number of the string
+     * @return		the String
+     */
+    String get(int id) {
+        return new String(bytes, start[id], start[id + 1] - start[id], GraphFile.UTF8);
+    }
+
+    /**
+     * Gets the number of distinct strings in the table and returns it.
+     *
+     * @return	number of strings
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Shrinks the byte and offset arrays to fit the strings in the table.
+     */
+    void trimToSize() {
+        bytes = Arrays.copyOf(bytes, used);
+        start = Arrays.copyOf(start, count + 2);
+    }
+
+    /**
+     * Finds the slot holding a string, or the empty slot it would go in.
+     */
+    private int slot(byte[] encoded) {
+        int mask = slots.length - 1;
+        int slot = hash(encoded, 0, encoded.length) & mask;
+        while (slots[slot] >= 0 && !matches(slots[slot], encoded)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int id, byte[] encoded) {
+        int from = start[id];
+        if (start[id + 1] - from != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes[from + i] != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = empty(slots.length * 2);
+        int mask = slots.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hash(bytes, start[id], start[id + 1] - start[id]) & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    static int hash(byte[] data, int from, int length) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < from + length; i++) {
+            h = (h ^ data[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static int[] empty(int size) {
+        int[] slots = new int[size];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+}
@@ -0,0 +1,99 @@
+import java.beans.ConstructorProperties;
+
+/**
+ * The counts recorded by {@link GraphMetrics} for one operation of a {@link Graph}: how often it was called, how
+ * long the calls took and how many vertices and edges they visited between them. Percentiles are read from a
+ * histogram, so each is the highest value of the bucket it falls in.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class OperationStats {
+    private final String name;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long verticesVisited;
+    private final long edgesVisited;
+
+    /**
+     * Creates the OperationStats of an operation.
+     *
+     * @param name		        String naming the operation
+     * @param count		        number of calls
+     * @param totalNanos	    time taken by all calls together in nanoseconds
+     * @param maxNanos	        time taken by the slowest call
+     * @param p50Nanos	        median time taken
+     * @param p90Nanos	        90th percentile of the time taken
+     * @param p99Nanos	        99th percentile of the time taken
+     * @param verticesVisited	number of vertices visited by all calls together
+     * @param edgesVisited	    number of edges visited by all calls together
+     */
+    @ConstructorProperties({"name", "count", "totalNanos", "maxNanos", "p50Nanos", "p90Nanos", "p99Nanos",
+            "verticesVisited", "edgesVisited"})
+    public OperationStats(String name, long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos,
+            long p99Nanos, long verticesVisited, long edgesVisited) {
+        this.name = name;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.verticesVisited = verticesVisited;
+        this.edgesVisited = edgesVisited;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getVerticesVisited() {
+        return verticesVisited;
+    }
+
+    public long getEdgesVisited() {
+        return edgesVisited;
+    }
+
+    /**
+     * Gets the mean time taken by a call and returns it.
+     *
+     * @return	mean time in nanoseconds, or 0 if there were no calls
+     */
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    public String toString() {
+        return String.format("%s: %d calls, mean %.0fns, p50 %dns, p90 %dns, p99 %dns, max %dns, %d vertices, %d edges",
+                name, count, getMeanNanos(), p50Nanos, p90Nanos, p99Nanos, maxNanos, verticesVisited, edgesVisited);
+    }
+}
@@ -0,0 +1,310 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous breadth first search that expands each level of the search in parallel on a
+ * {@link ForkJoinPool}, for graphs too large to search quickly on one thread.
+ *
+ * Each level is expanded in one of two directions. While the frontier is small the search works top-down: the
+ * vertices of the frontier, held in an int array, are shared between tasks, and each task claims unvisited
+ * neighbours by setting their bit in the visited bitmap with a compare-and-set. Once the edges leaving the frontier
+ * outnumber a fraction of the edges still unexplored, the search switches to bottom-up: every unvisited vertex looks
+ * for any neighbour in the frontier, now held as a bitmap, and stops at the first one found. Each bottom-up task owns
+ * whole words of the bitmaps, so no compare-and-set is needed. The search switches back to top-down once the
+ * frontier shrinks again.
+ *
+ * Levels with a small frontier are expanded on the calling thread, so sweeping a graph of many small components does
+ * not pay for forking tasks.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ParallelBreadthFirstSearch {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int SEQUENTIAL_FRONTIER = 1024;
+    private static final int FRONTIER_GRAIN = 256;
+    private static final int WORD_GRAIN = 64;
+
+    private final Topology store;
+    private final ForkJoinPool pool;
+    private final int n;
+    private final long totalDegree;
+
+    private final AtomicLongArray visited;
+    private final int[] parent;
+    private final int[] component;
+    private int[] frontier;
+    private int[] next;
+    private int frontierSize;
+    private long[] frontierBits;
+    private long[] nextBits;
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private final AtomicLong nextDegree = new AtomicLong();
+    private int currentComponent;
+    private int topDownLevels;
+    private int bottomUpLevels;
+
+    /**
+     * Creates a search over <code>store</code>, which must not change while the search is in use.
+     *
+     * @param store	Topology to search
+     * @param pool	ForkJoinPool to expand levels in
+     */
+    public ParallelBreadthFirstSearch(Topology store, ForkJoinPool pool) {
+        this.store = store;
+        this.pool = pool;
+        this.n = store.size();
+        long degrees = 0;
+        for (int v = 0; v < n; v++) {
+            degrees += store.degree(v);
+        }
+        this.totalDegree = degrees;
+
+        int words = (n + 63) >>> 6;
+        visited = new AtomicLongArray(words);
+        parent = new int[n];
+        component = new int[n];
+        frontier = new int[n];
+        next = new int[n];
+        frontierBits = new long[words];
+        nextBits = new long[words];
+    }
+
+    /**
+     * Searches from <code>start</code> and returns the parent of every vertex in the breadth first tree.
+     *
+     * @param start	index of the Vertex to start search from
+     * @return		array holding the parent index of each vertex, <code>start</code> for the start itself and -1 for
+     *              vertices that cannot be reached; the array is reused by the next search
+     */
+    public int[] search(int start) {
+        clear();
+        run(start);
+        return parent;
+    }
+
+    /**
+     * Sweeps the whole graph, searching again from every vertex not yet reached, and returns the connected component
+     * of every vertex.
+     *
+     * @return	array holding a component number from 0 upwards for each vertex; the array is reused by the next search
+     */
+    public int[] components() {
+        clear();
+        for (int v = 0; v < n; v++) {
+            if ((visited.get(v >>> 6) & (1L << v)) == 0) {
+                run(v);
+                currentComponent++;
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Get and return the number of levels expanded top-down since the search was created
+     *
+     * @return	number of top-down levels
+     */
+    public int getTopDownLevels() {
+        return topDownLevels;
+    }
+
+    /**
+     * Get and return the number of levels expanded bottom-up since the search was created
+     *
+     * @return	number of bottom-up levels
+     */
+    public int getBottomUpLevels() {
+        return bottomUpLevels;
+    }
+
+    private void clear() {
+        for (int i = 0; i < visited.length(); i++) {
+            visited.set(i, 0);
+        }
+        Arrays.fill(parent, -1);
+        currentComponent = 0;
+    }
+
+    /**
+     * Searches from one vertex, leaving vertices visited by earlier runs alone.
+     */
+    private void run(int start) {
+        visited.set(start >>> 6, visited.get(start >>> 6) | (1L << start));
+        parent[start] = start;
+        component[start] = currentComponent;
+        frontier[0] = start;
+        frontierSize = 1;
+
+        long frontierDegree = store.degree(start);
+        long unexplored = totalDegree - frontierDegree;
+        boolean bottomUp = false;
+
+        while (frontierSize > 0) {
+            if (!bottomUp && frontierDegree > unexplored / ALPHA && frontierSize >= SEQUENTIAL_FRONTIER) {
+                bottomUp = true;
+                Arrays.fill(frontierBits, 0);
+                for (int i = 0; i < frontierSize; i++) {
+                    frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+                }
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+                frontierSize = 0;
+                for (int word = 0; word < frontierBits.length; word++) {
+                    for (long bits = frontierBits[word]; bits != 0; bits &= bits - 1) {
+                        frontier[frontierSize++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    }
+                }
+            }
+
+            nextSize.set(0);
+            nextDegree.set(0);
+            if (bottomUp) {
+                bottomUpLevels++;
+                pool.invoke(new BottomUp(0, frontierBits.length));
+                long[] swap = frontierBits;
+                frontierBits = nextBits;
+                nextBits = swap;
+            } else {
+                topDownLevels++;
+                TopDown level = new TopDown(0, frontierSize);
+                if (frontierSize < SEQUENTIAL_FRONTIER) {
+                    level.compute();
+                } else {
+                    pool.invoke(level);
+                }
+                int[] swap = frontier;
+                frontier = next;
+                next = swap;
+            }
+            frontierSize = nextSize.get();
+            frontierDegree = nextDegree.get();
+            unexplored -= frontierDegree;
+        }
+    }
+
+    /**
+     * Claims a vertex for the current level by setting its visited bit.
+     *
+     * @return	boolean stating whether this call set the bit
+     */
+    private boolean claim(int vIndex) {
+        int word = vIndex >>> 6;
+        long bit = 1L << vIndex;
+        while (true) {
+            long old = visited.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Expands a range of the frontier array, gathering newly claimed vertices in a local buffer that is copied into
+     * the next frontier with a single atomic reservation.
+     */
+    @SuppressWarnings("serial")
+    private class TopDown extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        TopDown(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > FRONTIER_GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TopDown(from, middle), new TopDown(middle, to));
+                return;
+            }
+
+            int[] found = new int[16];
+            int count = 0;
+            long degree = 0;
+            for (int q = from; q < to; q++) {
+                int vIndex = frontier[q];
+                for (int i = 0; i < store.degree(vIndex); i++) {
+                    int wIndex = store.neighbour(vIndex, i);
+                    if (claim(wIndex)) {
+                        parent[wIndex] = vIndex;
+                        component[wIndex] = currentComponent;
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = wIndex;
+                        degree += store.degree(wIndex);
+                    }
+                }
+            }
+            if (count > 0) {
+                System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+                nextDegree.addAndGet(degree);
+            }
+        }
+    }
+
+    /**
+     * Checks every unvisited vertex in a range of bitmap words for a neighbour in the frontier. The task owns its
+     * words of the visited and next frontier bitmaps, so it can write them without a compare-and-set.
+     */
+    @SuppressWarnings("serial")
+    private class BottomUp extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        BottomUp(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > WORD_GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BottomUp(from, middle), new BottomUp(middle, to));
+                return;
+            }
+
+            int count = 0;
+            long degree = 0;
+            for (int word = from; word < to; word++) {
+                long seen = visited.get(word);
+                long found = 0;
+                int end = Math.min(n, (word + 1) << 6);
+                for (int vIndex = word << 6; vIndex < end; vIndex++) {
+                    if ((seen & (1L << vIndex)) != 0) {
+                        continue;
+                    }
+                    for (int i = 0; i < store.degree(vIndex); i++) {
+                        int wIndex = store.neighbour(vIndex, i);
+                        if ((frontierBits[wIndex >>> 6] & (1L << wIndex)) != 0) {
+                            parent[vIndex] = wIndex;
+                            component[vIndex] = currentComponent;
+                            found |= 1L << vIndex;
+                            count++;
+                            degree += store.degree(vIndex);
+                            break;
+                        }
+                    }
+                }
+                nextBits[word] = found;
+                if (found != 0) {
+                    visited.set(word, seen | found);
+                }
+            }
+            if (count > 0) {
+                nextSize.addAndGet(count);
+                nextDegree.addAndGet(degree);
+            }
+        }
+    }
+}
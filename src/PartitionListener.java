@@ -0,0 +1,28 @@
+/**
+ * Receives an event from a {@link ConnectivityTracker} whenever a change to a {@link Graph} merges two partitions of
+ * the network or splits one apart. Events are delivered on the thread changing the graph.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface PartitionListener {
+
+    /**
+     * Called when a new {@link Edge} joins two partitions into one.
+     *
+     * @param v				Vertex at one end of the Edge
+     * @param w				Vertex at the other end of the Edge
+     * @param partitions	number of partitions after the merge
+     */
+    void partitionsMerged(Vertex v, Vertex w, int partitions);
+
+    /**
+     * Called when removing an {@link Edge} or a {@link Vertex} cuts a partition in two. A removal that leaves
+     * several pieces behind is reported once for each new piece.
+     *
+     * @param v				Vertex on one side of the cut
+     * @param w				Vertex on the other side of the cut
+     * @param partitions	number of partitions after the split
+     */
+    void partitionSplit(Vertex v, Vertex w, int partitions);
+}
@@ -0,0 +1,152 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the routes found by {@link Graph#path(Vertex, Vertex)}. Routes are keyed by the indices of their
+ * endpoints and stamped with the version of the {@link Graph} they were found in, so a route found before the
+ * topology last changed is treated as a miss. Once the cache is full the least recently used route is evicted.
+ *
+ * Counts of hits, misses and evictions are kept so the capacity can be tuned. All methods are synchronized, so
+ * one cache can be shared by every thread querying a Graph.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class RouteCache {
+    private final int capacity;
+    private final LinkedHashMap<Long, Route> routes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A cached route together with the version of the graph it was found in.
+     */
+    static class Route {
+        final long version;
+        final Graph graph;
+
+        Route(long version, Graph graph) {
+            this.version = version;
+            this.graph = graph;
+        }
+    }
+
+    /**
+     * Creates a RouteCache holding at most <code>capacity</code> routes.
+     *
+     * @param capacity	maximum number of routes to hold
+     */
+    public RouteCache(int capacity) {
+        this.capacity = capacity;
+        this.routes = new LinkedHashMap<Long, Route>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, Route> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the route between two vertex indices if one was cached for the current <code>version</code> of the graph.
+     * A route cached for an older version is dropped.
+     *
+     * @param start		index of the start {@link Vertex}
+     * @param finish	index of the finish Vertex
+     * @param version	current version of the {@link Graph}
+     * @return		    the cached Route, whose graph is <code>null</code> when no path exists, or <code>null</code> on a miss
+     */
+    synchronized Route get(int start, int finish, long version) {
+        Long key = key(start, finish);
+        Route entry = routes.get(key);
+        if (entry != null && entry.version == version) {
+            hits++;
+            return entry;
+        }
+        if (entry != null) {
+            routes.remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches the route between two vertex indices.
+     *
+     * @param start		index of the start {@link Vertex}
+     * @param finish	index of the finish Vertex
+     * @param version	version of the {@link Graph} the route was found in
+     * @param route		Graph of the route, or <code>null</code> when no path exists
+     */
+    synchronized void put(int start, int finish, long version, Graph route) {
+        if (capacity > 0) {
+            routes.put(key(start, finish), new Route(version, route));
+        }
+    }
+
+    /**
+     * Removes every route from the cache.
+     */
+    public synchronized void clear() {
+        routes.clear();
+    }
+
+    /**
+     * Gets the maximum number of routes held and returns it.
+     *
+     * @return	the capacity of the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of routes currently held and returns it.
+     *
+     * @return	the number of cached routes, including any left over from older versions
+     */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache and returns it.
+     *
+     * @return	number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to search the graph and returns it.
+     *
+     * @return	number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of routes evicted to make room for newer ones and returns it.
+     *
+     * @return	number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Packs the indices of two endpoints into one key.
+     *
+     * @param start		index of the start {@link Vertex}
+     * @param finish	index of the finish Vertex
+     * @return		    key for the pair
+     */
+    private static Long key(int start, int finish) {
+        return ((long) start << 32) | (finish & 0xffffffffL);
+    }
+}
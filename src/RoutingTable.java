@@ -0,0 +1,218 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Next hop forwarding tables for a set of source vertices, computed by running one breadth first search per
+ * source. Sources are split between the threads of a {@link ForkJoinPool}, and every thread keeps its own search
+ * arrays, so the searches run in parallel without sharing any state, and a worker reuses its arrays for every
+ * batch of sources it is given, in this table and the next.
+ *
+ * The next hop is stored as the position of the neighbour in the source's neighbour list rather than as a vertex
+ * index, which fits in a single byte per entry whenever no source has more than 254 neighbours. Tables can be
+ * computed for just the sources that need them, so large graphs do not need a full vertex-by-vertex table.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class RoutingTable {
+    /** Next hop reported when the destination cannot be reached. */
+    public static final int NO_ROUTE = -1;
+
+    private static final int SOURCES_PER_TASK = 16;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private final int size;
+    private final int[] sources;
+    private final int[] row;
+    private final int[][] neighbours;
+    private final byte[] smallSlots;
+    private final int[] largeSlots;
+
+    /**
+     * Computes the next hops from each of <code>sources</code> to every vertex of <code>store</code>.
+     *
+     * @param store		Topology to compute routes over, which must not change during the computation
+     * @param sources	indices of the vertices to compute tables for
+     * @param pool		ForkJoinPool to run the searches in
+     */
+    public RoutingTable(Topology store, int[] sources, ForkJoinPool pool) {
+        this.size = store.size();
+        this.sources = sources.clone();
+        this.row = new int[size];
+        this.neighbours = new int[sources.length][];
+
+        Arrays.fill(row, -1);
+        int maxDegree = 0;
+        for (int r = 0; r < sources.length; r++) {
+            int source = sources[r];
+            row[source] = r;
+            neighbours[r] = new int[store.degree(source)];
+            for (int i = 0; i < neighbours[r].length; i++) {
+                neighbours[r][i] = store.neighbour(source, i);
+            }
+            maxDegree = Math.max(maxDegree, neighbours[r].length);
+        }
+
+        long entries = (long) sources.length * size;
+        if (entries > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Routing table for " + sources.length + " sources and " + size
+                    + " vertices is too large; compute it for fewer sources");
+        }
+        if (maxDegree < 255) {
+            smallSlots = new byte[(int) entries];
+            largeSlots = null;
+        } else {
+            smallSlots = null;
+            largeSlots = new int[(int) entries];
+        }
+
+        pool.invoke(new Search(store, 0, sources.length));
+    }
+
+    /**
+     * Gets the index of the vertex a packet at <code>source</code> should be forwarded to on its way to
+     * <code>destination</code> and returns it.
+     *
+     * @param source		index of the Vertex the packet is at, which must be one of the sources of the table
+     * @param destination	index of the Vertex the packet is going to
+     * @return		        index of the neighbouring Vertex to forward to, <code>source</code> itself when it is the
+     *                      destination, or {@link #NO_ROUTE}
+     */
+    public int nextHop(int source, int destination) {
+        int r = row[source];
+        if (r < 0) {
+            throw new IllegalArgumentException("No routing table was computed for vertex " + source);
+        }
+        if (source == destination) {
+            return source;
+        }
+        int entry = r * size + destination;
+        int slot = smallSlots != null ? (smallSlots[entry] & 0xff) - 1 : largeSlots[entry] - 1;
+        return slot < 0 ? NO_ROUTE : neighbours[r][slot];
+    }
+
+    /**
+     * Gets the indices of the vertices tables were computed for and returns them.
+     *
+     * @return	array of source indices
+     */
+    public int[] getSources() {
+        return sources.clone();
+    }
+
+    /**
+     * Gets the number of vertices the tables cover and returns it.
+     *
+     * @return	the number of destinations per source
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Runs the searches for a range of sources, splitting the range in half until it is small enough to do
+     * directly. Each leaf borrows the search arrays of the thread running it and reuses them for all of its sources.
+     */
+    @SuppressWarnings("serial")
+    private class Search extends RecursiveAction {
+        private final Topology store;
+        private final int from;
+        private final int to;
+
+        Search(Topology store, int from, int to) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Search(store, from, middle), new Search(store, middle, to));
+                return;
+            }
+
+            Scratch scratch = SCRATCH.get();
+            for (int r = from; r < to; r++) {
+                search(r, scratch.reset(size), scratch.queue, scratch.stamp, scratch.firstSlot);
+            }
+        }
+
+        /**
+         * Breadth first search from the source of row <code>r</code>, stamping visited vertices with
+         * <code>epoch</code> and recording for each one the slot of the source's neighbour it was reached through.
+         */
+        private void search(int r, int epoch, int[] queue, int[] stamp, int[] firstSlot) {
+            int source = sources[r];
+            int base = r * size;
+            int head = 0;
+            int tail = 0;
+
+            stamp[source] = epoch;
+            for (int i = 0; i < store.degree(source); i++) {
+                int wIndex = store.neighbour(source, i);
+                if (stamp[wIndex] != epoch) {
+                    stamp[wIndex] = epoch;
+                    firstSlot[wIndex] = i + 1;
+                    queue[tail++] = wIndex;
+                }
+            }
+            while (head < tail) {
+                int vIndex = queue[head++];
+                int slot = firstSlot[vIndex];
+                record(base + vIndex, slot);
+                for (int i = 0; i < store.degree(vIndex); i++) {
+                    int wIndex = store.neighbour(vIndex, i);
+                    if (stamp[wIndex] != epoch) {
+                        stamp[wIndex] = epoch;
+                        firstSlot[wIndex] = slot;
+                        queue[tail++] = wIndex;
+                    }
+                }
+            }
+        }
+
+        private void record(int entry, int slot) {
+            if (smallSlots != null) {
+                smallSlots[entry] = (byte) slot;
+            } else {
+                largeSlots[entry] = slot;
+            }
+        }
+    }
+
+    /**
+     * Search arrays of one thread, which are grown as needed and never cleared. Each search takes a new epoch, and
+     * a vertex counts as visited only when it is stamped with the epoch of the current search.
+     */
+    private static class Scratch {
+        int[] queue = new int[0];
+        int[] stamp = new int[0];
+        int[] firstSlot = new int[0];
+        private int epoch;
+
+        /**
+         * Starts a new search over <code>size</code> vertices and returns its epoch.
+         */
+        int reset(int size) {
+            if (stamp.length < size) {
+                int capacity = Math.max(size, stamp.length * 2);
+                queue = new int[capacity];
+                stamp = new int[capacity];
+                firstSlot = new int[capacity];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Uniform grid over the positions of the vertices of a {@link Graph}, used to find the vertices within radio range
+ * of each other without comparing every pair. The plane is cut into square cells as wide as the range, so every
+ * vertex within range of a point lies in the cell of the point or one of the eight cells around it.
+ *
+ * Only a {@link Vertex} with a position is held. Vertices are given grid ids, and the cell and place in the cell of
+ * each id are kept in primitive arrays. Each cell keeps the coordinates of its members beside their ids, so a scan
+ * of a cell reads one run of memory and touches a Vertex only when it is within range. Cells are found by their column and row through an open
+ * addressing table, so the plane need not be bounded, and a cell stays allocated once used. A vertex moved with
+ * {@link Graph#move(Vertex, double, double)} changes cell as soon as the grid hears of the move and is marked as pending, and
+ * {@link Graph#refreshLinks()} then looks only at the pending vertices and the cells around them.
+ *
+ * A graph has one grid, created by {@link Graph#linkWithinRange(double)} and updated from its
+ * {@link TopologyListener} events. All methods are synchronized, so it can be queried from any thread.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class SpatialGrid implements TopologyListener {
+    private static final int EMPTY = -1;
+
+    private final double range;
+    private final IdentityHashMap<Vertex, Integer> ids = new IdentityHashMap<Vertex, Integer>();
+    private Vertex[] vertices = new Vertex[16];
+    private int[] cellOf = new int[16];
+    private int[] slotOf = new int[16];
+    private boolean[] pending = new boolean[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int nextId;
+
+    private long[] cellKey = new long[16];
+    private int[][] members = new int[16][];
+    private double[][] memberX = new double[16][];
+    private double[][] memberY = new double[16][];
+    private int[] memberCount = new int[16];
+    private int cellCount;
+    private int[] table = new int[32];
+
+    private int[] pendingList = new int[16];
+    private int pendingCount;
+    private long names;
+
+    /**
+     * Creates an empty grid for a range. The caller holds the write lock of the graph, adds every positioned
+     * {@link Vertex} and registers the grid as a listener.
+     *
+     * @param range	greatest distance between two vertices that are in range of each other
+     */
+    SpatialGrid(double range) {
+        if (!(range > 0) || Double.isInfinite(range)) {
+            throw new IllegalArgumentException("A spatial grid needs a positive, finite range, not " + range);
+        }
+        this.range = range;
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Gets the range of the grid and returns it.
+     *
+     * @return	greatest distance between two vertices that are in range of each other
+     */
+    public double getRange() {
+        return range;
+    }
+
+    /**
+     * Gets the number of vertices held by the grid and returns it.
+     *
+     * @return	number of positioned vertices
+     */
+    public synchronized int getVertexCount() {
+        return ids.size();
+    }
+
+    /**
+     * Gets the number of cells allocated so far and returns it.
+     *
+     * @return	number of cells
+     */
+    public synchronized int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Gets the number of vertices that have moved or been inserted since the links were last refreshed and returns
+     * it.
+     *
+     * @return	number of pending vertices
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Finds every {@link Vertex} held by the grid within range of a point.
+     *
+     * @param x	x coordinate of the point
+     * @param y	y coordinate of the point
+     * @return	list of the vertices within range, in no particular order
+     */
+    public synchronized ArrayList<Vertex> withinRange(double x, double y) {
+        ArrayList<Vertex> found = new ArrayList<Vertex>();
+        withinRange(x, y, null, found);
+        return found;
+    }
+
+    /**
+     * Checks whether the grid holds a {@link Vertex}.
+     *
+     * @param v	Vertex to check
+     * @return	boolean stating whether the Vertex has a position in the grid
+     */
+    public synchronized boolean contains(Vertex v) {
+        return ids.containsKey(v);
+    }
+
+    /**
+     * Adds a {@link Vertex} that has a position, or moves it to the cell of its current position if it is already
+     * held, and marks it as pending. A Vertex without a position is ignored.
+     *
+     * @param v	Vertex to place
+     */
+    synchronized void place(Vertex v) {
+        if (!v.hasPosition()) {
+            return;
+        }
+        Integer known = ids.get(v);
+        int id;
+        if (known == null) {
+            id = freeCount > 0 ? free[--freeCount] : nextId++;
+            ensureIds(id + 1);
+            ids.put(v, id);
+            vertices[id] = v;
+            cellOf[id] = EMPTY;
+        } else {
+            id = known;
+        }
+        int cell = cell(column(v.getX()), column(v.getY()), true);
+        if (cell != cellOf[id]) {
+            if (cellOf[id] != EMPTY) {
+                leave(id);
+            }
+            join(id, cell);
+        }
+        memberX[cell][slotOf[id]] = v.getX();
+        memberY[cell][slotOf[id]] = v.getY();
+        if (!pending[id]) {
+            pending[id] = true;
+            if (pendingCount == pendingList.length) {
+                pendingList = Arrays.copyOf(pendingList, pendingCount * 2);
+            }
+            pendingList[pendingCount++] = id;
+        }
+    }
+
+    /**
+     * Gets the number of entries in the pending list, some of which may have been removed since.
+     *
+     * @return	length of the pending list
+     */
+    synchronized int pendingLength() {
+        return pendingCount;
+    }
+
+    /**
+     * Gets an entry of the pending list and returns it.
+     *
+     * @param i	position in the pending list
+     * @return	the pending Vertex, or <code>null</code> if it has been removed since
+     */
+    synchronized Vertex pendingVertex(int i) {
+        int id = pendingList[i];
+        return pending[id] ? vertices[id] : null;
+    }
+
+    /**
+     * Empties the pending list once the links of every pending vertex have been refreshed.
+     */
+    synchronized void clearPending() {
+        for (int i = 0; i < pendingCount; i++) {
+            pending[pendingList[i]] = false;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Checks whether the positions of two vertices are within range of each other.
+     *
+     * @param v	Vertex v
+     * @param w	Vertex w
+     * @return	boolean stating whether the vertices are within range
+     */
+    boolean inRange(Vertex v, Vertex w) {
+        double dx = v.getX() - w.getX();
+        double dy = v.getY() - w.getY();
+        return dx * dx + dy * dy <= range * range;
+    }
+
+    /**
+     * Adds every held {@link Vertex} within range of a point to a list, looking only in the cell of the point and
+     * the eight cells around it.
+     *
+     * @param x		x coordinate of the point
+     * @param y		y coordinate of the point
+     * @param skip	Vertex to leave out, or <code>null</code>
+     * @param found	list to add the vertices to
+     */
+    synchronized void withinRange(double x, double y, Vertex skip, ArrayList<Vertex> found) {
+        long column = column(x);
+        long row = column(y);
+        double limit = range * range;
+        for (long gx = column - 1; gx <= column + 1; gx++) {
+            for (long gy = row - 1; gy <= row + 1; gy++) {
+                int cell = cell(gx, gy, false);
+                if (cell == EMPTY) {
+                    continue;
+                }
+                double[] cellX = memberX[cell];
+                double[] cellY = memberY[cell];
+                for (int i = 0; i < memberCount[cell]; i++) {
+                    double dx = cellX[i] - x;
+                    double dy = cellY[i] - y;
+                    if (dx * dx + dy * dy <= limit) {
+                        Vertex w = vertices[members[cell][i]];
+                        if (w != skip) {
+                            found.add(w);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes a name for a new link that no earlier call has given.
+     *
+     * @return	String name for a Channel
+     */
+    synchronized String nextName() {
+        return "range-" + names++;
+    }
+
+    public synchronized void vertexInserted(Graph graph, Vertex v) {
+        place(v);
+    }
+
+    public synchronized void vertexRemoved(Graph graph, Vertex v) {
+        Integer id = ids.remove(v);
+        if (id == null) {
+            return;
+        }
+        leave(id);
+        vertices[id] = null;
+        pending[id] = false;
+        free[freeCount++] = id;
+    }
+
+    public void edgeInserted(Graph graph, Edge e) {
+    }
+
+    public void edgeRemoved(Graph graph, Edge e) {
+    }
+
+    public void vertexRenamed(Graph graph, Vertex v, String oldName) {
+    }
+
+    public void edgeRenamed(Graph graph, Edge e, String oldName) {
+    }
+
+    public synchronized void vertexMoved(Graph graph, Vertex v) {
+        place(v);
+    }
+
+    /**
+     * Gets the column, or row, of the cells holding a coordinate and returns it.
+     */
+    private long column(double coordinate) {
+        return (long) Math.floor(coordinate / range);
+    }
+
+    /**
+     * Looks up the cell at a column and row, optionally allocating it, and returns its number.
+     *
+     * @return	number of the cell, or {@link #EMPTY} if it is missing and not allocated
+     */
+    private int cell(long column, long row, boolean allocate) {
+        long key = (column << 32) ^ (row & 0xFFFFFFFFL);
+        int mask = table.length - 1;
+        int at = hash(key) & mask;
+        while (table[at] != EMPTY) {
+            if (cellKey[table[at]] == key) {
+                return table[at];
+            }
+            at = (at + 1) & mask;
+        }
+        if (!allocate) {
+            return EMPTY;
+        }
+        if (cellCount == cellKey.length) {
+            cellKey = Arrays.copyOf(cellKey, cellCount * 2);
+            members = Arrays.copyOf(members, cellCount * 2);
+            memberX = Arrays.copyOf(memberX, cellCount * 2);
+            memberY = Arrays.copyOf(memberY, cellCount * 2);
+            memberCount = Arrays.copyOf(memberCount, cellCount * 2);
+        }
+        int cell = cellCount++;
+        cellKey[cell] = key;
+        members[cell] = new int[4];
+        memberX[cell] = new double[4];
+        memberY[cell] = new double[4];
+        table[at] = cell;
+        if (cellCount * 2 > table.length) {
+            rehash();
+        }
+        return cell;
+    }
+
+    /**
+     * Doubles the lookup table of the cells and enters every cell again.
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int at = hash(cellKey[cell]) & mask;
+            while (table[at] != EMPTY) {
+                at = (at + 1) & mask;
+            }
+            table[at] = cell;
+        }
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * Adds an id to the end of the members of a cell. The caller sets its coordinates.
+     */
+    private void join(int id, int cell) {
+        if (memberCount[cell] == members[cell].length) {
+            members[cell] = Arrays.copyOf(members[cell], memberCount[cell] * 2);
+            memberX[cell] = Arrays.copyOf(memberX[cell], memberCount[cell] * 2);
+            memberY[cell] = Arrays.copyOf(memberY[cell], memberCount[cell] * 2);
+        }
+        slotOf[id] = memberCount[cell];
+        members[cell][memberCount[cell]++] = id;
+        cellOf[id] = cell;
+    }
+
+    /**
+     * Takes an id out of the members of its cell by moving the last member into its place.
+     */
+    private void leave(int id) {
+        int cell = cellOf[id];
+        int end = --memberCount[cell];
+        int last = members[cell][end];
+        members[cell][slotOf[id]] = last;
+        memberX[cell][slotOf[id]] = memberX[cell][end];
+        memberY[cell][slotOf[id]] = memberY[cell][end];
+        slotOf[last] = slotOf[id];
+        cellOf[id] = EMPTY;
+    }
+
+    /**
+     * Grows the arrays kept per id to hold at least <code>capacity</code> ids.
+     */
+    private void ensureIds(int capacity) {
+        if (capacity <= vertices.length) {
+            return;
+        }
+        int length = Math.max(capacity, vertices.length * 2);
+        vertices = Arrays.copyOf(vertices, length);
+        cellOf = Arrays.copyOf(cellOf, length);
+        slotOf = Arrays.copyOf(slotOf, length);
+        pending = Arrays.copyOf(pending, length);
+        free = Arrays.copyOf(free, length);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Read-only view of which {@link Vertex} connects to which {@link Edge}, addressed by vertex index. Searches such as
+ * {@link Traversal}, {@link WeightedSearch}, {@link RoutingTable} and {@link ParallelBreadthFirstSearch} only need
+ * this view, so they run the same over a live {@link AdjacencyStore} and over an immutable
+ * {@link TopologySnapshot}.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface Topology {
+
+    /**
+     * Gets the edge between two vertex indices and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    {@link Edge} between the vertices, or <code>null</code> if they are not adjacent
+     */
+    Edge getEdge(int vIndex, int wIndex);
+
+    /**
+     * Gets the number of edges incident to a vertex index and returns it. Together with {@link #neighbour(int, int)}
+     * and {@link #incidentEdge(int, int)} this forms a cursor over the neighbours of a vertex that visits only the
+     * actual neighbours and allocates nothing.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    int degree(int vIndex);
+
+    /**
+     * Gets the index of the <code>i</code>th neighbour of a vertex index and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour, from 0 to <code>degree(vIndex) - 1</code>
+     * @return		    the index of the neighbouring Vertex
+     */
+    int neighbour(int vIndex, int i);
+
+    /**
+     * Gets the {@link Edge} joining a vertex index to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour, from 0 to <code>degree(vIndex) - 1</code>
+     * @return		    the incident Edge
+     */
+    Edge incidentEdge(int vIndex, int i);
+
+    /**
+     * Gets the number of vertex indices the topology holds and returns it.
+     *
+     * @return	the number of vertices
+     */
+    int size();
+}
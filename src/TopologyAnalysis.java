@@ -0,0 +1,220 @@
+import java.util.Arrays;
+
+/**
+ * Finds the weak points of a topology: its connected components, the bridges whose loss would split a component,
+ * the articulation points whose loss would do the same, and the biconnected components, or blocks, that are left
+ * joined however any one vertex fails. Everything is found in one depth first search using Tarjan's low-link
+ * method, O(V + E) in all, and kept in primitive arrays.
+ *
+ * The search keeps its own stack rather than recursing, so a long chain of relays cannot overflow the thread stack.
+ * An analysis holds the version of the {@link Graph} it was made from and does not change afterwards, so it can be
+ * shared between threads and reused until the graph changes; {@link Graph#analyse()} does so.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TopologyAnalysis {
+    private final long version;
+    private final int[] component;
+    private final int componentCount;
+    private final boolean[] articulation;
+    private final int[] articulationPoints;
+    private final int[] block;
+    private final int blockCount;
+    private final int[] bridges;
+
+    /**
+     * Analyses a topology of <code>n</code> vertices and <code>m</code> edges held in compressed rows: the
+     * neighbours of vertex <code>v</code> are <code>target[offset[v]]</code> up to
+     * <code>target[offset[v + 1] - 1]</code>, reached through the edges numbered in the same positions of
+     * <code>slot</code>. Each edge appears in the rows of both of its endpoints.
+     *
+     * @param version	version of the graph the topology was taken from
+     * @param n		    number of vertices
+     * @param m		    number of edges
+     * @param offset	start of the row of each vertex, with the end of the last row at <code>offset[n]</code>
+     * @param target	neighbour in each position of the rows
+     * @param slot		number of the edge in each position of the rows, from 0 to <code>m - 1</code>
+     */
+    public TopologyAnalysis(long version, int n, int m, int[] offset, int[] target, int[] slot) {
+        this.version = version;
+        this.component = new int[n];
+        this.articulation = new boolean[n];
+        this.block = new int[m];
+        Arrays.fill(block, -1);
+
+        int[] discovered = new int[n];
+        int[] low = new int[n];
+        int[] parentSlot = new int[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        int[] edgeStack = new int[m];
+        boolean[] bridge = new boolean[m];
+        int time = 0;
+        int components = 0;
+        int blocks = 0;
+        int bridgeCount = 0;
+        int articulationCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovered[root] != 0) {
+                continue;
+            }
+            int rootChildren = 0;
+            int depth = 0;
+            int edgeDepth = 0;
+            discovered[root] = low[root] = ++time;
+            parentSlot[root] = -1;
+            next[root] = offset[root];
+            component[root] = components;
+            stack[depth++] = root;
+
+            while (depth > 0) {
+                int v = stack[depth - 1];
+                if (next[v] < offset[v + 1]) {
+                    int k = next[v]++;
+                    int w = target[k];
+                    int e = slot[k];
+                    if (e == parentSlot[v] || w == v) {
+                        continue;
+                    }
+                    if (discovered[w] == 0) {
+                        discovered[w] = low[w] = ++time;
+                        parentSlot[w] = e;
+                        next[w] = offset[w];
+                        component[w] = components;
+                        stack[depth++] = w;
+                        edgeStack[edgeDepth++] = e;
+                        if (v == root) {
+                            rootChildren++;
+                        }
+                    } else if (discovered[w] < discovered[v]) {
+                        edgeStack[edgeDepth++] = e;
+                        low[v] = Math.min(low[v], discovered[w]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (depth == 0) {
+                    break;
+                }
+                int p = stack[depth - 1];
+                low[p] = Math.min(low[p], low[v]);
+                if (low[v] >= discovered[p]) {
+                    if (p != root && !articulation[p]) {
+                        articulation[p] = true;
+                        articulationCount++;
+                    }
+                    int e;
+                    do {
+                        e = edgeStack[--edgeDepth];
+                        block[e] = blocks;
+                    } while (e != parentSlot[v]);
+                    blocks++;
+                    if (low[v] > discovered[p]) {
+                        bridge[parentSlot[v]] = true;
+                        bridgeCount++;
+                    }
+                }
+            }
+            if (rootChildren > 1) {
+                articulation[root] = true;
+                articulationCount++;
+            }
+            components++;
+        }
+
+        this.componentCount = components;
+        this.blockCount = blocks;
+        this.articulationPoints = new int[articulationCount];
+        for (int v = 0, i = 0; v < n; v++) {
+            if (articulation[v]) {
+                articulationPoints[i++] = v;
+            }
+        }
+        this.bridges = new int[bridgeCount];
+        for (int e = 0, i = 0; e < m; e++) {
+            if (bridge[e]) {
+                bridges[i++] = e;
+            }
+        }
+    }
+
+    /**
+     * Gets the version of the graph this analysis was made from and returns it.
+     *
+     * @return	the version of the graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the connected component of a vertex and returns it.
+     *
+     * @param vIndex	index of the {@link Vertex}
+     * @return		    number of the component, from 0 to one less than {@link #getComponentCount()}
+     */
+    public int getComponent(int vIndex) {
+        return component[vIndex];
+    }
+
+    /**
+     * Gets the number of connected components and returns it. A vertex with no edges is a component of its own.
+     *
+     * @return	number of components
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Checks whether removing a vertex would split its component.
+     *
+     * @param vIndex	index of the {@link Vertex}
+     * @return		    boolean stating whether the vertex is an articulation point
+     */
+    public boolean isArticulationPoint(int vIndex) {
+        return articulation[vIndex];
+    }
+
+    /**
+     * Gets the indices of every articulation point and returns them.
+     *
+     * @return	indices of the articulation points, in increasing order
+     */
+    public int[] getArticulationPoints() {
+        return articulationPoints.clone();
+    }
+
+    /**
+     * Gets the slots of every bridge, an {@link Edge} whose removal would split its component, and returns them.
+     *
+     * @return	slots of the bridges, in increasing order
+     */
+    public int[] getBridges() {
+        return bridges.clone();
+    }
+
+    /**
+     * Gets the biconnected component, or block, that an {@link Edge} belongs to and returns it. Two edges are in the
+     * same block when some cycle passes through both; a bridge is a block of its own.
+     *
+     * @param slot	slot of the Edge
+     * @return		number of the block, from 0 to one less than {@link #getBlockCount()}, or -1 for an Edge
+     *              joining a vertex to itself
+     */
+    public int getBlock(int slot) {
+        return block[slot];
+    }
+
+    /**
+     * Gets the number of biconnected components and returns it.
+     *
+     * @return	number of blocks
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+
+/**
+ * Collects insertions and removals of {@link Vertex} and {@link Edge} objects so that a burst of topology updates
+ * can be applied to a {@link Graph} in one go with {@link Graph#apply(TopologyBatch)}. The graph applies the whole
+ * batch while holding its write lock and bumps its version once, so readers see the topology either before or
+ * after the batch and the {@link RouteCache} is invalidated once rather than for every update.
+ *
+ * Vertices and edges are created as soon as they are added to the batch, so an Edge in the batch can join a Vertex
+ * inserted earlier in the same batch. Operations are applied in the order they were added. A batch may be cleared
+ * and reused once it has been applied.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TopologyBatch {
+    static final int INSERT_VERTEX = 0;
+    static final int REMOVE_VERTEX = 1;
+    static final int INSERT_EDGE = 2;
+    static final int REMOVE_EDGE = 3;
+
+    private final ArrayList<Operation> operations = new ArrayList<Operation>();
+    private int vertexInsertions;
+
+    /**
+     * A single insertion or removal waiting to be applied.
+     */
+    static class Operation {
+        final int kind;
+        final Vertex vertex;
+        final Edge edge;
+
+        Operation(int kind, Vertex vertex, Edge edge) {
+            this.kind = kind;
+            this.vertex = vertex;
+            this.edge = edge;
+        }
+    }
+
+    /**
+     * Creates a {@link Vertex} with a specified type and name to be inserted when the batch is applied.
+     *
+     * @param type	String naming the type of Vertex to create
+     * @param name	String of numbers naming the Vertex
+     * @return		the Vertex to be inserted, or <code>null</code> if the type is not recognised
+     */
+    public Vertex insertVertex(String type, String name) {
+        Vertex vertex = Graph.createVertex(type, name);
+        if (vertex != null) {
+            operations.add(new Operation(INSERT_VERTEX, vertex, null));
+            vertexInsertions++;
+        }
+        return vertex;
+    }
+
+    /**
+     * Records a {@link Vertex} and its incident {@link Edge} objects to be removed when the batch is applied.
+     *
+     * @param v		Vertex to be removed
+     */
+    public void removeVertex(Vertex v) {
+        operations.add(new Operation(REMOVE_VERTEX, v, null));
+    }
+
+    /**
+     * Creates an {@link Edge} between two {@link Vertex} endpoints with a specified type and name to be inserted when
+     * the batch is applied. Either endpoint may be a Vertex inserted earlier in this batch.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @param type	String naming the type of Edge to create
+     * @param name	String of numbers naming the Edge
+     * @return		the Edge to be inserted, or <code>null</code> if the type is not recognised
+     */
+    public Edge insertEdge(Vertex v, Vertex w, String type, String name) {
+        Edge edge = Graph.createEdge(v, w, type, name);
+        if (edge != null) {
+            operations.add(new Operation(INSERT_EDGE, null, edge));
+        }
+        return edge;
+    }
+
+    /**
+     * Records an {@link Edge} to be removed when the batch is applied.
+     *
+     * @param e		Edge to be removed
+     */
+    public void removeEdge(Edge e) {
+        operations.add(new Operation(REMOVE_EDGE, null, e));
+    }
+
+    /**
+     * Gets the number of operations in the batch and returns it.
+     *
+     * @return	the number of operations waiting to be applied
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Removes every operation from the batch.
+     */
+    public void clear() {
+        operations.clear();
+        vertexInsertions = 0;
+    }
+
+    /**
+     * Gets the operations of the batch in the order they were added.
+     *
+     * @return	ArrayList of the operations
+     */
+    ArrayList<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Gets the number of vertices the batch inserts, so the graph can make room for them all at once.
+     *
+     * @return	the number of vertex insertions
+     */
+    int getVertexInsertions() {
+        return vertexInsertions;
+    }
+}
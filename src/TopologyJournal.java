@@ -0,0 +1,614 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the changes made to a {@link Graph}, so that a topology learned at run time survives a
+ * crash. Every {@link Vertex} and {@link Edge} inserted, removed or renamed, and every Vertex moved, is appended to
+ * the journal as a record, and the graph can be rebuilt with {@link #recover(File, boolean)} by loading the last checkpoint and replaying the
+ * records written since.
+ *
+ * Records are collected in memory by the thread changing the graph, so a change costs no more than encoding a few
+ * names. A background thread writes them out and forces them to disk every <code>syncMillis</code> milliseconds, so
+ * a change is durable at most that long after it is made, or as soon as {@link #sync()} returns.
+ *
+ * The journal lives in a directory of its own, holding a checkpoint saved by {@link GraphFile} and the journal
+ * segment begun with it, each numbered by a sequence number. Once a segment has grown past
+ * <code>checkpointBytes</code>, a new checkpoint is taken: a new segment is begun, a {@link TopologySnapshot} of the
+ * graph is saved beside it, and the older checkpoint and segments are deleted. Every record carries the version the
+ * graph had when the change was made, and the segment of a checkpoint starts with the version of its snapshot, so
+ * records that reached the new segment before the snapshot was taken are skipped when replaying from it.
+ *
+ * Vertices and edges are named in records by their type and name, which the graph keeps unique. Names and link
+ * attributes are read from the objects while a checkpoint is written, so a checkpoint may already hold a rename
+ * that the journal repeats; replay recognises such a rename and skips it. Link attributes set on a {@link Channel} after it is inserted are not
+ * journaled.
+ *
+ * A move is journaled with the coordinates it moved the Vertex to, so positions survive recovery, and the links a
+ * {@link Graph#refreshLinks()} inserts or removes are journaled as edges like any other. The {@link SpatialGrid}
+ * itself is not kept, so a recovered graph whose links were kept by range should be given to
+ * {@link Graph#linkWithinRange(double)} again before its links are next refreshed.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TopologyJournal implements TopologyListener {
+    static final int MAGIC = 0x41484E4A;
+    static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER = 16;
+
+    private static final byte INSERT_VERTEX = 0;
+    private static final byte REMOVE_VERTEX = 1;
+    private static final byte INSERT_EDGE = 2;
+    private static final byte REMOVE_EDGE = 3;
+    private static final byte RENAME_VERTEX = 4;
+    private static final byte RENAME_EDGE = 5;
+    private static final byte MOVE_VERTEX = 6;
+
+    private static final String CHECKPOINT = "checkpoint-";
+    private static final String SEGMENT = "journal-";
+
+    private final Graph graph;
+    private final File directory;
+    private final long checkpointBytes;
+    private final Object io = new Object();
+    private final Thread syncer;
+
+    private final Buffer pending = new Buffer(1 << 16);
+    private final DataOutputStream framed = new DataOutputStream(pending);
+    private final Buffer record = new Buffer(256);
+    private final DataOutputStream out = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    private RandomAccessFile segment;
+    private long sequence;
+    private long segmentBytes;
+    private long records;
+    private long syncs;
+    private long checkpoints;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * Begins journaling a graph into a directory. A checkpoint of the graph is taken before this returns and
+     * anything already in the directory is deleted once it has been written, so a graph read back with
+     * {@link #recover(File, boolean)} should be handed to this method before it is changed.
+     *
+     * @param graph				Graph to journal
+     * @param directory			File of the directory to keep the journal in, created if missing
+     * @param syncMillis		longest time in milliseconds a change waits before being forced to disk
+     * @param checkpointBytes	size in bytes a segment may grow to before a new checkpoint is taken
+     * @return					the TopologyJournal, already listening to the graph
+     * @throws IOException	if the directory or the first checkpoint cannot be written
+     */
+    public static TopologyJournal open(Graph graph, File directory, long syncMillis, long checkpointBytes)
+            throws IOException {
+        if (syncMillis < 1) {
+            throw new IllegalArgumentException("A journal needs a sync interval of at least 1ms, not " + syncMillis);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory " + directory);
+        }
+        TopologyJournal journal = new TopologyJournal(graph, directory, syncMillis, checkpointBytes);
+        journal.checkpoint();
+        journal.syncer.start();
+        return journal;
+    }
+
+    private TopologyJournal(Graph graph, File directory, final long syncMillis, long checkpointBytes) {
+        this.graph = graph;
+        this.directory = directory;
+        this.checkpointBytes = checkpointBytes;
+        this.sequence = Math.max(latest(directory, CHECKPOINT), latest(directory, SEGMENT));
+        this.syncer = new Thread(new Runnable() {
+            public void run() {
+                while (!closed && failure == null) {
+                    try {
+                        Thread.sleep(syncMillis);
+                        sync();
+                        if (full()) {
+                            checkpoint();
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            }
+        }, "journal-sync " + directory.getName());
+        this.syncer.setDaemon(true);
+    }
+
+    /**
+     * Rebuilds a graph from a journal directory by loading its last checkpoint and replaying the records written
+     * since. A record cut short or damaged by a crash, and anything after it, is ignored.
+     *
+     * @param directory	File of the journal directory
+     * @param dense		boolean stating whether the Graph should use a dense {@link AdjacencyMatrix}
+     * @return			the recovered Graph, which is empty if the directory holds no checkpoint
+     * @throws IOException	if a file cannot be read or a record does not fit the graph
+     */
+    public static Graph recover(File directory, boolean dense) throws IOException {
+        long last = latest(directory, CHECKPOINT);
+        if (last == 0) {
+            return new Graph(new ArrayList<Vertex>(), new ArrayList<Edge>(), dense);
+        }
+        Graph graph = GraphFile.load(new File(directory, CHECKPOINT + last), dense);
+        for (long s = last; new File(directory, SEGMENT + s).exists(); s++) {
+            if (!replay(graph, new File(directory, SEGMENT + s), s == last)) {
+                break;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Writes every record collected so far to the current segment and forces it to disk.
+     *
+     * @throws IOException	if the segment cannot be written, now or by an earlier background sync
+     */
+    public void sync() throws IOException {
+        synchronized (io) {
+            check();
+            byte[] bytes = drain();
+            try {
+                write(bytes);
+                segment.getChannel().force(false);
+                syncs++;
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Takes a checkpoint now: begins a new segment, saves a {@link TopologySnapshot} of the graph beside it and
+     * deletes the older checkpoint and segments. Changes go on being journaled while the checkpoint is written.
+     *
+     * @throws IOException	if the checkpoint or the new segment cannot be written
+     */
+    public void checkpoint() throws IOException {
+        synchronized (io) {
+            check();
+            try {
+                long next = sequence + 1;
+                RandomAccessFile created = new RandomAccessFile(new File(directory, SEGMENT + next), "rw");
+                created.setLength(0);
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(-1).flip();
+                created.getChannel().write(header, 0);
+
+                RandomAccessFile previous = segment;
+                byte[] bytes;
+                synchronized (this) {
+                    bytes = drain();
+                    if (segment == null) {
+                        graph.addTopologyListener(this);
+                    }
+                    segment = created;
+                    sequence = next;
+                    segmentBytes = SEGMENT_HEADER;
+                }
+                if (previous != null) {
+                    previous.seek(previous.length());
+                    previous.write(bytes);
+                    previous.getChannel().force(false);
+                    previous.close();
+                }
+
+                TopologySnapshot snapshot = graph.snapshot();
+                header.clear();
+                header.putLong(snapshot.getVersion()).flip();
+                created.getChannel().write(header, 8);
+                created.getChannel().force(false);
+
+                GraphFile.save(snapshot, new File(directory, CHECKPOINT + next));
+                checkpoints++;
+                deleteBefore(next);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Stops journaling, writing and forcing every record collected so far.
+     *
+     * @throws IOException	if the last records cannot be written
+     */
+    public void close() throws IOException {
+        graph.removeTopologyListener(this);
+        closed = true;
+        syncer.interrupt();
+        synchronized (io) {
+            try {
+                if (failure == null) {
+                    sync();
+                }
+            } finally {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of records journaled since the journal was opened and returns it.
+     *
+     * @return	number of records
+     */
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * Gets the number of times the journal has been forced to disk and returns it.
+     *
+     * @return	number of syncs
+     */
+    public long getSyncs() {
+        synchronized (io) {
+            return syncs;
+        }
+    }
+
+    /**
+     * Gets the number of checkpoints taken since the journal was opened, including the first, and returns it.
+     *
+     * @return	number of checkpoints
+     */
+    public long getCheckpoints() {
+        synchronized (io) {
+            return checkpoints;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the current checkpoint and segment and returns it.
+     *
+     * @return	sequence number
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized void vertexInserted(Graph graph, Vertex v) {
+        try {
+            begin(INSERT_VERTEX);
+            out.writeUTF(v.getType());
+            out.writeUTF(v.getName());
+            end();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    public synchronized void vertexRemoved(Graph graph, Vertex v) {
+        try {
+            begin(REMOVE_VERTEX);
+            out.writeUTF(v.getType());
+            out.writeUTF(v.getName());
+            end();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    public synchronized void edgeInserted(Graph graph, Edge e) {
+        try {
+            begin(INSERT_EDGE);
+            out.writeUTF(e.getType());
+            out.writeUTF(e.getName());
+            out.writeUTF(e.getV().getType());
+            out.writeUTF(e.getV().getName());
+            out.writeUTF(e.getW().getType());
+            out.writeUTF(e.getW().getName());
+            if (e instanceof Channel) {
+                Channel channel = (Channel) e;
+                out.writeBoolean(true);
+                out.writeDouble(channel.getLatency());
+                out.writeDouble(channel.getEnergy());
+                out.writeDouble(channel.getQuality());
+            } else {
+                out.writeBoolean(false);
+            }
+            end();
+        } catch (IOException x) {
+            failure = x;
+        }
+    }
+
+    /**
+     * Edges removed along with an endpoint are journaled one by one before the endpoint, which replays to the same
+     * topology.
+     */
+    public synchronized void edgeRemoved(Graph graph, Edge e) {
+        try {
+            begin(REMOVE_EDGE);
+            out.writeUTF(e.getType());
+            out.writeUTF(e.getName());
+            end();
+        } catch (IOException x) {
+            failure = x;
+        }
+    }
+
+    public synchronized void vertexRenamed(Graph graph, Vertex v, String oldName) {
+        try {
+            begin(RENAME_VERTEX);
+            out.writeUTF(v.getType());
+            out.writeUTF(oldName);
+            out.writeUTF(v.getName());
+            end();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    public synchronized void edgeRenamed(Graph graph, Edge e, String oldName) {
+        try {
+            begin(RENAME_EDGE);
+            out.writeUTF(e.getType());
+            out.writeUTF(oldName);
+            out.writeUTF(e.getName());
+            end();
+        } catch (IOException x) {
+            failure = x;
+        }
+    }
+
+    public synchronized void vertexMoved(Graph graph, Vertex v) {
+        try {
+            begin(MOVE_VERTEX);
+            out.writeUTF(v.getType());
+            out.writeUTF(v.getName());
+            out.writeDouble(v.getX());
+            out.writeDouble(v.getY());
+            end();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Starts encoding a record, which is framed by its length and checksum in {@link #end()}.
+     */
+    private void begin(byte kind) throws IOException {
+        record.reset();
+        out.writeByte(kind);
+        out.writeLong(graph.getVersion());
+    }
+
+    /**
+     * Appends the record being encoded to the records waiting for the next sync. Nothing is kept once the journal
+     * has failed, since none of it could be written.
+     */
+    private void end() throws IOException {
+        if (failure != null || closed) {
+            return;
+        }
+        crc.reset();
+        crc.update(record.bytes(), 0, record.size());
+        framed.writeInt(record.size());
+        framed.writeInt((int) crc.getValue());
+        record.writeTo(pending);
+        records++;
+    }
+
+    private synchronized boolean full() {
+        return segmentBytes > checkpointBytes;
+    }
+
+    private synchronized byte[] drain() {
+        byte[] bytes = pending.toByteArray();
+        pending.reset();
+        segmentBytes += bytes.length;
+        return bytes;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        segment.seek(segment.length());
+        segment.write(bytes);
+    }
+
+    private void check() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void deleteBefore(long sequence) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".tmp")) {
+                name = name.substring(0, name.length() - 4);
+            }
+            long s = sequenceOf(name, CHECKPOINT);
+            if (s < 0) {
+                s = sequenceOf(name, SEGMENT);
+            }
+            if (s >= 0 && s < sequence) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream whose bytes can be checksummed without copying them.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    /**
+     * Replays one segment into a graph.
+     *
+     * @param graph		Graph to replay into
+     * @param file		File of the segment
+     * @param first		boolean stating whether this is the segment of the loaded checkpoint, whose records made
+     *                  before the checkpoint are skipped
+     * @return			boolean stating whether the segment was read to its end rather than cut short
+     * @throws IOException	if the segment cannot be read or a record does not fit the graph
+     */
+    private static boolean replay(Graph graph, File file, boolean first) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            long base;
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                    throw new IOException(file + " is not a journal segment");
+                }
+                base = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (first && base < 0) {
+                throw new IOException(file + " was never given its checkpoint version");
+            }
+
+            CRC32 crc = new CRC32();
+            byte[] bytes = new byte[256];
+            while (true) {
+                int high = in.read();
+                if (high < 0) {
+                    return true;
+                }
+                int length;
+                int sum;
+                try {
+                    length = (high << 24) | (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+                    sum = in.readInt();
+                    if (length < 9) {
+                        return false;
+                    }
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    in.readFully(bytes, 0, length);
+                } catch (EOFException e) {
+                    return false;
+                }
+                crc.reset();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue() != sum) {
+                    return false;
+                }
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+                byte kind = fields.readByte();
+                long version = fields.readLong();
+                if (!first || version >= base) {
+                    apply(graph, kind, fields, file);
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void apply(Graph graph, byte kind, DataInputStream fields, File file) throws IOException {
+        String type = fields.readUTF();
+        String name = fields.readUTF();
+        switch (kind) {
+            case INSERT_VERTEX:
+                if (graph.insertVertex(type, name) == null) {
+                    throw new IOException("Could not replay insertion of " + type + "-" + name + " from " + file);
+                }
+                break;
+            case REMOVE_VERTEX:
+                graph.removeVertex(find(graph.getVertex(type, name), type, name, file));
+                break;
+            case INSERT_EDGE:
+                Vertex v = find(graph.getVertex(fields.readUTF(), fields.readUTF()), type, name, file);
+                Vertex w = find(graph.getVertex(fields.readUTF(), fields.readUTF()), type, name, file);
+                Edge e = graph.insertEdge(v, w, type, name);
+                if (e == null) {
+                    throw new IOException("Could not replay insertion of " + type + "-" + name + " from " + file);
+                }
+                if (fields.readBoolean() && e instanceof Channel) {
+                    Channel channel = (Channel) e;
+                    channel.setLatency(fields.readDouble());
+                    channel.setEnergy(fields.readDouble());
+                    channel.setQuality(fields.readDouble());
+                }
+                break;
+            case REMOVE_EDGE:
+                graph.removeEdge(find(graph.getEdge(type, name), type, name, file));
+                break;
+            case RENAME_VERTEX:
+                String newName = fields.readUTF();
+                Vertex renamed = graph.getVertex(type, name);
+                if (renamed != null) {
+                    graph.rename(renamed, newName);
+                } else {
+                    find(graph.getVertex(type, newName), type, name, file);
+                }
+                break;
+            case RENAME_EDGE:
+                String newEdgeName = fields.readUTF();
+                Edge renamedEdge = graph.getEdge(type, name);
+                if (renamedEdge != null) {
+                    graph.rename(renamedEdge, newEdgeName);
+                } else {
+                    find(graph.getEdge(type, newEdgeName), type, name, file);
+                }
+                break;
+            case MOVE_VERTEX:
+                Vertex moved = find(graph.getVertex(type, name), type, name, file);
+                graph.move(moved, fields.readDouble(), fields.readDouble());
+                break;
+            default:
+                throw new IOException("Unknown record kind " + kind + " in " + file);
+        }
+    }
+
+    private static <T> T find(T found, String type, String name, File file) throws IOException {
+        if (found == null) {
+            throw new IOException("Record of " + file + " refers to " + type + "-" + name + ", which is not in the graph");
+        }
+        return found;
+    }
+
+    private static long latest(File directory, String prefix) {
+        long latest = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                latest = Math.max(latest, sequenceOf(file.getName(), prefix));
+            }
+        }
+        return latest;
+    }
+
+    private static long sequenceOf(String fileName, String prefix) {
+        if (!fileName.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Receives an event for every {@link Vertex} and {@link Edge} inserted into, removed from or renamed in a {@link Graph},
+ * and for every Vertex moved with {@link Graph#move(Vertex, double, double)}. Events are delivered by the thread changing the graph while it still holds the write lock, straight after each change
+ * and before the change is visible to queries, so a listener sees every change in order and must not alter the
+ * graph itself. When a Vertex is removed, each of its incident edges is reported as removed before the Vertex is.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface TopologyListener {
+
+    /**
+     * Called after a {@link Vertex} has been inserted.
+     *
+     * @param graph	Graph the Vertex was inserted into
+     * @param v		Vertex inserted
+     */
+    void vertexInserted(Graph graph, Vertex v);
+
+    /**
+     * Called after a {@link Vertex} and all of its incident edges have been removed.
+     *
+     * @param graph	Graph the Vertex was removed from
+     * @param v		Vertex removed
+     */
+    void vertexRemoved(Graph graph, Vertex v);
+
+    /**
+     * Called after an {@link Edge} has been inserted.
+     *
+     * @param graph	Graph the Edge was inserted into
+     * @param e		Edge inserted
+     */
+    void edgeInserted(Graph graph, Edge e);
+
+    /**
+     * Called after an {@link Edge} has been removed, either on its own or along with one of its endpoints.
+     *
+     * @param graph	Graph the Edge was removed from
+     * @param e		Edge removed
+     */
+    void edgeRemoved(Graph graph, Edge e);
+
+    /**
+     * Called after a {@link Vertex} has been renamed through {@link Graph#rename(Vertex, String)}.
+     *
+     * @param graph		Graph the Vertex belongs to
+     * @param v			Vertex renamed, already carrying its new name
+     * @param oldName	String name the Vertex had before
+     */
+    void vertexRenamed(Graph graph, Vertex v, String oldName);
+
+    /**
+     * Called after an {@link Edge} has been renamed through {@link Graph#rename(Edge, String)}.
+     *
+     * @param graph		Graph the Edge belongs to
+     * @param e			Edge renamed, already carrying its new name
+     * @param oldName	String name the Edge had before
+     */
+    void edgeRenamed(Graph graph, Edge e, String oldName);
+
+    /**
+     * Called after a {@link Vertex} has been moved through {@link Graph#move(Vertex, double, double)}.
+     *
+     * @param graph	Graph the Vertex belongs to
+     * @param v		Vertex moved, already carrying its new coordinates
+     */
+    void vertexMoved(Graph graph, Vertex v);
+}
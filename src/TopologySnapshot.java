@@ -0,0 +1,232 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Immutable copy of the topology of a {@link Graph} at one version. The adjacency is packed into compressed rows:
+ * the neighbours of vertex <code>v</code> sit in one shared array between <code>offset[v]</code> and
+ * <code>offset[v + 1]</code>, with the incident {@link Edge} objects in a parallel array.
+ *
+ * Nothing in a snapshot changes once it is built, so any number of threads can query it without locks while the
+ * graph goes on changing. Vertex indices are those of the graph when the snapshot was taken and stay fixed for the
+ * life of the snapshot, even though the graph moves vertices when others are removed. The {@link Vertex} and Edge
+ * objects themselves are shared with the graph, so their names and link attributes are read live.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TopologySnapshot implements Topology {
+    private final long version;
+    private final Vertex[] vertices;
+    private final Edge[] edges;
+    private final List<Vertex> vertexView;
+    private final IdentityHashMap<Vertex, Integer> index;
+    private final int[] offset;
+    private final int[] target;
+    private final Edge[] incident;
+
+    /**
+     * Copies the vertices, edges and adjacency of a graph.
+     *
+     * @param version	    version of the graph being copied
+     * @param vertexList	List of the Vertex objects of the graph, in index order
+     * @param edgeList	    List of the Edge objects of the graph
+     * @param store		    Topology holding the adjacency of the graph
+     */
+    TopologySnapshot(long version, List<Vertex> vertexList, List<Edge> edgeList, Topology store) {
+        int n = vertexList.size();
+        this.version = version;
+        this.vertices = vertexList.toArray(new Vertex[n]);
+        this.edges = edgeList.toArray(new Edge[edgeList.size()]);
+        this.vertexView = Collections.unmodifiableList(Arrays.asList(vertices));
+        this.index = new IdentityHashMap<Vertex, Integer>(n);
+        this.offset = new int[n + 1];
+
+        for (int v = 0; v < n; v++) {
+            index.put(vertices[v], v);
+            offset[v + 1] = offset[v] + store.degree(v);
+        }
+        this.target = new int[offset[n]];
+        this.incident = new Edge[offset[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < store.degree(v); i++) {
+                target[offset[v] + i] = store.neighbour(v, i);
+                incident[offset[v] + i] = store.incidentEdge(v, i);
+            }
+        }
+    }
+
+    /**
+     * Gets the version of the graph this snapshot was taken at and returns it.
+     *
+     * @return	the version of the graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the edge between two vertex indices and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param wIndex	the index of Vertex w
+     * @return		    {@link Edge} between the vertices, or <code>null</code> if they are not adjacent
+     */
+    public Edge getEdge(int vIndex, int wIndex) {
+        for (int i = offset[vIndex]; i < offset[vIndex + 1]; i++) {
+            if (target[i] == wIndex) {
+                return incident[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of edges incident to a vertex index and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    the degree of v
+     */
+    public int degree(int vIndex) {
+        return offset[vIndex + 1] - offset[vIndex];
+    }
+
+    /**
+     * Gets the index of the <code>i</code>th neighbour of a vertex index and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the index of the neighbouring Vertex
+     */
+    public int neighbour(int vIndex, int i) {
+        return target[offset[vIndex] + i];
+    }
+
+    /**
+     * Gets the {@link Edge} joining a vertex index to its <code>i</code>th neighbour and returns it.
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @param i		    position of the neighbour
+     * @return		    the incident Edge
+     */
+    public Edge incidentEdge(int vIndex, int i) {
+        return incident[offset[vIndex] + i];
+    }
+
+    /**
+     * Gets the number of vertices in the snapshot and returns it.
+     *
+     * @return	the number of vertices
+     */
+    public int size() {
+        return vertices.length;
+    }
+
+    /**
+     * Gets the number of {@link Edge} objects in the snapshot and returns it.
+     *
+     * @return	the number of edges
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Gets the {@link Vertex} at an index of the snapshot and returns it.
+     *
+     * @param index	index of the Vertex
+     * @return		the Vertex at that index
+     */
+    public Vertex vertexAt(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * Gets the {@link Edge} in a slot of the snapshot and returns it.
+     *
+     * @param index	slot of the Edge
+     * @return		the Edge in that slot
+     */
+    public Edge edgeAt(int index) {
+        return edges[index];
+    }
+
+    /**
+     * Gets the index of a {@link Vertex} in the snapshot and returns it.
+     *
+     * @param v		Vertex to look up
+     * @return		index of the Vertex, or -1 if it was not in the graph when the snapshot was taken
+     */
+    public int indexOf(Vertex v) {
+        Integer i = index.get(v);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Checks if two {@link Vertex} objects were adjacent when the snapshot was taken.
+     *
+     * @param v		Vertex v
+     * @param w		Vertex w
+     * @return		boolean regarding whether the vertices are adjacent, which is false if either is missing
+     */
+    public boolean areAdjacent(Vertex v, Vertex w) {
+        int vIndex = indexOf(v);
+        int wIndex = indexOf(w);
+        return vIndex >= 0 && wIndex >= 0 && getEdge(vIndex, wIndex) != null;
+    }
+
+    /**
+     * Gets the shortest path between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex by number
+     * of hops, using a bidirectional breadth first search.
+     *
+     * @param start     Vertex to start path at
+     * @param finish	Vertex to finish path at
+     * @return		    array of the indices of the vertices on the path, which {@link #vertexAt(int)} turns back into
+     *                  Vertex objects, or <code>null</code> if there is no path
+     */
+    public int[] path(Vertex start, Vertex finish) {
+        int startIndex = indexOf(start);
+        int finishIndex = indexOf(finish);
+        if (startIndex < 0 || finishIndex < 0) {
+            return null;
+        }
+
+        Traversal traversal = Graph.TRAVERSAL.get();
+        traversal.reset(vertices.length);
+        if (!traversal.bidirectional(this, startIndex, finishIndex)) {
+            return null;
+        }
+
+        int length = 1;
+        for (int child = startIndex; child != finishIndex; child = traversal.getParent(child)) {
+            length++;
+        }
+        int[] path = new int[length];
+        int i = 0;
+        for (int child = startIndex; child != finishIndex; child = traversal.getParent(child)) {
+            path[i++] = child;
+        }
+        path[i] = finishIndex;
+        return path;
+    }
+
+    /**
+     * Gets the cheapest route between a <code>start</code> {@link Vertex} and a <code>finish</code> Vertex, costing
+     * each {@link Edge} by a {@link LinkMetric}. See {@link Graph#route(Vertex, Vertex, LinkMetric, double)}.
+     *
+     * @param start             Vertex to start route at
+     * @param finish	        Vertex to finish route at
+     * @param metric	        LinkMetric to cost edges by
+     * @param costPerDistance	lower bound on the cost of an Edge per unit of its length, or 0 for Dijkstra
+     * @return		            array of the indices of the vertices on the route, or <code>null</code> if there is no route
+     */
+    public int[] route(Vertex start, Vertex finish, LinkMetric metric, double costPerDistance) {
+        int startIndex = indexOf(start);
+        int finishIndex = indexOf(finish);
+        if (startIndex < 0 || finishIndex < 0) {
+            return null;
+        }
+        return Graph.WEIGHTED_SEARCH.get().route(this, vertexView, startIndex, finishIndex, metric, costPerDistance);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Decides which trace events are reported and where they go. One {@link TraceSink} and one level are set for the
+ * whole program; an event is reported when its level is no higher than the level set. Until a sink is set nothing
+ * is reported, and each place that could report an event pays for reading the level and nothing more, because
+ * messages are only built once {@link #isEnabled(int)} says they are wanted.
+ *
+ * Failures are not reported here alone. Every operation that can fail also says so through its return value, so
+ * tracing can stay off without losing them.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class Trace {
+    public static final int OFF = 0;
+    public static final int ERROR = 1;
+    public static final int WARN = 2;
+    public static final int INFO = 3;
+    public static final int DEBUG = 4;
+    public static final int TRACE = 5;
+
+    private static final String[] NAMES = {"OFF", "ERROR", "WARN", "INFO", "DEBUG", "TRACE"};
+
+    private static volatile TraceSink sink;
+    private static volatile int level = OFF;
+
+    private Trace() {
+    }
+
+    /**
+     * Sends events up to a level to a {@link TraceSink}. A <code>null</code> sink turns tracing off.
+     *
+     * @param traceSink	TraceSink to send events to, or <code>null</code>
+     * @param maxLevel	highest level to report, such as {@link #WARN}
+     */
+    public static synchronized void setSink(TraceSink traceSink, int maxLevel) {
+        level = OFF;
+        sink = traceSink;
+        level = traceSink == null ? OFF : maxLevel;
+    }
+
+    /**
+     * Gets the {@link TraceSink} events are sent to and returns it.
+     *
+     * @return	the TraceSink, or <code>null</code> while tracing is off
+     */
+    public static TraceSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Gets the highest level reported and returns it.
+     *
+     * @return	the level, or {@link #OFF}
+     */
+    public static int getLevel() {
+        return level;
+    }
+
+    /**
+     * Checks whether events of a level are reported.
+     *
+     * @param eventLevel	level of the event
+     * @return		        boolean stating whether the event should be built and reported
+     */
+    public static boolean isEnabled(int eventLevel) {
+        return eventLevel <= level;
+    }
+
+    /**
+     * Gets the {@link TraceSink} to send events of a level to.
+     *
+     * @param eventLevel	level of the events
+     * @return		        the TraceSink, or <code>null</code> if events of that level are not reported
+     */
+    static TraceSink sink(int eventLevel) {
+        return eventLevel <= level ? sink : null;
+    }
+
+    /**
+     * Reports an event if its level is enabled. Callers building a message from several parts should check
+     * {@link #isEnabled(int)} first, so the message is not built for nothing.
+     *
+     * @param eventLevel	level of the event
+     * @param event		    String naming what happened
+     * @param message	    String describing the event
+     */
+    static void emit(int eventLevel, String event, String message) {
+        TraceSink traceSink = sink(eventLevel);
+        if (traceSink != null) {
+            traceSink.trace(eventLevel, event, message);
+        }
+    }
+
+    /**
+     * Gets the name of a level and returns it.
+     *
+     * @param eventLevel	level to name
+     * @return		        String such as <code>WARN</code>
+     */
+    public static String name(int eventLevel) {
+        return eventLevel >= 0 && eventLevel < NAMES.length ? NAMES[eventLevel] : Integer.toString(eventLevel);
+    }
+}
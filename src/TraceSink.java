@@ -0,0 +1,22 @@
+/**
+ * Receives the trace events of a {@link Graph} and the classes around it. Events are only built and passed to a
+ * sink when {@link Trace} is set to a level that lets them through, so a sink is never asked to drop events it was
+ * not going to show.
+ *
+ * A sink may be called by many threads at once, often while the caller holds the lock of a Graph, so it should
+ * hand each event off quickly rather than write it out on the spot; {@link AsyncTraceWriter} does so.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public interface TraceSink {
+
+    /**
+     * Receives one event.
+     *
+     * @param level		level of the event, from {@link Trace#ERROR} to {@link Trace#TRACE}
+     * @param event		String naming what happened, such as <code>graph.duplicate</code>
+     * @param message	String describing the event
+     */
+    void trace(int level, String event, String message);
+}
@@ -0,0 +1,273 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the state of a single search over a {@link Topology}: which vertices have been visited, the parent
+ * of each visited vertex and the {@link Edge} it was reached through. The state is kept in arrays addressed by
+ * vertex index rather than on the {@link Vertex} and {@link Edge} objects, so several searches can run over the
+ * same graph at once, each with its own Traversal.
+ *
+ * Visited marks are stamped with the number of the current search, so starting a new search with
+ * {@link #reset(int)} is constant time instead of a sweep over every vertex and edge.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class Traversal {
+    private int[] stamp = new int[0];
+    private int[] parent = new int[0];
+    private Edge[] parentEdge = new Edge[0];
+    private int[] queue = new int[0];
+    private int[] backQueue = new int[0];
+    private boolean[] backward = new boolean[0];
+    private int epoch;
+    private int visitedCount;
+    private int crossEdges;
+    private int edgesScanned;
+
+    /**
+     * Starts a new search over <code>size</code> vertices, growing the arrays if they are too small. Every vertex
+     * becomes unvisited without the arrays being cleared.
+     *
+     * @param size	number of vertices in the graph being searched
+     */
+    public void reset(int size) {
+        if (stamp.length < size) {
+            int capacity = Math.max(size, stamp.length * 2);
+            stamp = new int[capacity];
+            parent = new int[capacity];
+            parentEdge = new Edge[capacity];
+            queue = new int[capacity];
+            backQueue = new int[capacity];
+            backward = new boolean[capacity];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        visitedCount = 0;
+        crossEdges = 0;
+        edgesScanned = 0;
+    }
+
+    /**
+     * Get and return if a vertex has been visited in the current search
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    boolean representing if the Vertex has been visited
+     */
+    public boolean isVisited(int vIndex) {
+        return stamp[vIndex] == epoch;
+    }
+
+    /**
+     * Get and return the index of the vertex a visited vertex was reached from
+     *
+     * @param vIndex	the index of a visited {@link Vertex}
+     * @return		    index of the parent Vertex, or -1 for a vertex a search started from
+     */
+    public int getParent(int vIndex) {
+        return parent[vIndex];
+    }
+
+    /**
+     * Get and return the {@link Edge} a visited vertex was reached through
+     *
+     * @param vIndex	the index of a visited {@link Vertex}
+     * @return		    Edge to the parent Vertex, or <code>null</code> for a vertex a search started from
+     */
+    public Edge getParentEdge(int vIndex) {
+        return parentEdge[vIndex];
+    }
+
+    /**
+     * Get and return the number of vertices visited since the last reset
+     *
+     * @return	number of visited vertices
+     */
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * Get and return the number of times an {@link Edge} was looked at since the last reset, counting each Edge once
+     * from each end that was expanded
+     *
+     * @return	number of edges scanned
+     */
+    public int getEdgesScanned() {
+        return edgesScanned;
+    }
+
+    /**
+     * Get and return the number of cross edges, edges joining two vertices that were already visited, found since
+     * the last reset. Each cross edge is counted once from each of its ends.
+     *
+     * @return	number of cross edges found
+     */
+    public int getCrossEdges() {
+        return crossEdges;
+    }
+
+    /**
+     * Do a breadth first search of <code>store</code> from <code>start</code> until <code>finish</code> has been
+     * visited, or until every reachable vertex has been visited when <code>finish</code> is -1. Vertices already
+     * visited since the last reset are left alone, so several searches can sweep different parts of a graph.
+     *
+     * @param store	    Topology to search
+     * @param start	    index of the Vertex to start search from
+     * @param finish	index of the Vertex to finish search at, or -1 to search everything reachable
+     * @param vertices	List of the Vertex objects of the graph, used to name visited vertices in the trace
+     * @param trace	    TraceSink to report each visited object to at {@link Trace#TRACE}, or <code>null</code> for a
+     *                  silent search
+     */
+    public void breadthFirst(Topology store, int start, int finish, List<Vertex> vertices, TraceSink trace) {
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = start;
+        visit(start, -1, null);
+        if (trace != null) {
+            trace.trace(Trace.TRACE, "traversal.start", "Start: " + vertices.get(start));
+        }
+        if (start == finish) {
+            return;
+        }
+
+        while (head < tail) {
+            int vIndex = queue[head++];
+
+            for (int i = 0; i < store.degree(vIndex); i++) {
+                Edge e = store.incidentEdge(vIndex, i);
+                int wIndex = store.neighbour(vIndex, i);
+                edgesScanned++;
+                if (!isVisited(wIndex)) {
+                    visit(wIndex, vIndex, e);
+                    queue[tail++] = wIndex;
+                    if (trace != null) {
+                        trace.trace(Trace.TRACE, "traversal.visit", "Visit: " + e);
+                        trace.trace(Trace.TRACE, "traversal.visit", "Visit: " + vertices.get(wIndex));
+                    }
+                    if (wIndex == finish) {
+                        return;
+                    }
+                } else if (e == parentEdge[vIndex] || e == parentEdge[wIndex]) {
+                    if (trace != null) {
+                        trace.trace(Trace.TRACE, "traversal.visited", "Visited: " + e);
+                    }
+                } else {
+                    crossEdges++;
+                    if (trace != null) {
+                        trace.trace(Trace.TRACE, "traversal.cross", "Cross Edge: " + e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Do a bidirectional breadth first search of <code>store</code> for a shortest path between <code>start</code>
+     * and <code>finish</code>. Whole levels are expanded from whichever end has the smaller frontier until the two
+     * searches meet, so far fewer vertices are visited than by searching from one end. The path found has as few
+     * edges as one found by {@link #breadthFirst(Topology, int, int, List, TraceSink)}.
+     *
+     * When a path is found the parents are rearranged so that following {@link #getParent(int)} from
+     * <code>start</code> walks the path to <code>finish</code>.
+     *
+     * @param store	    Topology to search
+     * @param start	    index of the Vertex the path starts at
+     * @param finish	index of the Vertex the path finishes at
+     * @return		    boolean stating whether a path was found
+     */
+    public boolean bidirectional(Topology store, int start, int finish) {
+        visit(start, -1, null);
+        backward[start] = false;
+        if (start == finish) {
+            return true;
+        }
+        visit(finish, -1, null);
+        backward[finish] = true;
+
+        int head = 0;
+        int tail = 0;
+        int backHead = 0;
+        int backTail = 0;
+        queue[tail++] = start;
+        backQueue[backTail++] = finish;
+
+        while (head < tail && backHead < backTail) {
+            boolean back = backTail - backHead < tail - head;
+            int[] frontier = back ? backQueue : queue;
+            int from = back ? backHead : head;
+            int to = back ? backTail : tail;
+            int end = to;
+
+            for (int q = from; q < to; q++) {
+                int vIndex = frontier[q];
+                for (int i = 0; i < store.degree(vIndex); i++) {
+                    int wIndex = store.neighbour(vIndex, i);
+                    Edge e = store.incidentEdge(vIndex, i);
+                    edgesScanned++;
+                    if (!isVisited(wIndex)) {
+                        visit(wIndex, vIndex, e);
+                        backward[wIndex] = back;
+                        frontier[end++] = wIndex;
+                    } else if (backward[wIndex] != back) {
+                        if (back) {
+                            join(wIndex, vIndex, e);
+                        } else {
+                            join(vIndex, wIndex, e);
+                        }
+                        return true;
+                    }
+                }
+            }
+
+            if (back) {
+                backHead = to;
+                backTail = end;
+            } else {
+                head = to;
+                tail = end;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Joins the two halves of a bidirectional search where they meet, reversing the parents on the start side so
+     * that they lead towards the finish.
+     *
+     * @param forward	index of the meeting Vertex on the start side
+     * @param back	    index of the meeting Vertex on the finish side
+     * @param e		    {@link Edge} joining them
+     */
+    private void join(int forward, int back, Edge e) {
+        int previous = back;
+        Edge previousEdge = e;
+        for (int vIndex = forward; vIndex != -1; ) {
+            int next = parent[vIndex];
+            Edge nextEdge = parentEdge[vIndex];
+            parent[vIndex] = previous;
+            parentEdge[vIndex] = previousEdge;
+            previous = vIndex;
+            previousEdge = nextEdge;
+            vIndex = next;
+        }
+    }
+
+    /**
+     * Marks a vertex as visited in the current search.
+     *
+     * @param vIndex	the index of the {@link Vertex} visited
+     * @param from	    index of the Vertex it was reached from
+     * @param e		    {@link Edge} it was reached through
+     */
+    private void visit(int vIndex, int from, Edge e) {
+        stamp[vIndex] = epoch;
+        parent[vIndex] = from;
+        parentEdge[vIndex] = e;
+        visitedCount++;
+    }
+}
@@ -8,8 +8,9 @@
 public abstract class Vertex {
     private int index;
     private String name;
-    private boolean visited = false;
-    private Vertex parent;
+    private double x;
+    private double y;
+    private boolean positioned = false;
 
     /**
      * Creates a {@link Vertex}
@@ -59,57 +60,60 @@ public abstract class Vertex {
     }
 
     /**
-     * Get and return if Vertex has been visited
+     * Get and return if the Vertex has been given a position
      *
-     * @return	boolean representing if Vertex has been visited
+     * @return	boolean representing if the Vertex has coordinates
      */
-    public boolean getVisited() {
-        return visited;
+    public boolean hasPosition() {
+        return positioned;
     }
 
     /**
-     * Get and return Vertex parent
+     * Get and return the x coordinate of the Vertex
      *
-     * @return	Vertex parent of Vertex
+     * @return	x coordinate
      */
-    public Vertex getParent() {
-        return parent;
+    public double getX() {
+        return x;
     }
 
     /**
-     * Set <code>index</code> to input
+     * Get and return the y coordinate of the Vertex
      *
-     * @param index	    index to set <code>index</code> to
+     * @return	y coordinate
      */
-    public void setIndex(int index) {
-        this.index = index;
+    public double getY() {
+        return y;
     }
 
     /**
-     * Set <code>name</code> to input String
+     * Set the coordinates of the Vertex
      *
-     * @param name	String to set <code>name</code> to
+     * @param x	    x coordinate
+     * @param y	    y coordinate
      */
-    public void setName(String name) {
-        this.name = name;
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.positioned = true;
     }
 
     /**
-     * Set <code>visited</code> to input boolean
+     * Set <code>index</code> to input
      *
-     * @param visited	boolean to set <code>visited</code> to
+     * @param index	    index to set <code>index</code> to
      */
-    public void setVisited(boolean visited) {
-        this.visited = visited;
+    public void setIndex(int index) {
+        this.index = index;
     }
 
     /**
-     * Set <code>parent</code> to {@link Vertex}
+     * Set <code>name</code> to input String
      *
-     * @param parent	Vertex to set <code>parent</code> to
+     * @param name	String to set <code>name</code> to
      */
-    public void setParent(Vertex parent) {
-        this.parent = parent;
+    public void setName(String name) {
+        this.name = name;
     }
 
     /**
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the state of a single weighted shortest path search over a {@link Topology}, costing each
+ * {@link Edge} by a {@link LinkMetric}. Without a heuristic the search is Dijkstra's algorithm; given a cost per
+ * unit of distance it becomes an A* search guided by the coordinates of the vertices.
+ *
+ * Like a {@link Traversal}, all state lives in arrays addressed by vertex index and is stamped with the number of
+ * the current search, so one WeightedSearch can be reused for any number of queries without clearing it.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class WeightedSearch {
+    private int[] stamp = new int[0];
+    private double[] distance = new double[0];
+    private int[] parent = new int[0];
+    private IndexedHeap heap = new IndexedHeap();
+    private int epoch;
+    private int settledCount;
+
+    /**
+     * Searches for the cheapest route from <code>start</code> to <code>finish</code>. When
+     * <code>costPerDistance</code> is greater than 0 and <code>finish</code> has a position, the straight line
+     * distance to <code>finish</code> times <code>costPerDistance</code> is used as an A* heuristic for vertices
+     * with a position. It must never exceed the true cost of reaching <code>finish</code>, which holds when no
+     * Edge costs less than its length times <code>costPerDistance</code>.
+     *
+     * @param store		        Topology to search
+     * @param vertexList	    List of the Vertex objects of the graph, for their coordinates
+     * @param start		        index of the Vertex the route starts at
+     * @param finish	        index of the Vertex the route finishes at
+     * @param metric	        LinkMetric to cost edges by
+     * @param costPerDistance	lower bound on the cost of an Edge per unit of its length, or 0 for Dijkstra
+     * @return		            route as an array of vertex indices from start to finish, or <code>null</code> if there is none
+     */
+    public int[] route(Topology store, List<Vertex> vertexList, int start, int finish, LinkMetric metric,
+                       double costPerDistance) {
+        reset(store.size());
+        Vertex target = vertexList.get(finish);
+        boolean guided = costPerDistance > 0 && target.hasPosition();
+
+        reach(start, -1, 0);
+        heap.push(start, 0);
+        while (!heap.isEmpty()) {
+            int vIndex = heap.pop();
+            if (vIndex == finish) {
+                return trace(finish);
+            }
+            settledCount++;
+
+            for (int i = 0; i < store.degree(vIndex); i++) {
+                int wIndex = store.neighbour(vIndex, i);
+                double cost = distance[vIndex] + store.incidentEdge(vIndex, i).getCost(metric);
+                if (stamp[wIndex] != epoch || cost < distance[wIndex]) {
+                    reach(wIndex, vIndex, cost);
+                    double estimate = cost;
+                    if (guided) {
+                        estimate += costPerDistance * straightLine(vertexList.get(wIndex), target);
+                    }
+                    heap.push(wIndex, estimate);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get and return the cost of the cheapest route found to a vertex by the last search
+     *
+     * @param vIndex	the index of {@link Vertex} v
+     * @return		    cost of reaching the Vertex, or infinity if it was not reached
+     */
+    public double getDistance(int vIndex) {
+        return stamp[vIndex] == epoch ? distance[vIndex] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Get and return the number of vertices settled by the last search
+     *
+     * @return	number of vertices taken off the heap
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private void reset(int size) {
+        if (stamp.length < size) {
+            int capacity = Math.max(size, stamp.length * 2);
+            stamp = new int[capacity];
+            distance = new double[capacity];
+            parent = new int[capacity];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        heap.clear(size);
+        settledCount = 0;
+    }
+
+    /**
+     * Records a cheaper way of reaching a vertex. A vertex that was already settled is opened again, which can
+     * only happen when an A* heuristic is not consistent.
+     */
+    private void reach(int vIndex, int from, double cost) {
+        stamp[vIndex] = epoch;
+        distance[vIndex] = cost;
+        parent[vIndex] = from;
+    }
+
+    private int[] trace(int finish) {
+        int length = 0;
+        for (int vIndex = finish; vIndex != -1; vIndex = parent[vIndex]) {
+            length++;
+        }
+        int[] route = new int[length];
+        for (int vIndex = finish; vIndex != -1; vIndex = parent[vIndex]) {
+            route[--length] = vIndex;
+        }
+        return route;
+    }
+
+    private static double straightLine(Vertex v, Vertex w) {
+        if (!v.hasPosition()) {
+            return 0;
+        }
+        double dx = v.getX() - w.getX();
+        double dy = v.getY() - w.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
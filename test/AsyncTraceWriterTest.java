@@ -0,0 +1,76 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Reports events to an {@link AsyncTraceWriter} from several threads while it is closed, checking that every event
+ * is either written or counted as dropped, and that the count of written events matches the lines written.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class AsyncTraceWriterTest {
+    private static final int THREADS = 4;
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void everyEventIsWrittenOrDropped() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            StringWriter text = new StringWriter();
+            final AsyncTraceWriter writer = new AsyncTraceWriter(text, 64);
+            final AtomicLong reported = new AtomicLong();
+            final CountDownLatch started = new CountDownLatch(THREADS);
+            Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                threads[t] = new Thread(new Runnable() {
+                    public void run() {
+                        started.countDown();
+                        for (int i = 0; i < 500; i++) {
+                            writer.trace(Trace.INFO, "test.event", Integer.toString(i));
+                            reported.incrementAndGet();
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            started.await();
+            writer.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(reported.get(), writer.getWritten() + writer.getDropped());
+            assertEquals(writer.getWritten(), lines(text.toString()));
+        }
+    }
+
+    @Test
+    public void flushWritesEverything() throws IOException {
+        StringWriter text = new StringWriter();
+        AsyncTraceWriter writer = new AsyncTraceWriter(text, 16);
+        for (int i = 0; i < 10; i++) {
+            writer.trace(Trace.WARN, "test.event", "event " + i);
+        }
+        writer.flush();
+        assertEquals(10, writer.getWritten());
+        assertEquals(10, lines(text.toString()));
+        writer.close();
+        writer.trace(Trace.WARN, "test.event", "after close");
+        assertEquals(1, writer.getDropped());
+        assertEquals(10, writer.getWritten());
+    }
+
+    private static int lines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
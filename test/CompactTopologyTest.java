@@ -0,0 +1,160 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the views handed out by a {@link CompactTopology} keep their identity between changes, so a
+ * {@link Traversal} over a compact copy of a {@link Graph} sees the same tree and cross edges as over the Graph,
+ * and that a CompactTopology refuses parallel edges and finds edges by their endpoints as a Graph does. Refused
+ * changes are checked to leave no names in the name table.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class CompactTopologyTest {
+    @Test
+    public void breadthFirstMatchesGraph() {
+        Graph graph = ring(12);
+        CompactTopology compact = CompactTopology.of(graph);
+        TopologySnapshot snapshot = graph.snapshot();
+        Traversal overGraph = search(snapshot, 0);
+        Traversal overCompact = search(compact, 0);
+        assertEquals(graph.getVertexCount(), overCompact.getVisitedCount());
+        assertEquals(overGraph.getEdgesScanned(), overCompact.getEdgesScanned());
+        assertEquals(overGraph.getCrossEdges(), overCompact.getCrossEdges());
+        assertEquals(2 * (graph.getEdgeCount() - (graph.getVertexCount() - 1)), overCompact.getCrossEdges());
+    }
+
+    @Test
+    public void viewsAreKeptUntilChanged() {
+        CompactTopology compact = CompactTopology.of(ring(6));
+        Edge e = compact.incidentEdge(0, 0);
+        assertSame(e, compact.incidentEdge(0, 0));
+        assertSame(e, compact.edgeAt(e.getIndex()));
+        assertSame(compact.vertexAt(0), compact.vertexAt(0));
+        assertSame(compact.vertexAt(e.getV().getIndex()), e.getV());
+
+        compact.renameVertex(0, "renamed");
+        Vertex v = compact.vertexAt(0);
+        assertEquals("renamed", v.getName());
+        assertNotSame(e, compact.incidentEdge(0, 0));
+        compact.setPosition(0, 1, 2);
+        assertEquals(2, compact.vertexAt(0).getY(), 0);
+    }
+
+    @Test
+    public void parallelEdgesAreRefused() {
+        CompactTopology compact = new CompactTopology();
+        int a = compact.insertVertex("Mobile", "a");
+        int b = compact.insertVertex("Mobile", "b");
+        int first = compact.insertEdge(a, b, "Channel", "1");
+        assertEquals(-1, compact.insertEdge(a, b, "Channel", "2"));
+        assertEquals(-1, compact.insertEdge(b, a, "Channel", "3"));
+        assertEquals(1, compact.getEdgeCount());
+        assertEquals(first, compact.getEdge(b, a).getIndex());
+        assertEquals(1, compact.insertEdge(a, a, "Channel", "loop"));
+        assertEquals(-1, compact.insertEdge(a, a, "Channel", "loop-2"));
+
+        Graph graph = compact.toGraph(false);
+        assertEquals(compact.getEdgeCount(), graph.getEdgeCount());
+        assertEquals(1, graph.degree(graph.getVertex("Mobile", "b")));
+    }
+
+    @Test
+    public void refusedChangesAddNoNames() {
+        CompactTopology compact = new CompactTopology();
+        int a = compact.insertVertex("Mobile", "a");
+        int b = compact.insertVertex("Mobile", "b");
+        compact.insertEdge(a, b, "Channel", "1");
+        int names = compact.getNameCount();
+
+        assertEquals(-1, compact.insertVertex("Mobile", "a"));
+        assertEquals(-1, compact.insertVertex("Laptop", "c"));
+        assertEquals(-1, compact.insertEdge(a, b, "Channel", "2"));
+        assertEquals(-1, compact.insertEdge(a, 7, "Channel", "3"));
+        assertFalse(compact.renameVertex(a, "b"));
+        assertEquals(names, compact.getNameCount());
+
+        assertTrue(compact.renameVertex(a, "a"));
+        assertTrue(compact.renameEdge(0, "1"));
+        assertEquals(names, compact.getNameCount());
+        assertTrue(compact.renameVertex(a, "c"));
+        assertEquals(names + 1, compact.getNameCount());
+        assertEquals(a, compact.getVertex("Mobile", "c"));
+    }
+
+    @Test
+    public void endpointsMatchGraphUnderChurn() {
+        Random random = new Random(3);
+        Graph graph = new Graph();
+        CompactTopology compact = new CompactTopology();
+        int names = 0;
+        for (int step = 0; step < 4000; step++) {
+            int n = graph.getVertexCount();
+            int action = random.nextInt(10);
+            if (n < 2 || action < 2) {
+                String name = Integer.toString(names++);
+                graph.insertVertex("Mobile", name);
+                compact.insertVertex("Mobile", name);
+            } else if (action < 3) {
+                int v = random.nextInt(n);
+                graph.removeVertex(graph.vertexAt(v));
+                compact.removeVertex(v);
+            } else if (action < 5 && graph.getEdgeCount() > 0) {
+                Edge e = graph.edgeAt(random.nextInt(graph.getEdgeCount()));
+                graph.removeEdge(e);
+                compact.removeEdge(compact.getEdge(e.getType(), e.getName()));
+            } else {
+                int v = random.nextInt(n);
+                int w = random.nextInt(n);
+                String name = "link-" + names++;
+                boolean inserted = graph.insertEdge(graph.vertexAt(v), graph.vertexAt(w), "Channel", name) != null;
+                assertEquals(inserted, compact.insertEdge(v, w, "Channel", name) >= 0);
+            }
+        }
+        assertEquals(graph.getEdgeCount(), compact.getEdgeCount());
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            for (int w = 0; w < graph.getVertexCount(); w++) {
+                Edge expected = graph.getEdge(graph.vertexAt(v), graph.vertexAt(w));
+                Edge actual = compact.getEdge(v, w);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.getName(), actual.getName());
+                }
+            }
+            assertEquals(graph.degree(graph.vertexAt(v)), compact.degree(v));
+        }
+    }
+
+    /**
+     * Makes a ring of Mobile nodes with a chord from every node to the one two along, so a breadth first search
+     * meets many cross edges. Each edge outside the tree is scanned, and counted, from both ends.
+     */
+    private static Graph ring(int n) {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            vertices[i] = graph.insertVertex("Mobile", Integer.toString(i));
+        }
+        for (int i = 0; i < n; i++) {
+            graph.insertEdge(vertices[i], vertices[(i + 1) % n], "Channel", "ring-" + i);
+            graph.insertEdge(vertices[i], vertices[(i + 2) % n], "Channel", "chord-" + i);
+        }
+        return graph;
+    }
+
+    private static Traversal search(Topology store, int start) {
+        Traversal traversal = new Traversal();
+        traversal.reset(store.size());
+        traversal.breadthFirst(store, start, -1, null, null);
+        return traversal;
+    }
+}
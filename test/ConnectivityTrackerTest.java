@@ -0,0 +1,53 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Flaps the bridge between two halves of a {@link Graph} with a {@link ConnectivityTracker} attached, checking that
+ * the partitions are followed and that the ids handed out on each split are given back rather than piling up.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class ConnectivityTrackerTest {
+    private static final int HALF = 50;
+    private static final int FLAPS = 5000;
+
+    @Test
+    public void flappingBridgeStaysBounded() {
+        Graph graph = new Graph();
+        Vertex[] left = chain(graph, "left-");
+        Vertex[] right = chain(graph, "right-");
+        ConnectivityTracker tracker = graph.trackConnectivity();
+        int live = graph.getVertexCount();
+        int bound = 3 * live + 64;
+
+        for (int i = 0; i < FLAPS; i++) {
+            Edge bridge = graph.insertEdge(left[HALF - 1], right[0], "Channel", "bridge");
+            assertEquals(1, tracker.getPartitionCount());
+            graph.removeEdge(bridge);
+            assertEquals(2, tracker.getPartitionCount());
+            assertTrue("ids grew to " + tracker.getIdCount(), tracker.getIdCount() <= bound);
+        }
+        assertEquals(FLAPS, tracker.getSplits());
+        assertTrue(tracker.connected(left[0], left[HALF - 1]));
+        assertFalse(tracker.connected(left[0], right[0]));
+        assertEquals(HALF, tracker.getPartitionSize(right[HALF - 1]));
+    }
+
+    /**
+     * Inserts a path of Mobile nodes named with a prefix.
+     */
+    private static Vertex[] chain(Graph graph, String prefix) {
+        Vertex[] vertices = new Vertex[HALF];
+        for (int i = 0; i < HALF; i++) {
+            vertices[i] = graph.insertVertex("Mobile", prefix + i);
+            if (i > 0) {
+                graph.insertEdge(vertices[i - 1], vertices[i], "Channel", prefix + i);
+            }
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Imports small edge list files with {@link EdgeListImporter}, checking that lines naming a link the
+ * {@link Graph} refuses are skipped, counted and reported while the rest of the file is imported, and that only
+ * lines that are not edges stop the import.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class EdgeListImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void stopTracing() {
+        Trace.setSink(null, Trace.OFF);
+    }
+
+    @Test
+    public void refusedLinksAreSkipped() throws IOException {
+        final ArrayList<String> warnings = new ArrayList<String>();
+        Trace.setSink(new TraceSink() {
+            public void trace(int level, String event, String message) {
+                warnings.add(event);
+            }
+        }, Trace.WARN);
+        File file = write("# capture from both ends\n"
+                + "Mobile,a,Mobile,b,1\n"
+                + "\n"
+                + "Mobile,b,Mobile,a,2\n"
+                + "Mobile,c,Mobile,c,3\n"
+                + "Mobile,c,Mobile,c,6\n"
+                + "Mobile,b,Mobile,c,1\n"
+                + "Mobile,b,Mobile,c,4\r\n"
+                + "PC,d,Mobile,a,5");
+        for (int threads = 1; threads <= 2; threads++) {
+            warnings.clear();
+            EdgeListImporter importer = new EdgeListImporter(threads);
+            Graph graph = importer.importFile(file, false);
+            assertEquals(9, importer.getLinesRead());
+            assertEquals(4, importer.getEdgesImported());
+            assertEquals(3, importer.getLinesSkipped());
+            assertEquals(4, graph.getEdgeCount());
+            assertEquals(4, graph.getVertexCount());
+            assertNotNull(graph.getEdge("Channel", "4"));
+            assertEquals(3, count(warnings, "import.skipped"));
+        }
+    }
+
+    @Test
+    public void wrongFieldCountStopsImport() throws IOException {
+        assertRefused(write("Mobile,a,Mobile,b,1\nMobile,a,Mobile,c\n"));
+    }
+
+    @Test
+    public void unknownTypeStopsImport() throws IOException {
+        assertRefused(write("Mobile,a,Laptop,b,1\n"));
+    }
+
+    private File write(String text) throws IOException {
+        File file = folder.newFile();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(GraphFile.UTF8));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static void assertRefused(File file) {
+        try {
+            new EdgeListImporter().importFile(file, false);
+            fail(file + " was imported");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static int count(ArrayList<String> events, String event) {
+        int count = 0;
+        for (String e : events) {
+            if (e.equals(event)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
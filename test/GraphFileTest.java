@@ -0,0 +1,285 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Saves graphs with {@link GraphFile} and reads them back, both loaded into a new {@link Graph} and mapped as a
+ * {@link MappedTopology}, checking that every {@link Vertex} and {@link Edge} survives the round trip. Files with a
+ * damaged header or cut short are checked to be refused with an IOException, and saving over a mapped file is
+ * checked to leave the mapping reading the old contents. Objects of a type that is not recognised are refused with
+ * an IllegalStateException when mapped and an IOException when loaded.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class GraphFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emptyGraph() throws IOException {
+        Graph loaded = roundTrip(new Graph());
+        assertEquals(0, loaded.getVertexCount());
+        assertEquals(0, loaded.getEdgeCount());
+    }
+
+    @Test
+    public void isolatedVertices() throws IOException {
+        Graph graph = new Graph();
+        graph.insertVertex("PC", "A");
+        graph.move(graph.insertVertex("Mobile", "B"), 1.5, -2.25);
+        graph.insertVertex("Mobile", "C");
+        Graph loaded = roundTrip(graph);
+        assertEquals(3, loaded.getVertexCount());
+        assertEquals(0, loaded.getEdgeCount());
+        assertFalse(loaded.getVertex("PC", "A").hasPosition());
+        assertTrue(loaded.getVertex("Mobile", "B").hasPosition());
+        assertEquals(-2.25, loaded.getVertex("Mobile", "B").getY(), 0);
+    }
+
+    @Test
+    public void channelAttributes() throws IOException {
+        ArrayList<Vertex> vertexList = new ArrayList<Vertex>();
+        vertexList.add(new PC("A"));
+        vertexList.add(new Mobile("B"));
+        vertexList.add(new Mobile("C"));
+        ArrayList<Edge> edgeList = new ArrayList<Edge>();
+        edgeList.add(new Channel(vertexList.get(0), vertexList.get(1), "1", 2.5, 0.125, 0.75));
+        edgeList.add(new Channel(vertexList.get(1), vertexList.get(2), "2", Double.MAX_VALUE, 0, 1));
+        Graph loaded = roundTrip(new Graph(vertexList, edgeList));
+        Channel first = (Channel) loaded.getEdge("Channel", "1");
+        assertEquals(2.5, first.getLatency(), 0);
+        assertEquals(0.125, first.getEnergy(), 0);
+        assertEquals(0.75, first.getQuality(), 0);
+        assertEquals(Double.MAX_VALUE, ((Channel) loaded.getEdge("Channel", "2")).getLatency(), 0);
+    }
+
+    @Test
+    public void unicodeNames() throws IOException {
+        String[] names = {"caf\u00e9", "\u65e5\u672c", "\ud83d\udce1 relay", "\u0410\u0411", ""};
+        Graph graph = new Graph();
+        for (String name : names) {
+            graph.insertVertex("Mobile", name);
+        }
+        graph.insertEdge(graph.getVertex("Mobile", names[0]), graph.getVertex("Mobile", names[2]), "Channel",
+                "\u00fcber-\u03bb");
+        Graph loaded = roundTrip(graph);
+        for (String name : names) {
+            assertNotNull(name, loaded.getVertex("Mobile", name));
+        }
+        Edge e = loaded.getEdge("Channel", "\u00fcber-\u03bb");
+        assertEquals(names[0], e.getV().getName());
+        assertEquals(names[2], e.getW().getName());
+    }
+
+    @Test
+    public void saveLeavesMappedFileReadable() throws IOException {
+        File file = saved(sample());
+        MappedTopology mapped = GraphFile.map(file);
+        Graph bigger = sample();
+        bigger.insertEdge(bigger.getVertex("PC", "A"), bigger.insertVertex("Mobile", "D"), "Channel", "3");
+        GraphFile.save(bigger, file);
+
+        assertMatches(sample(), mapped);
+        assertEquals(4, GraphFile.load(file, false).getVertexCount());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void truncatedHeader() throws IOException {
+        File file = saved(sample());
+        cut(file, GraphFile.HEADER_SIZE - 8);
+        assertRefused(file);
+    }
+
+    @Test
+    public void truncatedBody() throws IOException {
+        File file = saved(sample());
+        cut(file, file.length() - 1);
+        assertRefused(file);
+    }
+
+    @Test
+    public void corruptMagic() throws IOException {
+        File file = saved(sample());
+        writeInt(file, 0, 0x12345678);
+        assertRefused(file);
+    }
+
+    @Test
+    public void unknownFormatVersion() throws IOException {
+        File file = saved(sample());
+        writeInt(file, 4, GraphFile.FORMAT_VERSION + 1);
+        assertRefused(file);
+    }
+
+    @Test
+    public void corruptCounts() throws IOException {
+        File file = saved(sample());
+        writeInt(file, GraphFile.EDGE_COUNT_AT, 1000);
+        assertRefused(file);
+        file = saved(sample());
+        writeInt(file, GraphFile.VERTEX_COUNT_AT, -1);
+        assertRefused(file);
+    }
+
+    @Test
+    public void unknownTypes() throws IOException {
+        Graph graph = new Graph();
+        graph.insertEdge(graph.insertVertex("PC", "A"), graph.insertVertex("Mobile", "B"), "Channel", "1");
+        File file = saved(graph);
+        replace(file, "Mobile", "Laptop");
+        MappedTopology mapped = GraphFile.map(file);
+        assertEquals("PC", mapped.vertexAt(0).getType());
+        try {
+            mapped.vertexAt(1);
+            fail("Vertex of unknown type was created");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Laptop"));
+        }
+        try {
+            mapped.edgeAt(0);
+            fail("Edge to a Vertex of unknown type was created");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            GraphFile.load(file, false);
+            fail(file + " was loaded");
+        } catch (IOException e) {
+            // expected
+        }
+
+        file = saved(graph);
+        replace(file, "Channel", "Cables!");
+        try {
+            GraphFile.map(file).edgeAt(0);
+            fail("Edge of unknown type was created");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Cables!"));
+        }
+    }
+
+    /**
+     * Makes a small graph of three vertices in a line.
+     */
+    private static Graph sample() {
+        Graph graph = new Graph();
+        Vertex a = graph.insertVertex("PC", "A");
+        Vertex b = graph.insertVertex("Mobile", "B");
+        Vertex c = graph.insertVertex("Mobile", "C");
+        graph.insertEdge(a, b, "Channel", "1");
+        graph.insertEdge(b, c, "Channel", "2");
+        return graph;
+    }
+
+    private File saved(Graph graph) throws IOException {
+        File file = folder.newFile();
+        GraphFile.save(graph, file);
+        return file;
+    }
+
+    /**
+     * Saves a graph, checks that both the loaded and the mapped copy match it and returns the loaded one.
+     */
+    private Graph roundTrip(Graph graph) throws IOException {
+        File file = saved(graph);
+        Graph loaded = GraphFile.load(file, false);
+        assertMatches(graph, loaded.snapshot());
+        assertMatches(graph, GraphFile.map(file));
+        return loaded;
+    }
+
+    /**
+     * Checks that a topology read back from a file matches the graph it was saved from, object for object.
+     */
+    private static void assertMatches(Graph graph, Topology read) {
+        TopologySnapshot saved = graph.snapshot();
+        assertEquals(saved.size(), read.size());
+        for (int v = 0; v < saved.size(); v++) {
+            Vertex expected = saved.vertexAt(v);
+            Vertex actual = read instanceof MappedTopology ? ((MappedTopology) read).vertexAt(v)
+                    : ((TopologySnapshot) read).vertexAt(v);
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.hasPosition(), actual.hasPosition());
+            assertEquals(expected.getX(), actual.getX(), 0);
+            assertEquals(expected.getY(), actual.getY(), 0);
+            assertEquals(saved.degree(v), read.degree(v));
+            for (int i = 0; i < saved.degree(v); i++) {
+                int w = saved.neighbour(v, i);
+                assertEquals(w, read.neighbour(v, i));
+                Channel e = (Channel) saved.incidentEdge(v, i);
+                Channel f = (Channel) read.incidentEdge(v, i);
+                assertEquals(e.getName(), f.getName());
+                assertEquals(e.getLatency(), f.getLatency(), 0);
+                assertEquals(e.getEnergy(), f.getEnergy(), 0);
+                assertEquals(e.getQuality(), f.getQuality(), 0);
+                assertTrue(read.getEdge(v, w) == f);
+            }
+        }
+    }
+
+    private static void assertRefused(File file) {
+        try {
+            GraphFile.map(file);
+            fail(file + " was mapped");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            GraphFile.load(file, false);
+            fail(file + " was loaded");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static void cut(File file, long length) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.setLength(length);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Overwrites the bytes of one string in a file with another string of the same length.
+     */
+    private static void replace(File file, String from, String to) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            byte[] data = new byte[(int) out.length()];
+            out.readFully(data);
+            String text = new String(data, "ISO-8859-1");
+            int at = text.indexOf(from);
+            assertTrue(from + " not found", at >= 0);
+            out.seek(at);
+            out.write(to.getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeInt(File file, long position, int value) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.seek(position);
+            out.writeInt(value);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ * Renames vertices and edges of a {@link Graph}, checking that only objects in the graph are renamed and that only
+ * real renames reach the name index and the {@link TopologyListener} objects.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class GraphTest {
+    @Test
+    public void foreignObjectsAreNotRenamed() {
+        Graph graph = new Graph();
+        Vertex a = graph.insertVertex("Mobile", "a");
+        Vertex b = graph.insertVertex("Mobile", "b");
+        graph.insertEdge(a, b, "Channel", "1");
+        Graph other = new Graph();
+        Vertex stranger = other.insertVertex("Mobile", "stranger");
+        Edge foreign = other.insertEdge(stranger, other.insertVertex("Mobile", "x"), "Channel", "9");
+        ArrayList<String> renames = listen(graph);
+
+        assertFalse(graph.rename(stranger, "c"));
+        assertFalse(graph.rename(foreign, "2"));
+        assertEquals("stranger", stranger.getName());
+        assertEquals("9", foreign.getName());
+        assertTrue(renames.isEmpty());
+
+        Vertex c = graph.insertVertex("Mobile", "c");
+        assertNotNull(c);
+        assertNotNull(graph.insertEdge(a, c, "Channel", "2"));
+    }
+
+    @Test
+    public void renameToSameNameDoesNothing() {
+        Graph graph = new Graph();
+        Vertex a = graph.insertVertex("Mobile", "a");
+        Edge e = graph.insertEdge(a, graph.insertVertex("Mobile", "b"), "Channel", "1");
+        ArrayList<String> renames = listen(graph);
+
+        assertTrue(graph.rename(a, "a"));
+        assertTrue(graph.rename(e, "1"));
+        assertTrue(renames.isEmpty());
+        assertSame(a, graph.getVertex("Mobile", "a"));
+        assertSame(e, graph.getEdge("Channel", "1"));
+
+        assertTrue(graph.rename(a, "renamed"));
+        assertEquals(1, renames.size());
+        assertSame(a, graph.getVertex("Mobile", "renamed"));
+        assertNotNull(graph.insertVertex("Mobile", "a"));
+    }
+
+    /**
+     * Adds a listener to a graph that records the old name of every rename it is told of.
+     */
+    private static ArrayList<String> listen(Graph graph) {
+        final ArrayList<String> renames = new ArrayList<String>();
+        graph.addTopologyListener(new TopologyListener() {
+            public void vertexInserted(Graph graph, Vertex v) {
+            }
+
+            public void vertexRemoved(Graph graph, Vertex v) {
+            }
+
+            public void edgeInserted(Graph graph, Edge e) {
+            }
+
+            public void edgeRemoved(Graph graph, Edge e) {
+            }
+
+            public void vertexRenamed(Graph graph, Vertex v, String oldName) {
+                renames.add(oldName);
+            }
+
+            public void edgeRenamed(Graph graph, Edge e, String oldName) {
+                renames.add(oldName);
+            }
+
+            public void vertexMoved(Graph graph, Vertex v) {
+            }
+        });
+        return renames;
+    }
+}
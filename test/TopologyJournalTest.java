@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Journals the changes made to a {@link Graph} with a {@link TopologyJournal} and recovers it, checking that vertices
+ * moved after the last checkpoint come back at the coordinates they were last moved to.
+ *
+ * @author Francis Poole
+ * @version 1.0, 18/4/13
+ */
+public class TopologyJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void movesSurviveRecovery() throws IOException {
+        File directory = folder.newFolder("journal");
+        Graph graph = new Graph();
+        Vertex a = graph.insertVertex("Mobile", "a");
+        graph.move(a, 1, 2);
+        TopologyJournal journal = TopologyJournal.open(graph, directory, 1000, 1 << 20);
+
+        Vertex b = graph.insertVertex("Mobile", "b");
+        graph.move(b, 5, 6);
+        graph.move(a, 3, 4);
+        graph.move(b, 7, 8);
+        graph.insertVertex("Mobile", "c");
+        journal.close();
+
+        Graph recovered = TopologyJournal.recover(directory, false);
+        assertEquals(3, recovered.getVertexCount());
+        assertPosition(recovered.getVertex("Mobile", "a"), 3, 4);
+        assertPosition(recovered.getVertex("Mobile", "b"), 7, 8);
+        assertFalse(recovered.getVertex("Mobile", "c").hasPosition());
+    }
+
+    @Test
+    public void movesAfterCheckpointSurviveRecovery() throws IOException {
+        File directory = folder.newFolder("journal");
+        Graph graph = new Graph();
+        Vertex a = graph.insertVertex("Mobile", "a");
+        TopologyJournal journal = TopologyJournal.open(graph, directory, 1000, 1 << 20);
+        graph.move(a, 1, 2);
+        journal.checkpoint();
+        graph.move(a, -3, 9);
+        journal.close();
+
+        assertPosition(TopologyJournal.recover(directory, false).getVertex("Mobile", "a"), -3, 9);
+    }
+
+    private static void assertPosition(Vertex v, double x, double y) {
+        assertNotNull(v);
+        assertTrue(v.hasPosition());
+        assertEquals(x, v.getX(), 0);
+        assertEquals(y, v.getY(), 0);
+    }
+}